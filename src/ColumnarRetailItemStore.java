@@ -0,0 +1,265 @@
+/**
+ * This class stores items in parallel arrays instead of one object per item.
+ * The units on hand are kept in an int array, the prices in cents in a long array,
+ * 		and the descriptions in a RetailItemDescriptionPool, which packs them into a single byte array,
+ * 		with the handle of each description in a long array and its hash for RetailItemIndex in an int array.
+ * Items added with addSharingDescription share the description of another item instead of keeping a copy.
+ * Slot i of each array belongs to the same item.
+ * A million items take up a handful of arrays instead of millions of objects and Strings.
+ * The units on hand and price of a removed slot are set to 0, so totals can add up whole arrays without checking each slot.
+ */
+
+import java.util.Arrays;
+
+public class ColumnarRetailItemStore implements RetailItemStore {
+
+	/**
+	 * int INITIAL_SLOTS number of slots an empty store starts with.
+	 * long FREE_SLOT description handle given to a slot that is not in use.
+	 */
+	private static final int INITIAL_SLOTS = 16;
+	private static final long FREE_SLOT = -1;
+
+	/**
+	 * int[] unitsOnHand units on hand of the item in each slot.
+	 * long[] priceCents price in cents of the item in each slot.
+	 * long[] descriptionHandles handle of the description of each slot in the pool, or FREE_SLOT.
+	 * int[] descriptionHashes RetailItemIndex hash of the description of each slot.
+	 * RetailItemDescriptionPool descriptions bytes of every description.
+	 * int slotCount one more than the highest slot used.
+	 * int[] freeSlots slots that can be used again.
+	 * int freeCount number of slots in freeSlots.
+	 */
+	private int[] unitsOnHand = new int[INITIAL_SLOTS];
+	private long[] priceCents = new long[INITIAL_SLOTS];
+	private long[] descriptionHandles = new long[INITIAL_SLOTS];
+	private int[] descriptionHashes = new int[INITIAL_SLOTS];
+	private RetailItemDescriptionPool descriptions = new RetailItemDescriptionPool();
+	private int slotCount = 0;
+	private int[] freeSlots = new int[INITIAL_SLOTS];
+	private int freeCount = 0;
+
+	@Override
+	public int add(String description, int units, long cents) {
+		return add(description, RetailItemIndex.hash(description), units, cents);
+	}
+
+	@Override
+	public int add(String description, int descriptionHash, int units, long cents) {
+		//variables
+		int slot = newSlot(units, cents);
+
+		putDescription(slot, description, descriptionHash);
+
+		return slot;
+	}
+
+	@Override
+	public int addSharingDescription(int sourceSlot, int units, long cents) {
+		//variables
+		int slot = newSlot(units, cents);
+
+		descriptionHandles[slot] = descriptionHandles[sourceSlot];
+		descriptionHashes[slot] = descriptionHashes[sourceSlot];
+
+		return slot;
+	}
+
+	@Override
+	public void remove(int slot) {
+		descriptions.release(descriptionHandles[slot]);
+		descriptionHandles[slot] = FREE_SLOT;
+		unitsOnHand[slot] = 0;
+		priceCents[slot] = 0;
+
+		if(freeCount == freeSlots.length) {
+			freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+		}
+
+		freeSlots[freeCount++] = slot;
+	}
+
+	@Override
+	public void clear() {
+		descriptions.clear();
+		slotCount = 0;
+		freeCount = 0;
+	}
+
+	@Override
+	public void ensureCapacity(int minCapacity) {
+		//variables
+		int newCapacity;
+
+		if(minCapacity > unitsOnHand.length) {
+			newCapacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(minCapacity, unitsOnHand.length * 2L));
+
+			unitsOnHand = Arrays.copyOf(unitsOnHand, newCapacity);
+			priceCents = Arrays.copyOf(priceCents, newCapacity);
+			descriptionHandles = Arrays.copyOf(descriptionHandles, newCapacity);
+			descriptionHashes = Arrays.copyOf(descriptionHashes, newCapacity);
+		}
+	}
+
+	@Override
+	public int slotCount() {
+		return slotCount;
+	}
+
+	@Override
+	public String getDescription(int slot) {
+		return descriptions.getDescription(descriptionHandles[slot]);
+	}
+
+	@Override
+	public void setDescription(int slot, String description) {
+		//the old bytes are left for the next packing, since another slot may share them
+		descriptions.release(descriptionHandles[slot]);
+		descriptionHandles[slot] = FREE_SLOT;
+		putDescription(slot, description, RetailItemIndex.hash(description));
+	}
+
+	@Override
+	public int descriptionHash(int slot) {
+		return descriptionHashes[slot];
+	}
+
+	@Override
+	public boolean descriptionMatches(int slot, String description, boolean ignoreCase) {
+		return descriptions.matches(descriptionHandles[slot], description, ignoreCase);
+	}
+
+	@Override
+	public int getUnitsOnHand(int slot) {
+		return unitsOnHand[slot];
+	}
+
+	@Override
+	public void setUnitsOnHand(int slot, int units) {
+		unitsOnHand[slot] = units;
+	}
+
+	@Override
+	public long getPriceCents(int slot) {
+		return priceCents[slot];
+	}
+
+	@Override
+	public void setPriceCents(int slot, long cents) {
+		priceCents[slot] = cents;
+	}
+
+	/**
+	 * Adds up the items in a range of slots going straight through the arrays.
+	 * A removed slot adds 0 to every total, and it is told apart from an item by its price of 0, since every item costs at least a cent,
+	 * 		so the loop has no branches in it. It keeps four running totals of each kind so the additions of one slot do not wait for the one before.
+	 */
+	@Override
+	public RetailItemAggregates.Totals totals(int fromSlot, int toSlot) {
+		//variables
+		long units0 = 0;
+		long units1 = 0;
+		long units2 = 0;
+		long units3 = 0;
+		long price0 = 0;
+		long price1 = 0;
+		long price2 = 0;
+		long price3 = 0;
+		long value0 = 0;
+		long value1 = 0;
+		long value2 = 0;
+		long value3 = 0;
+		long count0 = 0;
+		long count1 = 0;
+		long count2 = 0;
+		long count3 = 0;
+		int slot = fromSlot;
+
+		for(; slot + 4 <= toSlot; slot += 4) {
+			units0 += unitsOnHand[slot];
+			units1 += unitsOnHand[slot + 1];
+			units2 += unitsOnHand[slot + 2];
+			units3 += unitsOnHand[slot + 3];
+			price0 += priceCents[slot];
+			price1 += priceCents[slot + 1];
+			price2 += priceCents[slot + 2];
+			price3 += priceCents[slot + 3];
+			value0 += unitsOnHand[slot] * priceCents[slot];
+			value1 += unitsOnHand[slot + 1] * priceCents[slot + 1];
+			value2 += unitsOnHand[slot + 2] * priceCents[slot + 2];
+			value3 += unitsOnHand[slot + 3] * priceCents[slot + 3];
+			count0 += priceCents[slot] != 0 ? 1 : 0;
+			count1 += priceCents[slot + 1] != 0 ? 1 : 0;
+			count2 += priceCents[slot + 2] != 0 ? 1 : 0;
+			count3 += priceCents[slot + 3] != 0 ? 1 : 0;
+		}
+
+		//the last few slots
+		for(; slot < toSlot; ++slot) {
+			units0 += unitsOnHand[slot];
+			price0 += priceCents[slot];
+			value0 += unitsOnHand[slot] * priceCents[slot];
+			count0 += priceCents[slot] != 0 ? 1 : 0;
+		}
+
+		return new RetailItemAggregates.Totals(count0 + count1 + count2 + count3, units0 + units1 + units2 + units3,
+				price0 + price1 + price2 + price3, value0 + value1 + value2 + value3);
+	}
+
+	@Override
+	public long memoryUsed() {
+		//each array has a 16 byte header
+		return 16L * 5
+				+ 4L * unitsOnHand.length
+				+ 8L * priceCents.length
+				+ 8L * descriptionHandles.length
+				+ 4L * descriptionHashes.length
+				+ 4L * freeSlots.length
+				+ descriptions.memoryUsed();
+	}
+
+	//helper methods
+	/**
+	 * Picks a slot for a new item and stores its units on hand and price.
+	 *
+	 * @param units integer representing the units on hand of the item.
+	 * @param cents long representing the price of the item in cents.
+	 *
+	 * @return an integer representing the slot.
+	 */
+	private int newSlot(int units, long cents) {
+		//variables
+		int slot;
+
+		//a removed slot is used before a new one
+		if(freeCount > 0) {
+			slot = freeSlots[--freeCount];
+		}
+		else {
+			ensureCapacity(slotCount + 1);
+			slot = slotCount++;
+		}
+
+		unitsOnHand[slot] = units;
+		priceCents[slot] = cents;
+
+		return slot;
+	}
+
+	/**
+	 * Adds a description to the pool and points a slot at it.
+	 * The pool is packed first if most of it is left over from old descriptions.
+	 *
+	 * @param slot integer representing the slot of the item. Its handle should be FREE_SLOT.
+	 * @param description String representing the description.
+	 * @param descriptionHash integer representing the RetailItemIndex hash of the description.
+	 */
+	private void putDescription(int slot, String description, int descriptionHash) {
+		if(descriptions.needsPacking(description)) {
+			descriptions.pack(descriptionHandles, slotCount);
+		}
+
+		descriptionHandles[slot] = descriptions.add(description);
+		descriptionHashes[slot] = descriptionHash;
+	}
+}
@@ -0,0 +1,557 @@
+/**
+ * This class lets many threads change the items in a RetailItemList at the same time.
+ * Every change is done as one step, so two threads adding or removing units from the same item cannot lose each other's change.
+ *
+ * Changes to one item hold the read side of a ReentrantReadWriteLock and the lock of the item's stripe.
+ * Items are spread over the stripes by slot, so threads changing different items almost never wait for each other.
+ * Creating, deleting, and renaming items change the list itself, so they hold the write side of the lock.
+ *
+ * A delete leaves a tombstone in the list. Once the list needs compacting, a background thread works out the compacted list
+ * 		while holding only the read side of the lock, so other threads can keep reading and changing items,
+ * 		then holds the write side just long enough to put it in place.
+ *
+ * The values are checked the same way as RetailItem checks them: units on hand and prices must stay greater than 0.
+ * Listeners of the list may be called from several threads at once, one call per item at a time.
+ */
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+public class ConcurrentInventory {
+
+	/**
+	 * int COMPACTION_TRIES most times the background thread prepares a compaction that is thrown away because the list changed.
+	 */
+	private static final int COMPACTION_TRIES = 3;
+
+	/**
+	 * RetailItemList itemList list holding the items.
+	 * ReentrantReadWriteLock structureLock read side held while an item is used, write side held while the list is changed.
+	 * Object[] stripes objects locked while an item is changed, picked by the item's slot.
+	 * AtomicBoolean compacting true while a background thread is compacting the list.
+	 */
+	private RetailItemList itemList;
+	private ReentrantReadWriteLock structureLock = new ReentrantReadWriteLock();
+	private Object[] stripes;
+	private AtomicBoolean compacting = new AtomicBoolean(false);
+
+	/**
+	 * Creates a ConcurrentInventory for a list.
+	 * The list should only be changed through the inventory from now on.
+	 *
+	 * @param items RetailItemList holding the items.
+	 */
+	public ConcurrentInventory(RetailItemList items) {
+		//variables
+		int stripeCount = 1;
+
+		itemList = items;
+
+		//a few stripes for each processor, rounded up to a power of two
+		while(stripeCount < Runtime.getRuntime().availableProcessors() * 4) {
+			stripeCount *= 2;
+		}
+
+		stripes = new Object[stripeCount];
+
+		for(int i = 0; i < stripeCount; ++i) {
+			stripes[i] = new Object();
+		}
+	}
+
+	/**
+	 * Returns the list holding the items.
+	 *
+	 * @return the RetailItemList of this inventory.
+	 */
+	public RetailItemList getItemList() {
+		return itemList;
+	}
+
+	/**
+	 * Returns a copy of an item, with its units on hand and price read together.
+	 *
+	 * @param description String representing the description of the item, ignoring case.
+	 *
+	 * @return a new RetailItem holding the data of the item.
+	 *
+	 * @throws IllegalArgumentException if the item is not found.
+	 */
+	public RetailItem getItem(String description) throws IllegalArgumentException {
+		//variables
+		RetailItemView item;
+
+		structureLock.readLock().lock();
+
+		try {
+			item = findItem(description);
+
+			synchronized(stripeOf(item)) {
+				return new RetailItem(item);
+			}
+		}
+		finally {
+			structureLock.readLock().unlock();
+		}
+	}
+
+	//methods for units on hand
+	/**
+	 * Returns the units on hand of an item.
+	 *
+	 * @param description String representing the description of the item, ignoring case.
+	 *
+	 * @return an integer representing the units on hand.
+	 *
+	 * @throws IllegalArgumentException if the item is not found.
+	 */
+	public int getUnitsOnHand(String description) throws IllegalArgumentException {
+		//variables
+		RetailItemView item;
+
+		structureLock.readLock().lock();
+
+		try {
+			item = findItem(description);
+
+			synchronized(stripeOf(item)) {
+				return item.getUnitsOnHand();
+			}
+		}
+		finally {
+			structureLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds units to an item in one step.
+	 *
+	 * @param description String representing the description of the item, ignoring case.
+	 * @param unitsToAdd integer representing the number of units to add, greater than 0.
+	 *
+	 * @return an integer representing the units on hand after they were added.
+	 *
+	 * @throws IllegalArgumentException if the item is not found, unitsToAdd is not greater than 0, or the units on hand would be too large.
+	 */
+	public int addUnits(String description, int unitsToAdd) throws IllegalArgumentException {
+		//variables
+		RetailItemView item;
+
+		if(unitsToAdd <= 0) {
+			throw new IllegalArgumentException("The number of units to add needs to be greater than 0.");
+		}
+
+		structureLock.readLock().lock();
+
+		try {
+			item = findItem(description);
+
+			synchronized(stripeOf(item)) {
+				//a sum too large for an int turns negative, which setUnitsOnHand turns away
+				item.setUnitsOnHand(item.getUnitsOnHand() + unitsToAdd);
+
+				return item.getUnitsOnHand();
+			}
+		}
+		finally {
+			structureLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes units from an item in one step. At least one unit has to be left.
+	 *
+	 * @param description String representing the description of the item, ignoring case.
+	 * @param unitsToRemove integer representing the number of units to remove, greater than 0.
+	 *
+	 * @return an integer representing the units on hand after they were removed.
+	 *
+	 * @throws IllegalArgumentException if the item is not found, unitsToRemove is not greater than 0, or no units would be left.
+	 */
+	public int removeUnits(String description, int unitsToRemove) throws IllegalArgumentException {
+		//variables
+		RetailItemView item;
+
+		if(unitsToRemove <= 0) {
+			throw new IllegalArgumentException("The number of units to remove needs to be greater than 0.");
+		}
+
+		structureLock.readLock().lock();
+
+		try {
+			item = findItem(description);
+
+			synchronized(stripeOf(item)) {
+				item.setUnitsOnHand(item.getUnitsOnHand() - unitsToRemove);
+
+				return item.getUnitsOnHand();
+			}
+		}
+		finally {
+			structureLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Sets the units on hand of an item only if they are still what the caller expects.
+	 *
+	 * @param description String representing the description of the item, ignoring case.
+	 * @param expectedUnits integer representing the units on hand the caller last saw.
+	 * @param newUnits integer representing the new units on hand, greater than 0.
+	 *
+	 * @return true if the units were set, false if they had changed.
+	 *
+	 * @throws IllegalArgumentException if the item is not found or newUnits is not greater than 0.
+	 */
+	public boolean compareAndSetUnits(String description, int expectedUnits, int newUnits) throws IllegalArgumentException {
+		//variables
+		RetailItemView item;
+
+		structureLock.readLock().lock();
+
+		try {
+			item = findItem(description);
+
+			synchronized(stripeOf(item)) {
+				if(item.getUnitsOnHand() != expectedUnits) {
+					return false;
+				}
+
+				item.setUnitsOnHand(newUnits);
+
+				return true;
+			}
+		}
+		finally {
+			structureLock.readLock().unlock();
+		}
+	}
+
+	//methods for prices
+	/**
+	 * Returns the price of an item.
+	 *
+	 * @param description String representing the description of the item, ignoring case.
+	 *
+	 * @return a double representing the price.
+	 *
+	 * @throws IllegalArgumentException if the item is not found.
+	 */
+	public double getPrice(String description) throws IllegalArgumentException {
+		//variables
+		RetailItemView item;
+
+		structureLock.readLock().lock();
+
+		try {
+			item = findItem(description);
+
+			synchronized(stripeOf(item)) {
+				return item.getPrice();
+			}
+		}
+		finally {
+			structureLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Sets the price of an item.
+	 *
+	 * @param description String representing the description of the item, ignoring case.
+	 * @param newPrice double representing the new price, at least one cent.
+	 *
+	 * @throws IllegalArgumentException if the item is not found or the price is not at least one cent.
+	 */
+	public void setPrice(String description, double newPrice) throws IllegalArgumentException {
+		//variables
+		RetailItemView item;
+
+		structureLock.readLock().lock();
+
+		try {
+			item = findItem(description);
+
+			synchronized(stripeOf(item)) {
+				item.setPrice(newPrice);
+			}
+		}
+		finally {
+			structureLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Sets the price of an item only if it is still what the caller expects.
+	 * Prices are compared in cents.
+	 *
+	 * @param description String representing the description of the item, ignoring case.
+	 * @param expectedPrice double representing the price the caller last saw.
+	 * @param newPrice double representing the new price, at least one cent.
+	 *
+	 * @return true if the price was set, false if it had changed.
+	 *
+	 * @throws IllegalArgumentException if the item is not found or the new price is not at least one cent.
+	 */
+	public boolean compareAndSetPrice(String description, double expectedPrice, double newPrice) throws IllegalArgumentException {
+		//variables
+		RetailItemView item;
+
+		structureLock.readLock().lock();
+
+		try {
+			item = findItem(description);
+
+			synchronized(stripeOf(item)) {
+				if(item.getPriceCents() != RetailItem.toCents(expectedPrice)) {
+					return false;
+				}
+
+				item.setPrice(newPrice);
+
+				return true;
+			}
+		}
+		finally {
+			structureLock.readLock().unlock();
+		}
+	}
+
+	//methods that change the list
+	/**
+	 * Creates a new item unless an item with the same description, ignoring case, already exists.
+	 *
+	 * @param description String representing the description of the new item.
+	 * @param unitsOnHand integer representing the units on hand of the new item.
+	 * @param price double representing the price of the new item.
+	 *
+	 * @return true if the item was created, false if the description is already used.
+	 *
+	 * @throws IllegalArgumentException if any of the values are not valid for a RetailItem.
+	 */
+	public boolean create(String description, int unitsOnHand, double price) throws IllegalArgumentException {
+		//checked before the lock is taken
+		RetailItem newItem = new RetailItem(description, unitsOnHand, price);
+
+		structureLock.writeLock().lock();
+
+		try {
+			if(itemList.indexOfDescription(description) >= 0) {
+				return false;
+			}
+
+			itemList.add(newItem);
+
+			return true;
+		}
+		finally {
+			structureLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Deletes an item.
+	 *
+	 * @param description String representing the description of the item, ignoring case.
+	 *
+	 * @return a RetailItem holding the data of the deleted item, or null if it was not found.
+	 */
+	public RetailItem delete(String description) {
+		//variables
+		int indexFound;
+		RetailItem deletedItem;
+		boolean needsCompaction;
+
+		structureLock.writeLock().lock();
+
+		try {
+			indexFound = itemList.indexOfDescription(description);
+
+			if(indexFound < 0) {
+				return null;
+			}
+
+			//leaves a tombstone, so the delete does not wait for every later item to move
+			deletedItem = itemList.removeWithoutCompacting(indexFound);
+			needsCompaction = itemList.needsCompaction();
+		}
+		finally {
+			structureLock.writeLock().unlock();
+		}
+
+		if(needsCompaction) {
+			startCompaction();
+		}
+
+		return deletedItem;
+	}
+
+	/**
+	 * Changes the description of an item.
+	 *
+	 * @param description String representing the current description of the item, ignoring case.
+	 * @param newDescription String representing the new description.
+	 *
+	 * @return true if the description was changed, false if the item was not found.
+	 *
+	 * @throws IllegalArgumentException if newDescription is empty.
+	 */
+	public boolean rename(String description, String newDescription) throws IllegalArgumentException {
+		//variables
+		int indexFound;
+
+		structureLock.writeLock().lock();
+
+		try {
+			indexFound = itemList.indexOfDescription(description);
+
+			if(indexFound < 0) {
+				return false;
+			}
+
+			itemList.get(indexFound).setDescription(newDescription);
+
+			return true;
+		}
+		finally {
+			structureLock.writeLock().unlock();
+		}
+	}
+
+	//methods that use the whole list
+	/**
+	 * Runs something that reads the list while no item is being created, deleted, or renamed.
+	 * Units and prices may still be changed by other threads while it runs.
+	 *
+	 * @param reader Supplier that reads the list.
+	 *
+	 * @return the value returned by reader.
+	 */
+	public <T> T read(Supplier<T> reader) {
+		structureLock.readLock().lock();
+
+		try {
+			return reader.get();
+		}
+		finally {
+			structureLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Runs something while no other thread can use the list, such as saving every item to a file.
+	 *
+	 * @param action Runnable to run.
+	 */
+	public void runExclusive(Runnable action) {
+		structureLock.writeLock().lock();
+
+		try {
+			action.run();
+		}
+		finally {
+			structureLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Starts a background thread that compacts the list, unless one is already running.
+	 */
+	public void startCompaction() {
+		//variables
+		Thread compactor;
+
+		if(!compacting.compareAndSet(false, true)) {
+			return;
+		}
+
+		compactor = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					compact();
+				}
+				finally {
+					compacting.set(false);
+				}
+			}
+		}, "ConcurrentInventory compactor");
+
+		//the list is only compacted for speed, so the program does not wait for it to finish
+		compactor.setDaemon(true);
+		compactor.start();
+	}
+
+	/**
+	 * Drops the tombstones of the list if it needs compacting.
+	 * The compacted list is worked out while holding the read side of the lock, so only creating, deleting, and renaming items wait for it,
+	 * 		and put in place while holding the write side. If an item was created or deleted in between, it is worked out again.
+	 *
+	 * @return true if the list was compacted.
+	 */
+	public boolean compact() {
+		//variables
+		RetailItemList.Compaction compaction;
+
+		for(int i = 0; i < COMPACTION_TRIES; ++i) {
+			structureLock.readLock().lock();
+
+			try {
+				if(!itemList.needsCompaction()) {
+					return false;
+				}
+
+				compaction = itemList.prepareCompaction();
+			}
+			finally {
+				structureLock.readLock().unlock();
+			}
+
+			structureLock.writeLock().lock();
+
+			try {
+				if(itemList.installCompaction(compaction)) {
+					return true;
+				}
+			}
+			finally {
+				structureLock.writeLock().unlock();
+			}
+		}
+
+		return false;
+	}
+
+	//helper methods
+	/**
+	 * Finds an item by its description. The caller must hold the structure lock.
+	 *
+	 * @param description String representing the description of the item, ignoring case.
+	 *
+	 * @return a RetailItemView of the item.
+	 *
+	 * @throws IllegalArgumentException if the item is not found.
+	 */
+	private RetailItemView findItem(String description) throws IllegalArgumentException {
+		//variables
+		int indexFound = itemList.indexOfDescription(description);
+
+		if(indexFound < 0) {
+			throw new IllegalArgumentException("The item \"" + description + "\" was not found.");
+		}
+
+		return (RetailItemView) itemList.get(indexFound);
+	}
+
+	/**
+	 * Returns the object locked while an item is changed.
+	 *
+	 * @param item RetailItemView of the item.
+	 *
+	 * @return the stripe of the item's slot.
+	 */
+	private Object stripeOf(RetailItemView item) {
+		return stripes[item.getSlot() & (stripes.length - 1)];
+	}
+}
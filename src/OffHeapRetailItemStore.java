@@ -0,0 +1,302 @@
+/**
+ * This class stores items outside the Java heap, in direct ByteBuffers, so the garbage collector
+ * 		only sees a few buffer objects no matter how many items there are.
+ *
+ * Each slot is a fixed 24 byte record: the price in cents (8 bytes), the units on hand (4 bytes),
+ * 		the length of the description in bytes (4 bytes), and where the description starts (8 bytes).
+ * Records are kept in blocks of 65,536. The descriptions are UTF-8 bytes packed into 16 MB chunks.
+ * Removed slots are kept in a free list that is linked through the units on hand of the free records,
+ * 		and the description chunks are packed once most of their bytes are no longer used.
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class OffHeapRetailItemStore implements RetailItemStore {
+
+	/**
+	 * int RECORD_SIZE number of bytes in a record.
+	 * int PRICE place in a record of the price in cents.
+	 * int UNITS place in a record of the units on hand, or of the next free slot if the record is free.
+	 * int LENGTH place in a record of the length of the description, or FREE_SLOT.
+	 * int OFFSET place in a record of where the description starts: the chunk in the high 32 bits and the place in the chunk in the low 32 bits.
+	 * int BLOCK_SHIFT number of bits of a slot that pick the record within a block.
+	 * int CHUNK_SIZE number of bytes in a description chunk.
+	 * int FREE_SLOT length given to a record that is not in use.
+	 */
+	private static final int RECORD_SIZE = 24;
+	private static final int PRICE = 0;
+	private static final int UNITS = 8;
+	private static final int LENGTH = 12;
+	private static final int OFFSET = 16;
+	private static final int BLOCK_SHIFT = 16;
+	private static final int CHUNK_SIZE = 16 * 1024 * 1024;
+	private static final int FREE_SLOT = -1;
+
+	/**
+	 * ByteBuffer[] blocks blocks of records.
+	 * int blockCount number of blocks allocated.
+	 * int slotCount one more than the highest slot used.
+	 * int firstFree first slot of the free list, or -1 if it is empty.
+	 * ByteBuffer[] chunks chunks of description bytes.
+	 * int chunkCount number of chunks in use. The last one is the one descriptions are added to.
+	 * long usedBytes description bytes added to the chunks.
+	 * long unusedBytes description bytes left behind by removed or changed descriptions.
+	 */
+	private ByteBuffer[] blocks = new ByteBuffer[4];
+	private int blockCount = 0;
+	private int slotCount = 0;
+	private int firstFree = -1;
+	private ByteBuffer[] chunks = new ByteBuffer[4];
+	private int chunkCount = 0;
+	private long usedBytes = 0;
+	private long unusedBytes = 0;
+
+	@Override
+	public int add(String description, int unitsOnHand, long priceCents) {
+		//variables
+		int slot;
+		ByteBuffer block;
+		int record;
+
+		//a removed slot is used before a new one
+		if(firstFree >= 0) {
+			slot = firstFree;
+			firstFree = blocks[slot >>> BLOCK_SHIFT].getInt(recordOf(slot) + UNITS);
+		}
+		else {
+			ensureCapacity(slotCount + 1);
+			slot = slotCount++;
+		}
+
+		block = blocks[slot >>> BLOCK_SHIFT];
+		record = recordOf(slot);
+		block.putLong(record + PRICE, priceCents);
+		block.putInt(record + UNITS, unitsOnHand);
+		putDescription(slot, description.getBytes(StandardCharsets.UTF_8));
+
+		return slot;
+	}
+
+	@Override
+	public void remove(int slot) {
+		//variables
+		ByteBuffer block = blocks[slot >>> BLOCK_SHIFT];
+		int record = recordOf(slot);
+
+		unusedBytes += block.getInt(record + LENGTH);
+		block.putInt(record + LENGTH, FREE_SLOT);
+		block.putLong(record + PRICE, 0);
+
+		//the record points to the slot that was at the front of the free list
+		block.putInt(record + UNITS, firstFree);
+		firstFree = slot;
+	}
+
+	@Override
+	public void clear() {
+		//the buffers are let go so their memory is given back
+		Arrays.fill(blocks, null);
+		Arrays.fill(chunks, null);
+		blockCount = 0;
+		chunkCount = 0;
+		slotCount = 0;
+		firstFree = -1;
+		usedBytes = 0;
+		unusedBytes = 0;
+	}
+
+	@Override
+	public void ensureCapacity(int minCapacity) {
+		//variables
+		int blocksNeeded = (int) (((long) minCapacity + (1 << BLOCK_SHIFT) - 1) >>> BLOCK_SHIFT);
+
+		if(blocksNeeded > blocks.length) {
+			blocks = Arrays.copyOf(blocks, Math.max(blocksNeeded, blocks.length * 2));
+		}
+
+		while(blockCount < blocksNeeded) {
+			blocks[blockCount++] = ByteBuffer.allocateDirect(RECORD_SIZE << BLOCK_SHIFT).order(ByteOrder.nativeOrder());
+		}
+	}
+
+	@Override
+	public int slotCount() {
+		return slotCount;
+	}
+
+	@Override
+	public String getDescription(int slot) {
+		//variables
+		ByteBuffer block = blocks[slot >>> BLOCK_SHIFT];
+		int record = recordOf(slot);
+		int length = block.getInt(record + LENGTH);
+		long offset = block.getLong(record + OFFSET);
+
+		//each call gets its own array so several threads can read descriptions at once
+		byte[] descriptionBytes = new byte[length];
+
+		chunks[(int) (offset >>> 32)].get((int) offset, descriptionBytes);
+
+		return new String(descriptionBytes, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void setDescription(int slot, String description) {
+		//variables
+		byte[] newBytes = description.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer block = blocks[slot >>> BLOCK_SHIFT];
+		int record = recordOf(slot);
+		int oldLength = block.getInt(record + LENGTH);
+		long offset = block.getLong(record + OFFSET);
+
+		//a description that fits where the old one was is written over it
+		if(newBytes.length <= oldLength) {
+			chunks[(int) (offset >>> 32)].put((int) offset, newBytes);
+			block.putInt(record + LENGTH, newBytes.length);
+			unusedBytes += oldLength - newBytes.length;
+		}
+		else {
+			unusedBytes += oldLength;
+			putDescription(slot, newBytes);
+		}
+	}
+
+	@Override
+	public int getUnitsOnHand(int slot) {
+		return blocks[slot >>> BLOCK_SHIFT].getInt(recordOf(slot) + UNITS);
+	}
+
+	@Override
+	public void setUnitsOnHand(int slot, int unitsOnHand) {
+		blocks[slot >>> BLOCK_SHIFT].putInt(recordOf(slot) + UNITS, unitsOnHand);
+	}
+
+	@Override
+	public long getPriceCents(int slot) {
+		return blocks[slot >>> BLOCK_SHIFT].getLong(recordOf(slot) + PRICE);
+	}
+
+	@Override
+	public void setPriceCents(int slot, long priceCents) {
+		blocks[slot >>> BLOCK_SHIFT].putLong(recordOf(slot) + PRICE, priceCents);
+	}
+
+	/**
+	 * Returns how many bytes the store is using. Almost all of them are outside the heap.
+	 *
+	 * @return a long representing the number of bytes.
+	 */
+	@Override
+	public long memoryUsed() {
+		//variables
+		long bytes = 16L * 2 + 8L * blocks.length + 8L * chunks.length;
+
+		for(int i = 0; i < blockCount; ++i) {
+			bytes += blocks[i].capacity();
+		}
+
+		for(int i = 0; i < chunkCount; ++i) {
+			bytes += chunks[i].capacity();
+		}
+
+		return bytes;
+	}
+
+	//helper methods
+	/**
+	 * Returns where the record of a slot starts in its block.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 *
+	 * @return an integer representing the place in the block.
+	 */
+	private static int recordOf(int slot) {
+		return (slot & ((1 << BLOCK_SHIFT) - 1)) * RECORD_SIZE;
+	}
+
+	/**
+	 * Adds the bytes of a description to the end of the last chunk and points a slot at them.
+	 * A new chunk is started when the last one is full, after packing the chunks if most of their bytes are unused.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 * @param newBytes byte array holding the UTF-8 bytes of the description.
+	 */
+	private void putDescription(int slot, byte[] newBytes) {
+		//variables
+		ByteBuffer block = blocks[slot >>> BLOCK_SHIFT];
+		int record = recordOf(slot);
+		ByteBuffer chunk;
+
+		if(chunkCount == 0 || chunks[chunkCount - 1].remaining() < newBytes.length) {
+			if(unusedBytes > usedBytes / 2 && unusedBytes >= CHUNK_SIZE) {
+				//the slot being written is packed too, so its old bytes are marked as gone first
+				block.putInt(record + LENGTH, 0);
+				packChunks();
+			}
+
+			if(chunkCount == 0 || chunks[chunkCount - 1].remaining() < newBytes.length) {
+				addChunk(newBytes.length);
+			}
+		}
+
+		chunk = chunks[chunkCount - 1];
+		block.putLong(record + OFFSET, ((long) (chunkCount - 1) << 32) | chunk.position());
+		block.putInt(record + LENGTH, newBytes.length);
+		chunk.put(newBytes);
+		usedBytes += newBytes.length;
+	}
+
+	/**
+	 * Starts a new chunk big enough for at least a number of bytes.
+	 *
+	 * @param minSize integer representing the number of bytes that must fit.
+	 */
+	private void addChunk(int minSize) {
+		if(chunkCount == chunks.length) {
+			chunks = Arrays.copyOf(chunks, chunks.length * 2);
+		}
+
+		chunks[chunkCount++] = ByteBuffer.allocateDirect(Math.max(CHUNK_SIZE, minSize));
+	}
+
+	/**
+	 * Copies the description of every slot in use into new chunks, dropping the bytes no slot uses.
+	 */
+	private void packChunks() {
+		//variables
+		ByteBuffer[] oldChunks = chunks;
+		ByteBuffer block;
+		ByteBuffer chunk;
+		int record;
+		int length;
+		long offset;
+
+		chunks = new ByteBuffer[4];
+		chunkCount = 0;
+		usedBytes = 0;
+		unusedBytes = 0;
+
+		for(int slot = 0; slot < slotCount; ++slot) {
+			block = blocks[slot >>> BLOCK_SHIFT];
+			record = recordOf(slot);
+			length = block.getInt(record + LENGTH);
+
+			if(length > 0) {
+				offset = block.getLong(record + OFFSET);
+
+				if(chunkCount == 0 || chunks[chunkCount - 1].remaining() < length) {
+					addChunk(length);
+				}
+
+				chunk = chunks[chunkCount - 1];
+				block.putLong(record + OFFSET, ((long) (chunkCount - 1) << 32) | chunk.position());
+				chunk.put(chunk.position(), oldChunks[(int) (offset >>> 32)], (int) offset, length);
+				chunk.position(chunk.position() + length);
+				usedBytes += length;
+			}
+		}
+	}
+}
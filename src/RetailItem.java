@@ -2,10 +2,14 @@
  * This class creates a retail item with a specific description, number of units, and price.
  * It allows these items to be created from a database or to be created by the user.
  * It also allows the user to write the retail item(s) to a new file to create their own database.
+ * The price is kept in whole cents, so the price in memory is always the price written to the file.
  */
 
 
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.*;
 
 public class RetailItem {
@@ -13,19 +17,56 @@ public class RetailItem {
 	/**
 	 * String description RetailItem object's description.
 	 * int unitsOnHand Remaining units of a RetailItem object.
-	 * double price cost of a RetailItem object.
+	 * long priceCents cost of a RetailItem object, in cents.
+	 * String descriptionKey case-folded description used to find the item without caring about case.
 	 */
 	private String description; 
 	private int unitsOnHand; 
-	private double price;
+	private long priceCents;
+	private String descriptionKey;
 	
 	/**
 	 * default constructor initializing description, unitOnHand, and price.
 	 */
 	public RetailItem() {
 		description = "";
+		descriptionKey = "";
 		unitsOnHand = 0;
-		price = 0.00; 
+		priceCents = 0; 
+	}
+	
+	/**
+	 * Creates a new RetailItem object with a price given in cents, such as a price read from a binary file.
+	 * 
+	 * @param userDescription String representing the description of the new RetailItem object.
+	 * @param userUnitsOnHand integer representing the unitsOnHand of the new RetailItem object.
+	 * @param userPriceCents long representing the price of the new RetailItem object in cents.
+	 * 
+	 * @return the new RetailItem.
+	 * 
+	 * @throws IllegalArgumentException if userDescription is an empty String, or userUnitsOnHand or userPriceCents are not greater than 0.
+	 */
+	public static RetailItem fromCents(String userDescription, int userUnitsOnHand, long userPriceCents) throws IllegalArgumentException {
+		//variables
+		RetailItem item = new RetailItem();
+		
+		item.setDescription(userDescription);
+		item.setUnitsOnHand(userUnitsOnHand);
+		item.setPriceCents(userPriceCents);
+		
+		return item;
+	}
+	
+	/**
+	 * Creates a new RetailItem object holding a copy of the data of another RetailItem.
+	 * 
+	 * @param other RetailItem to copy.
+	 */
+	public RetailItem(RetailItem other) {
+		description = other.getDescription();
+		descriptionKey = other.getDescriptionKey();
+		unitsOnHand = other.getUnitsOnHand();
+		priceCents = other.getPriceCents();
 	}
 	
 	/**
@@ -59,6 +100,7 @@ public class RetailItem {
 		}
 		else {
 			description = userDescription;
+			descriptionKey = foldCase(userDescription);
 		}
 			
 	}
@@ -81,19 +123,45 @@ public class RetailItem {
 	}
 	
 	/**
-	 * Takes a user-specified double and sets it as the price of a RetailItem if it is greater than zero.
+	 * Takes a user-specified double and sets it as the price of a RetailItem if it is at least one cent,
+	 * 		rounded to whole cents the same way toCents rounds it.
 	 * 
 	 * @param userPrice double representing the price a user wants to set for a RetailItem object.
 	 * 
-	 * @throws IllegalArgumentException if userPrice is not a double or an integer
+	 * @throws IllegalArgumentException if userPrice rounds to 0 cents or less, or is too large to be held in cents.
 	 */
 	public void setPrice(double userPrice) throws IllegalArgumentException {
 		//ensures price is not less than 0
-		if(userPrice <= 0) {
+		if(!(userPrice > 0)) {
+			throw new IllegalArgumentException("Price cannot be less than or equal to 0.");
+		}
+		
+		if(Double.isInfinite(userPrice)) {
+			throw new IllegalArgumentException("Price is too large.");
+		}
+		
+		try {
+			setPriceCents(toCents(userPrice));
+		}
+		catch(ArithmeticException tooLarge) {
+			throw new IllegalArgumentException("Price is too large.");
+		}
+	}
+	
+	/**
+	 * Takes a user-specified number of cents and sets it as the price of a RetailItem if it is greater than zero.
+	 * 
+	 * @param userPriceCents long representing the price a user wants to set for a RetailItem object, in cents.
+	 * 
+	 * @throws IllegalArgumentException if userPriceCents is less than or equal to 0.
+	 */
+	public void setPriceCents(long userPriceCents) throws IllegalArgumentException {
+		//only two decimals are kept, so a price has to be at least one cent
+		if(userPriceCents <= 0) {
 			throw new IllegalArgumentException("Price cannot be less than or equal to 0.");
 		}
 		else {
-			price = userPrice;
+			priceCents = userPriceCents;
 		}
 	}
 	
@@ -107,6 +175,16 @@ public class RetailItem {
 		return description;
 	}
 	
+	/**
+	 * Returns a String representing the case-folded description of a RetailItem object.
+	 * Two descriptions that are equal ignoring case have the same key.
+	 * 
+	 * @return a String representing the case-folded description of a RetailItem object.
+	 */
+	public String getDescriptionKey() {
+		return descriptionKey;
+	}
+	
 	/**
 	 * Returns an integer representing the unitsOnHand for a RetailItem object.
 	 * 
@@ -122,7 +200,16 @@ public class RetailItem {
 	 * @return a double representing the price of an RetailItem object.
 	 */
 	public double getPrice() {
-		return price;
+		return getPriceCents() / 100.0;
+	}
+	
+	/**
+	 * Returns a long representing the price of an RetailItem object in cents.
+	 * 
+	 * @return a long representing the price of an RetailItem object in cents.
+	 */
+	public long getPriceCents() {
+		return priceCents;
 	}
 	
 	/**
@@ -149,12 +236,56 @@ public class RetailItem {
 				}
 				else {
 					//error message thrown if the price is incorrect (not an int or double or a negative)
-					throw new IllegalArgumentException("The price for \"" + description + "\" was not found or formatted incorrectly.");
+					throw new IllegalArgumentException("The price for \"" + getDescription() + "\" was not found or formatted incorrectly.");
 				}
 			}
 			else {
 				//error message thrown if unitsOnHand is incorrect (not an int or negative)
-				throw new IllegalArgumentException("The units on hand for \"" + description + "\" was not found or formatted incorrectly.");
+				throw new IllegalArgumentException("The units on hand for \"" + getDescription() + "\" was not found or formatted incorrectly.");
+			}
+		}
+		else {
+			//error message if a line is blank
+			throw new IllegalArgumentException("Blank line. Deleting the line.");
+		}
+
+	} 
+	
+	/**
+	 * Takes lineReader to set the description, unitsOnHand, and price for 
+	 * 		a RetailItem object instance from a file.
+	 * Follows the same rules and gives the same error messages as readData(Scanner).
+	 * 
+	 * @param lineReader RetailItemReader positioned at a line of data in a file.
+	 * 
+	 * @throws IllegalArgumentException if description is empty, unitsOnHand is negative or not an integer, or if price is negative or not a double or an integer.
+	 */
+	public void readData(RetailItemReader lineReader) throws IllegalArgumentException {
+		
+		//checks to make sure there is something to read
+		if(lineReader.hasNext()) {
+			setDescription(lineReader.next());
+			
+			//checks to see if there is an int to read
+			if(lineReader.hasNextInt()) {
+				setUnitsOnHand(lineReader.nextInt());
+				
+				//checks if there is a double to read
+				//a price written with plain digits is read straight into cents
+				if(lineReader.hasNextCents()) {
+					setPriceCents(lineReader.nextCents());
+				}
+				else if(lineReader.hasNextDouble()) {
+					setPrice(lineReader.nextDouble());
+				}
+				else {
+					//error message thrown if the price is incorrect (not an int or double or a negative)
+					throw new IllegalArgumentException("The price for \"" + getDescription() + "\" was not found or formatted incorrectly.");
+				}
+			}
+			else {
+				//error message thrown if unitsOnHand is incorrect (not an int or negative)
+				throw new IllegalArgumentException("The units on hand for \"" + getDescription() + "\" was not found or formatted incorrectly.");
 			}
 		}
 		else {
@@ -171,7 +302,19 @@ public class RetailItem {
 	 */
 	public void writeData(PrintWriter printWriter) {
 		//formatted print
-		printWriter.printf("%s %d %.2f \n", description, unitsOnHand, price);
+		//the cents are formatted as an exact decimal
+		printWriter.printf("%s %d %.2f \n", getDescription(), getUnitsOnHand(), BigDecimal.valueOf(getPriceCents(), 2));
+	}
+	
+	/**
+	 * Writes data to a new file using a RetailItemWriter, which writes the same text as writeData(PrintWriter) without printf.
+	 * 
+	 * @param itemWriter passed to allow a specific file to be written to.
+	 * 
+	 * @throws IOException May throw IOException if the data cannot be written.
+	 */
+	public void writeData(RetailItemWriter itemWriter) throws IOException {
+		itemWriter.write(getDescription(), getUnitsOnHand(), getPriceCents());
 	}
 	
 	/**
@@ -180,9 +323,10 @@ public class RetailItem {
 	 * 		and a double representing an item's price.
 	 */
 	public void printInfo() {
-		System.out.println("Description: " + description);
-		System.out.println("Units On Hand: " + unitsOnHand);
-		System.out.printf("Price: $%.2f\n\n", price);
+		//one print instead of three, so the lines of the item are written together
+		System.out.print("Description: " + getDescription() + System.lineSeparator()
+				+ "Units On Hand: " + getUnitsOnHand() + System.lineSeparator()
+				+ String.format("Price: $%.2f\n\n", BigDecimal.valueOf(getPriceCents(), 2)));
 	}	
 	
 	
@@ -193,7 +337,75 @@ public class RetailItem {
 	 */
 	@Override
 	public String toString() {
-		return description + " " + unitsOnHand + " " + price;
+		return getDescription() + " " + getUnitsOnHand() + " " + getPrice();
+	}
+	
+	/**
+	 * Returns a price in whole cents, rounded the same way writeData rounds it to two decimals.
+	 * 
+	 * @param price double representing a price.
+	 * 
+	 * @return a long representing the price in cents.
+	 * 
+	 * @throws ArithmeticException if the price is too large to be held in cents.
+	 */
+	public static long toCents(double price) throws ArithmeticException {
+		//variables
+		double scaled = price * 100;
+		double fraction = scaled - Math.floor(scaled);
+		
+		//a price that is not close to half a cent rounds the same either way
+		if(Math.abs(scaled) < 0x1p52 && Math.abs(fraction - 0.5) > Math.ulp(scaled) * 8) {
+			return Math.round(scaled);
+		}
+		
+		//otherwise the decimal digits are rounded half up, which is what %.2f does
+		return new BigDecimal(Double.toString(price)).setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+	}
+	
+	/**
+	 * Returns true if a price is at least one cent once it is rounded to two decimals and is small enough to be held in cents.
+	 * These are the prices a RetailItemList can store.
+	 * 
+	 * @param price double representing a price.
+	 * 
+	 * @return true if the price can be stored.
+	 */
+	public static boolean isStorablePrice(double price) {
+		//checked first so toCents is only given a finite number
+		if(!(price > 0) || Double.isInfinite(price)) {
+			return false;
+		}
+		
+		try {
+			return toCents(price) > 0;
+		}
+		catch(ArithmeticException tooLarge) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Folds the case of a String the same way String.equalsIgnoreCase compares characters.
+	 * 
+	 * @param text String to fold.
+	 * 
+	 * @return a String that is equal to the folded version of any String that equals text ignoring case.
+	 */
+	public static String foldCase(String text) {
+		//variables
+		int i = 0;
+		int codePoint;
+		StringBuilder folded = new StringBuilder(text.length());
+		
+		//each character is upper cased then lower cased, the same as equalsIgnoreCase
+		while(i < text.length()) {
+			codePoint = text.codePointAt(i);
+			folded.appendCodePoint(Character.toLowerCase(Character.toUpperCase(codePoint)));
+			i += Character.charCount(codePoint);
+		}
+		
+		return folded.toString();
 	}
 	
 }
\ No newline at end of file
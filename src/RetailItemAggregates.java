@@ -0,0 +1,186 @@
+/**
+ * This class keeps running totals of a RetailItemList: the number of items, the total units on hand,
+ * 		the total of every price, and the total stock value (units on hand times price) of every item.
+ * It is a listener of the list, so each total is changed by the difference every time an item is added, removed, or changed,
+ * 		and a report can be printed at any time without going through the list.
+ *
+ * The totals are AtomicLongs in cents, so they can be changed from several threads at once and never pick up rounding errors.
+ * While other threads are changing items, a report may show some of the totals before a change and some after it.
+ * recount works every total out again straight from the store of the list, so the running totals can be checked.
+ * The slots are split into parts that are added up on several threads by RetailItemStore.totals,
+ * 		which for a ColumnarRetailItemStore goes through the arrays of units and prices with no checks in the loop.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+public class RetailItemAggregates implements RetailItemListener {
+
+	/**
+	 * int SLOTS_PER_PART number of slots recount adds up in each part.
+	 */
+	private static final int SLOTS_PER_PART = 64 * 1024;
+
+	/**
+	 * AtomicLong itemCount number of items.
+	 * AtomicLong totalUnits total units on hand.
+	 * AtomicLong totalPriceCents total of the prices, in cents.
+	 * AtomicLong totalValueCents total of units on hand times price, in cents.
+	 */
+	private AtomicLong itemCount = new AtomicLong();
+	private AtomicLong totalUnits = new AtomicLong();
+	private AtomicLong totalPriceCents = new AtomicLong();
+	private AtomicLong totalValueCents = new AtomicLong();
+
+	/**
+	 * Returns the running totals.
+	 *
+	 * @return a Totals holding the totals.
+	 */
+	public Totals getTotals() {
+		return new Totals(itemCount.get(), totalUnits.get(), totalPriceCents.get(), totalValueCents.get());
+	}
+
+	/**
+	 * Works out every total again from the items in a list, splitting its store between several threads.
+	 * The list should not be changed while this runs.
+	 *
+	 * @param itemList RetailItemList to count.
+	 *
+	 * @return a Totals holding the totals.
+	 */
+	public static Totals recount(RetailItemList itemList) {
+		//variables
+		RetailItemStore store = itemList.getStore();
+		int slotCount = store.slotCount();
+		int parts = (int) (((long) slotCount + SLOTS_PER_PART - 1) / SLOTS_PER_PART);
+
+		return IntStream.range(0, parts).parallel()
+				.mapToObj(part -> store.totals(part * SLOTS_PER_PART, (int) Math.min(slotCount, (long) (part + 1) * SLOTS_PER_PART)))
+				.reduce(new Totals(0, 0, 0, 0), Totals::plus);
+	}
+
+	//listener methods
+	@Override
+	public void itemAdded(RetailItem item) {
+		//variables
+		long priceCents = item.getPriceCents();
+
+		itemCount.incrementAndGet();
+		totalUnits.addAndGet(item.getUnitsOnHand());
+		totalPriceCents.addAndGet(priceCents);
+		totalValueCents.addAndGet(item.getUnitsOnHand() * priceCents);
+	}
+
+	@Override
+	public void itemRemoved(RetailItem item) {
+		//variables
+		long priceCents = item.getPriceCents();
+
+		itemCount.decrementAndGet();
+		totalUnits.addAndGet(-item.getUnitsOnHand());
+		totalPriceCents.addAndGet(-priceCents);
+		totalValueCents.addAndGet(-item.getUnitsOnHand() * priceCents);
+	}
+
+	@Override
+	public void unitsChanged(RetailItem item, int oldUnitsOnHand) {
+		//variables
+		long unitsAdded = (long) item.getUnitsOnHand() - oldUnitsOnHand;
+
+		totalUnits.addAndGet(unitsAdded);
+		totalValueCents.addAndGet(unitsAdded * item.getPriceCents());
+	}
+
+	@Override
+	public void priceChanged(RetailItem item, long oldPriceCents) {
+		//variables
+		long centsAdded = item.getPriceCents() - oldPriceCents;
+
+		totalPriceCents.addAndGet(centsAdded);
+		totalValueCents.addAndGet(item.getUnitsOnHand() * centsAdded);
+	}
+
+	/**
+	 * The totals of a list at one time.
+	 */
+	public static class Totals {
+		/**
+		 * long itemCount number of items.
+		 * long totalUnits total units on hand.
+		 * long totalPriceCents total of the prices, in cents.
+		 * long totalValueCents total of units on hand times price, in cents.
+		 */
+		private long itemCount;
+		private long totalUnits;
+		private long totalPriceCents;
+		private long totalValueCents;
+
+		Totals(long count, long units, long priceCents, long valueCents) {
+			itemCount = count;
+			totalUnits = units;
+			totalPriceCents = priceCents;
+			totalValueCents = valueCents;
+		}
+
+		public long getItemCount() {
+			return itemCount;
+		}
+
+		public long getTotalUnits() {
+			return totalUnits;
+		}
+
+		public long getTotalValueCents() {
+			return totalValueCents;
+		}
+
+		/**
+		 * Returns the totals of this and another Totals added together, such as the totals of two parts of a list.
+		 *
+		 * @param other Totals to add.
+		 *
+		 * @return a new Totals holding the sums.
+		 */
+		Totals plus(Totals other) {
+			return new Totals(itemCount + other.itemCount, totalUnits + other.totalUnits,
+					totalPriceCents + other.totalPriceCents, totalValueCents + other.totalValueCents);
+		}
+
+		/**
+		 * Returns the average price of the items.
+		 *
+		 * @return a double representing the average price, or 0 if there are no items.
+		 */
+		public double getAveragePrice() {
+			return itemCount > 0 ? totalPriceCents / 100.0 / itemCount : 0;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if(!(other instanceof Totals)) {
+				return false;
+			}
+
+			return itemCount == ((Totals) other).itemCount && totalUnits == ((Totals) other).totalUnits
+					&& totalPriceCents == ((Totals) other).totalPriceCents && totalValueCents == ((Totals) other).totalValueCents;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(itemCount) * 31 * 31 * 31 + Long.hashCode(totalUnits) * 31 * 31
+					+ Long.hashCode(totalPriceCents) * 31 + Long.hashCode(totalValueCents);
+		}
+
+		/**
+		 * Returns the totals as one line.
+		 *
+		 * @return a String holding the item count, total units, stock value, and average price.
+		 */
+		@Override
+		public String toString() {
+			return String.format("%d items, %d units on hand, stock value $%d.%02d, average price $%.2f",
+					itemCount, totalUnits, totalValueCents / 100, Math.abs(totalValueCents % 100), getAveragePrice());
+		}
+	}
+}
@@ -0,0 +1,620 @@
+/**
+ * This class keeps numbered generations of backups in a folder.
+ *
+ * The first generation is a full copy of the items. After that, each generation only holds the items
+ * 		that changed since the generation before it. A line starting with "+" holds the place of an item in the list and its new data
+ * 		in the format written by RetailItem.writeData, and a line starting with "-" holds the description of a deleted item.
+ * The list can hold several items whose descriptions are the same ignoring case, so changes are kept by case-folded description.
+ * Every item whose description changed is written, so a generation replaces all the items with those descriptions,
+ * 		and a "-" line is written for a description with no items left.
+ * The list only removes items and adds them at the end, so the items that did not change keep their order.
+ * The changed items are put back at their places around them, so a rebuilt generation is in the same order as the list that was backed up.
+ * While the program runs, this class listens to the item list and remembers which descriptions were changed.
+ * Those descriptions are saved to a pending file on exit and used to write the next generation the next time the program starts.
+ * If the pending file is missing or damaged, or the loaded items do not match what was saved, a full generation is written instead.
+ *
+ * Full generations are written in the binary format of RetailItemBinaryFile when the database uses it, and either format can be rebuilt.
+ * Deltas are always text, since their lines start with "+" or "-".
+ *
+ * Only the newest MAX_GENERATIONS generations are kept. Older ones are folded into a full generation by a background thread.
+ */
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+public class RetailItemBackups implements RetailItemListener {
+
+	/**
+	 * int MAX_GENERATIONS number of generations that can be restored.
+	 * String FULL_EXTENSION end of the name of a full generation file in the text format.
+	 * String FULL_BINARY_EXTENSION end of the name of a full generation file in the binary format.
+	 * String DELTA_EXTENSION end of the name of a generation file holding only changes.
+	 * String PENDING_FILE name of the file holding the descriptions changed since the last generation.
+	 */
+	public static final int MAX_GENERATIONS = 10;
+	private static final String FULL_EXTENSION = ".full.txt";
+	private static final String FULL_BINARY_EXTENSION = ".full.bin";
+	private static final String DELTA_EXTENSION = ".delta.txt";
+	private static final String PENDING_FILE = "pending.txt";
+
+	/**
+	 * File directory folder holding the generation files.
+	 * boolean binary true if full generations are written in the binary format.
+	 * LinkedHashMap changedDescriptions case-folded descriptions changed while the program runs, mapped to the description.
+	 */
+	private File directory;
+	private boolean binary;
+	private LinkedHashMap<String, String> changedDescriptions = new LinkedHashMap<String, String>();
+
+	/**
+	 * Creates a RetailItemBackups object for a backup folder. The folder is created when the first generation is written.
+	 *
+	 * @param backupDirectory File representing the folder holding the generation files.
+	 * @param binaryFull true to write full generations in the binary format, false for the text format.
+	 */
+	public RetailItemBackups(File backupDirectory, boolean binaryFull) {
+		directory = backupDirectory;
+		binary = binaryFull;
+	}
+
+	//listener methods
+	@Override
+	public void itemAdded(RetailItem item) {
+		changed(item.getDescription());
+	}
+
+	@Override
+	public void itemRemoved(RetailItem item) {
+		changed(item.getDescription());
+	}
+
+	@Override
+	public void descriptionChanged(RetailItem item, String oldDescription) {
+		changed(oldDescription);
+		changed(item.getDescription());
+	}
+
+	@Override
+	public void unitsChanged(RetailItem item, int oldUnitsOnHand) {
+		changed(item.getDescription());
+	}
+
+	@Override
+	public void priceChanged(RetailItem item, long oldPriceCents) {
+		changed(item.getDescription());
+	}
+
+	/**
+	 * Remembers that the item with a description changed.
+	 *
+	 * @param description String representing the description of the item.
+	 */
+	private synchronized void changed(String description) {
+		changedDescriptions.putIfAbsent(RetailItem.foldCase(description), description);
+	}
+
+	//backup methods
+	/**
+	 * Writes the next generation for the items that were just loaded.
+	 * Writes only the items changed in the last session if they are known, and a full copy otherwise.
+	 * Nothing is written if the last session did not change anything.
+	 *
+	 * @param itemList RetailItemList holding the items that were just loaded.
+	 *
+	 * @throws IOException May throw IOException if the backup files cannot be read or written.
+	 */
+	public void backup(RetailItemList itemList) throws IOException {
+		//variables
+		int latestGeneration = latestGeneration(directory);
+		File pendingFile = new File(directory, PENDING_FILE);
+		Scanner pendingScnr;
+		int savedCount = -1;
+		long savedChecksum = 0;
+		ArrayList<String> descriptions = new ArrayList<String>();
+
+		if(!directory.exists() && !directory.mkdirs()) {
+			throw new IOException("Could not create " + directory + ".");
+		}
+
+		if(latestGeneration == 0 || !pendingFile.exists()) {
+			//nothing to build on, so every item is backed up
+			writeFull(generationFile(directory, latestGeneration + 1, fullExtension(binary)), itemList, binary);
+		}
+		else {
+			//first line is the item count and checksum at exit, then one changed description per line
+			pendingScnr = new Scanner(pendingFile);
+
+			try {
+				//a pending file cut off by a crash while it was written leaves savedCount at -1
+				if(pendingScnr.hasNextInt()) {
+					savedCount = pendingScnr.nextInt();
+
+					if(pendingScnr.hasNextLong()) {
+						savedChecksum = pendingScnr.nextLong();
+
+						while(pendingScnr.hasNext()) {
+							descriptions.add(pendingScnr.next());
+						}
+					}
+					else {
+						savedCount = -1;
+					}
+				}
+			}
+			finally {
+				pendingScnr.close();
+			}
+
+			if(savedCount != itemList.size() || savedChecksum != checksum(itemList)) {
+				//the file was changed some other way since the last session, or the pending file is damaged
+				writeFull(generationFile(directory, latestGeneration + 1, fullExtension(binary)), itemList, binary);
+			}
+			else if(!descriptions.isEmpty()) {
+				writeDelta(generationFile(directory, latestGeneration + 1, DELTA_EXTENSION), itemList, descriptions);
+			}
+		}
+
+		pendingFile.delete();
+	}
+
+	/**
+	 * Saves the descriptions changed while the program ran, so the next generation only has to hold those items.
+	 * The file is written under another name and then renamed, so a crash never leaves part of the list of descriptions.
+	 *
+	 * @param itemList RetailItemList holding the items as they are being saved.
+	 *
+	 * @throws IOException May throw IOException if the pending file cannot be written.
+	 */
+	public synchronized void saveChanges(RetailItemList itemList) throws IOException {
+		//variables
+		File temporaryFile = new File(directory, PENDING_FILE + ".tmp");
+		PrintWriter printWriter;
+
+		if(!directory.exists()) {
+			return;
+		}
+
+		printWriter = new PrintWriter(new BufferedWriter(new FileWriter(temporaryFile)));
+
+		printWriter.println(itemList.size() + " " + checksum(itemList));
+
+		for(String description : changedDescriptions.values()) {
+			printWriter.println(description);
+		}
+
+		printWriter.close();
+
+		if(printWriter.checkError()) {
+			throw new IOException("Could not write " + temporaryFile + ".");
+		}
+
+		Files.move(temporaryFile.toPath(), new File(directory, PENDING_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Starts a background thread that folds generations older than MAX_GENERATIONS into a full generation.
+	 */
+	public void startCompaction() {
+		Thread compactor = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					compact(directory, binary);
+				}
+				catch(IOException fileError) {
+					//error message if the old backups could not be compacted
+					System.out.println("There was an error when compacting old backups.");
+				}
+			}
+		}, "RetailItemBackups compactor");
+
+		compactor.start();
+	}
+
+	/**
+	 * Folds generations older than MAX_GENERATIONS into a full generation and deletes their files.
+	 * The oldest generation that is kept is rewritten as a full generation before anything is deleted.
+	 *
+	 * @param backupDirectory File representing the folder holding the generation files.
+	 * @param binaryFull true to write the full generation in the binary format, false for the text format.
+	 *
+	 * @throws IOException May throw IOException if the backup files cannot be read or written.
+	 */
+	public static void compact(File backupDirectory, boolean binaryFull) throws IOException {
+		//variables
+		TreeSet<Integer> generations = listGenerations(backupDirectory);
+		int oldestKept;
+		File fullFile;
+		File temporaryFile;
+
+		if(generations.size() <= MAX_GENERATIONS) {
+			return;
+		}
+
+		oldestKept = new ArrayList<Integer>(generations).get(generations.size() - MAX_GENERATIONS);
+		fullFile = generationFile(backupDirectory, oldestKept, fullExtension(binaryFull));
+
+		if(!isFull(backupDirectory, oldestKept)) {
+			//writes the full generation next to the delta before removing anything it is built from
+			temporaryFile = new File(fullFile.getPath() + ".tmp");
+			writeFull(temporaryFile, rebuild(backupDirectory, oldestKept), binaryFull);
+
+			if(!temporaryFile.renameTo(fullFile)) {
+				throw new IOException("Could not write " + fullFile + ".");
+			}
+		}
+
+		generationFile(backupDirectory, oldestKept, DELTA_EXTENSION).delete();
+
+		for(int generation : generations.headSet(oldestKept)) {
+			generationFile(backupDirectory, generation, FULL_EXTENSION).delete();
+			generationFile(backupDirectory, generation, FULL_BINARY_EXTENSION).delete();
+			generationFile(backupDirectory, generation, DELTA_EXTENSION).delete();
+		}
+	}
+
+	//restore methods
+	/**
+	 * Rebuilds the items of a generation from the newest full generation at or before it and the changes after that.
+	 *
+	 * @param backupDirectory File representing the folder holding the generation files.
+	 * @param generation integer representing the generation to rebuild.
+	 *
+	 * @return a RetailItemList holding the items of the generation.
+	 *
+	 * @throws IOException May throw IOException if the generation cannot be found or its files cannot be read.
+	 */
+	public static RetailItemList rebuild(File backupDirectory, int generation) throws IOException {
+		//variables
+		int fullGeneration = generation;
+		ArrayList<RetailItem> items;
+		RetailItemList itemList;
+
+		if(!listGenerations(backupDirectory).contains(generation)) {
+			throw new IOException("Backup generation " + generation + " does not exist.");
+		}
+
+		//finds the full generation the changes are built on
+		while(fullGeneration > 0 && !isFull(backupDirectory, fullGeneration)) {
+			--fullGeneration;
+		}
+
+		if(fullGeneration == 0) {
+			throw new IOException("There is no full backup for generation " + generation + ".");
+		}
+
+		items = readFull(fullFile(backupDirectory, fullGeneration));
+
+		for(int i = fullGeneration + 1; i <= generation; ++i) {
+			items = applyDelta(generationFile(backupDirectory, i, DELTA_EXTENSION), items);
+		}
+
+		itemList = new RetailItemList(items.size());
+		itemList.addAll(items);
+
+		return itemList;
+	}
+
+	/**
+	 * Returns the numbers of every generation in a backup folder, oldest first.
+	 *
+	 * @param backupDirectory File representing the folder holding the generation files.
+	 *
+	 * @return a TreeSet holding the generation numbers.
+	 */
+	public static TreeSet<Integer> listGenerations(File backupDirectory) {
+		//variables
+		TreeSet<Integer> generations = new TreeSet<Integer>();
+		String[] fileNames = backupDirectory.list();
+
+		if(fileNames != null) {
+			for(String fileName : fileNames) {
+				if(fileName.startsWith("generation-") && (fileName.endsWith(FULL_EXTENSION)
+						|| fileName.endsWith(FULL_BINARY_EXTENSION) || fileName.endsWith(DELTA_EXTENSION))) {
+					generations.add(Integer.parseInt(fileName.substring(11, fileName.indexOf('.'))));
+				}
+			}
+		}
+
+		return generations;
+	}
+
+	/**
+	 * Returns true if a generation is a full copy of the items.
+	 *
+	 * @param backupDirectory File representing the folder holding the generation files.
+	 * @param generation integer representing the generation.
+	 *
+	 * @return true if the generation is a full copy, false if it only holds changes.
+	 */
+	public static boolean isFull(File backupDirectory, int generation) {
+		return generationFile(backupDirectory, generation, FULL_EXTENSION).exists()
+				|| generationFile(backupDirectory, generation, FULL_BINARY_EXTENSION).exists();
+	}
+
+	//helper methods
+	/**
+	 * Returns the newest generation number in a backup folder.
+	 *
+	 * @param backupDirectory File representing the folder holding the generation files.
+	 *
+	 * @return an integer representing the newest generation, or 0 if there are none.
+	 */
+	private static int latestGeneration(File backupDirectory) {
+		TreeSet<Integer> generations = listGenerations(backupDirectory);
+
+		if(generations.isEmpty()) {
+			return 0;
+		}
+
+		return generations.last();
+	}
+
+	/**
+	 * Returns the file of a generation.
+	 *
+	 * @param backupDirectory File representing the folder holding the generation files.
+	 * @param generation integer representing the generation.
+	 * @param extension String representing FULL_EXTENSION, FULL_BINARY_EXTENSION, or DELTA_EXTENSION.
+	 *
+	 * @return the File of the generation.
+	 */
+	private static File generationFile(File backupDirectory, int generation, String extension) {
+		return new File(backupDirectory, String.format("generation-%06d%s", generation, extension));
+	}
+
+	/**
+	 * Returns the end of the name of a full generation file in a format.
+	 *
+	 * @param binaryFull true for the binary format, false for the text format.
+	 *
+	 * @return FULL_BINARY_EXTENSION or FULL_EXTENSION.
+	 */
+	private static String fullExtension(boolean binaryFull) {
+		if(binaryFull) {
+			return FULL_BINARY_EXTENSION;
+		}
+
+		return FULL_EXTENSION;
+	}
+
+	/**
+	 * Returns the file of a full generation, in whichever format it was written.
+	 *
+	 * @param backupDirectory File representing the folder holding the generation files.
+	 * @param generation integer representing a full generation.
+	 *
+	 * @return the File of the generation.
+	 */
+	private static File fullFile(File backupDirectory, int generation) {
+		//variables
+		File binaryFile = generationFile(backupDirectory, generation, FULL_BINARY_EXTENSION);
+
+		if(binaryFile.exists()) {
+			return binaryFile;
+		}
+
+		return generationFile(backupDirectory, generation, FULL_EXTENSION);
+	}
+
+	/**
+	 * Writes every item to a full generation file.
+	 *
+	 * @param file File to write.
+	 * @param items List holding RetailItem objects.
+	 * @param binaryFull true to write the binary format, false for the text format.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be written.
+	 */
+	private static void writeFull(File file, List<RetailItem> items, boolean binaryFull) throws IOException {
+		if(binaryFull) {
+			RetailItemBinaryFile.save(items, file.getPath());
+
+			return;
+		}
+
+		RetailItemWriter itemWriter = new RetailItemWriter(file.getPath());
+
+		for(RetailItem item : items) {
+			item.writeData(itemWriter);
+		}
+
+		itemWriter.close();
+	}
+
+	/**
+	 * Writes the place and current data of every item with a changed description to a delta generation file after "+",
+	 * 		and each changed description with no items left after "-".
+	 *
+	 * @param file File to write.
+	 * @param itemList RetailItemList holding the current items.
+	 * @param descriptions List holding the descriptions that changed.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be written.
+	 */
+	private static void writeDelta(File file, RetailItemList itemList, List<String> descriptions) throws IOException {
+		//variables
+		LinkedHashMap<String, List<Integer>> places = new LinkedHashMap<String, List<Integer>>();
+		List<Integer> group;
+		RetailItemWriter itemWriter = new RetailItemWriter(file.getPath());
+
+		for(String description : descriptions) {
+			places.put(RetailItem.foldCase(description), new ArrayList<Integer>());
+		}
+
+		//one pass finds every item of each description, since the index only finds one of them
+		for(int i = 0; i < itemList.size(); ++i) {
+			group = places.get(itemList.get(i).getDescriptionKey());
+
+			if(group != null) {
+				group.add(i);
+			}
+		}
+
+		for(String description : descriptions) {
+			group = places.get(RetailItem.foldCase(description));
+
+			if(group.isEmpty()) {
+				itemWriter.write("- " + description + " \n");
+			}
+
+			for(int place : group) {
+				itemWriter.write("+ " + place + " ");
+				itemList.get(place).writeData(itemWriter);
+			}
+		}
+
+		itemWriter.close();
+	}
+
+	/**
+	 * Reads the items of a full generation file, in the order of the file.
+	 *
+	 * @param file File of the generation, in the text or binary format.
+	 *
+	 * @return an ArrayList holding the items.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be read or has bad data.
+	 */
+	private static ArrayList<RetailItem> readFull(File file) throws IOException {
+		//variables
+		ArrayList<RetailItem> items = new ArrayList<RetailItem>();
+		RetailItemList binaryItems;
+		RetailItem item;
+		RetailItemReader fileReader;
+
+		if(file.getName().endsWith(FULL_BINARY_EXTENSION)) {
+			binaryItems = new RetailItemList();
+			RetailItemBinaryFile.load(binaryItems, file);
+
+			//copied, so the items do not depend on the list they were loaded into
+			for(RetailItem binaryItem : binaryItems) {
+				items.add(new RetailItem(binaryItem));
+			}
+
+			return items;
+		}
+
+		fileReader = new RetailItemReader(new FileInputStream(file));
+
+		try {
+			while(fileReader.hasNextLine()) {
+				fileReader.nextLine();
+
+				item = new RetailItem();
+				item.readData(fileReader);
+				items.add(item);
+			}
+		}
+		catch(IllegalArgumentException | NoSuchElementException badData) {
+			throw new IOException("The backup file " + file + " is damaged.", badData);
+		}
+		finally {
+			fileReader.close();
+		}
+
+		return items;
+	}
+
+	/**
+	 * Applies a delta generation file to the items of the generation before it.
+	 * The items with a description in the file are dropped, the rest keep their order,
+	 * 		and the items in the file are put back at their places in the list.
+	 *
+	 * @param file File of the generation.
+	 * @param items List holding the items of the generation before it, in order.
+	 *
+	 * @return an ArrayList holding the items of the generation, in order.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be read or has bad data.
+	 */
+	private static ArrayList<RetailItem> applyDelta(File file, List<RetailItem> items) throws IOException {
+		//variables
+		HashSet<String> changedKeys = new HashSet<String>();
+		TreeMap<Integer, RetailItem> changedItems = new TreeMap<Integer, RetailItem>();
+		ArrayList<RetailItem> newItems;
+		String change;
+		int place;
+		RetailItem item;
+		RetailItemReader fileReader = new RetailItemReader(new FileInputStream(file));
+
+		try {
+			while(fileReader.hasNextLine()) {
+				fileReader.nextLine();
+
+				change = fileReader.next();
+
+				if(change.equals("-")) {
+					changedKeys.add(RetailItem.foldCase(fileReader.next()));
+				}
+				else if(change.equals("+")) {
+					place = fileReader.nextInt();
+					item = new RetailItem();
+					item.readData(fileReader);
+					changedKeys.add(item.getDescriptionKey());
+
+					if(changedItems.put(place, item) != null) {
+						throw new IOException("The backup file " + file + " is damaged.");
+					}
+				}
+				else {
+					throw new IOException("The backup file " + file + " is damaged.");
+				}
+			}
+		}
+		catch(IllegalArgumentException | NoSuchElementException badData) {
+			throw new IOException("The backup file " + file + " is damaged.", badData);
+		}
+		finally {
+			fileReader.close();
+		}
+
+		newItems = new ArrayList<RetailItem>(items.size() + changedItems.size());
+
+		//each changed item goes in once the items before it are placed
+		for(RetailItem oldItem : items) {
+			if(!changedKeys.contains(oldItem.getDescriptionKey())) {
+				while(!changedItems.isEmpty() && changedItems.firstKey() == newItems.size()) {
+					newItems.add(changedItems.pollFirstEntry().getValue());
+				}
+
+				newItems.add(oldItem);
+			}
+		}
+
+		while(!changedItems.isEmpty()) {
+			//a place past the end of the list means the file does not go with the generation before it
+			if(changedItems.firstKey() != newItems.size()) {
+				throw new IOException("The backup file " + file + " is damaged.");
+			}
+
+			newItems.add(changedItems.pollFirstEntry().getValue());
+		}
+
+		return newItems;
+	}
+
+	/**
+	 * Returns a checksum of every item that does not depend on the order of the items.
+	 *
+	 * @param items List holding RetailItem objects.
+	 *
+	 * @return a long representing the checksum.
+	 */
+	private static long checksum(List<RetailItem> items) {
+		//variables
+		long checksum = 0;
+		long hash;
+
+		for(RetailItem item : items) {
+			hash = item.getDescription().hashCode() * 0x9E3779B97F4A7C15L;
+			hash = (hash ^ item.getUnitsOnHand()) * 0xBF58476D1CE4E5B9L;
+			hash = (hash ^ item.getPriceCents()) * 0x94D049BB133111EBL;
+			checksum += hash ^ (hash >>> 31);
+		}
+
+		return checksum;
+	}
+}
@@ -0,0 +1,358 @@
+/**
+ * This class runs a file of inventory commands without the menu, one command per line.
+ * Every command is applied in one pass and a line is written to a report for each one, telling what was done or why it was not.
+ * A command that fails is reported and skipped; the commands after it still run.
+ *
+ * Commands, where descriptions have no spaces and the command names can be any case:
+ * 		add DESCRIPTION UNITS			adds units to an item
+ * 		remove DESCRIPTION UNITS		removes units from an item, leaving at least one
+ * 		price DESCRIPTION PRICE			changes the price of an item
+ * 		rename DESCRIPTION NEW_DESCRIPTION	changes the description of an item
+ * 		create DESCRIPTION UNITS PRICE		creates a new item
+ * 		delete DESCRIPTION			deletes an item
+ * 		stats					shows how many times each operation was done and how long it took
+ * 		report [verify]				shows the item count, total units, stock value, and average price,
+ * 							checked against a full recount with verify
+ * Blank lines and lines starting with # are skipped.
+ * Every command that succeeds is timed in RetailItemManager.metrics under its name.
+ *
+ * The values are checked with the same methods the menu uses.
+ * Commands are split into values by a RetailItemReader, which reads numbers the same way the menu's Scanner does
+ * 		without making a Scanner for every line.
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+public class RetailItemBatch {
+
+	/**
+	 * Runs every command read from commands and writes a line for each one to report, followed by a summary.
+	 *
+	 * @param inventory ConcurrentInventory the commands are applied to.
+	 * @param commands RetailItemReader the commands are read from.
+	 * @param report PrintWriter the results are written to.
+	 *
+	 * @return an integer representing the number of commands that failed.
+	 *
+	 * @throws IOException May throw IOException if the commands cannot be read.
+	 */
+	public static int run(ConcurrentInventory inventory, RetailItemReader commands, PrintWriter report) throws IOException {
+		//variables
+		int lineNumber = 0;
+		int commandCount = 0;
+		int failed = 0;
+		String line;
+
+		while(commands.hasNextLine()) {
+			commands.nextLine();
+			++lineNumber;
+			line = commands.currentLine().trim();
+
+			//skips blank lines and comments
+			if(line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+
+			++commandCount;
+
+			try {
+				report.println("line " + lineNumber + ": " + line + " -> OK: " + runCommand(inventory, commands));
+			}
+			catch(IllegalArgumentException badCommand) {
+				report.println("line " + lineNumber + ": " + line + " -> ERROR: " + badCommand.getMessage());
+				++failed;
+			}
+		}
+
+		report.println("Batch done: " + commandCount + " commands, " + (commandCount - failed) + " succeeded, " + failed + " failed.");
+		report.flush();
+
+		return failed;
+	}
+
+	/**
+	 * Runs one command held in a String.
+	 *
+	 * @param inventory ConcurrentInventory the command is applied to.
+	 * @param command String holding the command and its values.
+	 *
+	 * @return a String telling what was done, or an empty String if the command is blank or a comment.
+	 *
+	 * @throws IllegalArgumentException if the command is unknown, a value is missing or not valid, or the item cannot be found.
+	 */
+	public static String runCommand(ConcurrentInventory inventory, String command) throws IllegalArgumentException {
+		//variables
+		byte[] commandBytes;
+		RetailItemReader commandReader;
+
+		//skips blank lines and comments
+		if(command.trim().isEmpty() || command.trim().startsWith("#")) {
+			return "";
+		}
+
+		commandBytes = command.getBytes();
+		commandReader = new RetailItemReader(ByteBuffer.wrap(commandBytes), 0, commandBytes.length);
+
+		try {
+			commandReader.nextLine();
+		}
+		catch(IOException cannotHappen) {
+			//a reader of a buffer never reads a stream
+			throw new UncheckedIOException(cannotHappen);
+		}
+
+		return runCommand(inventory, commandReader);
+	}
+
+	/**
+	 * Runs the command on the current line of a RetailItemReader.
+	 *
+	 * @param inventory ConcurrentInventory the command is applied to.
+	 * @param commandReader RetailItemReader positioned at a line holding a command.
+	 *
+	 * @return a String telling what was done.
+	 *
+	 * @throws IllegalArgumentException if the command is unknown, a value is missing or not valid, or the item cannot be found.
+	 */
+	private static String runCommand(ConcurrentInventory inventory, RetailItemReader commandReader) throws IllegalArgumentException {
+		//variables
+		long start = System.nanoTime();
+		String commandName = commandReader.next().toLowerCase();
+		String result = runCommand(inventory, commandName, commandReader);
+
+		//only commands that worked are timed, so a mistyped name does not get a timer
+		RetailItemManager.metrics.recordSince(commandName, start);
+
+		return result;
+	}
+
+	/**
+	 * Runs a command once its name has been read.
+	 *
+	 * @param inventory ConcurrentInventory the command is applied to.
+	 * @param commandName String representing the name of the command, in lower case.
+	 * @param commandReader RetailItemReader positioned after the name of the command.
+	 *
+	 * @return a String telling what was done.
+	 *
+	 * @throws IllegalArgumentException if the command is unknown, a value is missing or not valid, or the item cannot be found.
+	 */
+	private static String runCommand(ConcurrentInventory inventory, String commandName, RetailItemReader commandReader) throws IllegalArgumentException {
+		//variables
+		String description;
+		String newDescription;
+		int units;
+		double price;
+		RetailItem deletedItem;
+
+		if(commandName.equals("add")) {
+			description = readDescription(commandReader);
+			units = readUnits(commandReader);
+			endOfCommand(commandReader);
+
+			return "\"" + description + "\" now has " + inventory.addUnits(description, units) + " units.";
+		}
+		else if(commandName.equals("remove")) {
+			description = readDescription(commandReader);
+			units = readUnits(commandReader);
+			endOfCommand(commandReader);
+
+			return "\"" + description + "\" now has " + inventory.removeUnits(description, units) + " units.";
+		}
+		else if(commandName.equals("price")) {
+			description = readDescription(commandReader);
+			price = readPrice(commandReader);
+			endOfCommand(commandReader);
+
+			inventory.setPrice(description, price);
+
+			return String.format("\"%s\" now costs $%.2f.", description, price);
+		}
+		else if(commandName.equals("rename")) {
+			description = readDescription(commandReader);
+			newDescription = readDescription(commandReader);
+			endOfCommand(commandReader);
+
+			if(!inventory.rename(description, newDescription)) {
+				throw new IllegalArgumentException("The item \"" + description + "\" was not found.");
+			}
+
+			return "\"" + description + "\" is now \"" + newDescription + "\".";
+		}
+		else if(commandName.equals("create")) {
+			description = readDescription(commandReader);
+			units = readUnits(commandReader);
+			price = readPrice(commandReader);
+			endOfCommand(commandReader);
+
+			if(!inventory.create(description, units, price)) {
+				throw new IllegalArgumentException("There is already an item with the description \"" + description + "\".");
+			}
+
+			return String.format("Created \"%s\" with %d units at $%.2f.", description, units, price);
+		}
+		else if(commandName.equals("delete")) {
+			description = readDescription(commandReader);
+			endOfCommand(commandReader);
+
+			deletedItem = inventory.delete(description);
+
+			if(deletedItem == null) {
+				throw new IllegalArgumentException("The item \"" + description + "\" was not found.");
+			}
+
+			return "Deleted \"" + deletedItem.getDescription() + "\".";
+		}
+		else if(commandName.equals("report")) {
+			return report(inventory, commandReader);
+		}
+		else if(commandName.equals("stats")) {
+			endOfCommand(commandReader);
+
+			//the table starts on its own line
+			return "Operation statistics\n" + RetailItemManager.metrics.report().trim();
+		}
+		else {
+			throw new IllegalArgumentException("Unknown command \"" + commandName + "\".");
+		}
+	}
+
+	//helper methods
+	/**
+	 * Runs the report command.
+	 *
+	 * @param inventory ConcurrentInventory whose items are reported on.
+	 * @param commandReader RetailItemReader positioned after the name of the command.
+	 *
+	 * @return a String holding the report.
+	 *
+	 * @throws IllegalArgumentException if there is no report, or the command has something other than verify after it.
+	 */
+	private static String report(ConcurrentInventory inventory, RetailItemReader commandReader) throws IllegalArgumentException {
+		//variables
+		boolean verify = false;
+		RetailItemAggregates.Totals[] totals = new RetailItemAggregates.Totals[2];
+
+		if(commandReader.hasNext()) {
+			if(!commandReader.next().equalsIgnoreCase("verify")) {
+				throw new IllegalArgumentException("The report command can only be followed by \"verify\".");
+			}
+
+			verify = true;
+			endOfCommand(commandReader);
+		}
+
+		if(RetailItemManager.aggregates == null) {
+			throw new IllegalArgumentException("The report is not available.");
+		}
+
+		if(!verify) {
+			return RetailItemManager.aggregates.getTotals().toString() + ".";
+		}
+
+		//the recount needs the list to hold still, so both totals are taken with every other thread locked out
+		inventory.runExclusive(new Runnable() {
+			@Override
+			public void run() {
+				totals[0] = RetailItemManager.aggregates.getTotals();
+				totals[1] = RetailItemAggregates.recount(inventory.getItemList());
+			}
+		});
+
+		if(!totals[1].equals(totals[0])) {
+			throw new IllegalArgumentException("The report (" + totals[0] + ") does not match a full recount (" + totals[1] + ").");
+		}
+
+		return totals[0] + ", matching a full recount.";
+	}
+
+	/**
+	 * Reads a description from a command.
+	 *
+	 * @param commandReader RetailItemReader reading the command.
+	 *
+	 * @return a String representing the description.
+	 *
+	 * @throws IllegalArgumentException if there is no description.
+	 */
+	private static String readDescription(RetailItemReader commandReader) throws IllegalArgumentException {
+		if(!commandReader.hasNext()) {
+			throw new IllegalArgumentException("A description is missing.");
+		}
+
+		return commandReader.next();
+	}
+
+	/**
+	 * Reads a number of units from a command.
+	 *
+	 * @param commandReader RetailItemReader reading the command.
+	 *
+	 * @return an integer representing the units.
+	 *
+	 * @throws IllegalArgumentException if the units are missing or not a whole number greater than zero.
+	 */
+	private static int readUnits(RetailItemReader commandReader) throws IllegalArgumentException {
+		//variables
+		int units;
+
+		if(!commandReader.hasNextInt()) {
+			throw new IllegalArgumentException("The number of units needs to be a whole number greater than zero without decimals.");
+		}
+
+		units = commandReader.nextInt();
+
+		if(!RetailItemManager.isValidUnits(units)) {
+			throw new IllegalArgumentException("The number of units needs to be a whole number greater than zero without decimals.");
+		}
+
+		return units;
+	}
+
+	/**
+	 * Reads a price from a command.
+	 * A price the default locale does not read, but that is plain digits with a '.' before the decimals,
+	 * 		such as the prices RetailItemReconcile writes, is also read, so a batch file reads the same in any locale.
+	 *
+	 * @param commandReader RetailItemReader reading the command.
+	 *
+	 * @return a double representing the price.
+	 *
+	 * @throws IllegalArgumentException if the price is missing or not at least $0.01.
+	 */
+	private static double readPrice(RetailItemReader commandReader) throws IllegalArgumentException {
+		//variables
+		double price;
+		String token;
+
+		if(commandReader.hasNextDouble()) {
+			price = commandReader.nextDouble();
+		}
+		else if(commandReader.hasNext() && (token = commandReader.next()).matches("\\+?[0-9]+(\\.[0-9]+)?")) {
+			price = Double.parseDouble(token);
+		}
+		else {
+			throw new IllegalArgumentException("The price needs to be a number of at least $0.01.");
+		}
+
+		if(!RetailItem.isStorablePrice(price)) {
+			throw new IllegalArgumentException("The price needs to be a number of at least $0.01.");
+		}
+
+		return price;
+	}
+
+	/**
+	 * Makes sure nothing is left after the values of a command.
+	 *
+	 * @param commandReader RetailItemReader reading the command.
+	 *
+	 * @throws IllegalArgumentException if there is anything left.
+	 */
+	private static void endOfCommand(RetailItemReader commandReader) throws IllegalArgumentException {
+		if(commandReader.hasNext()) {
+			throw new IllegalArgumentException("Unexpected \"" + commandReader.next() + "\" at the end of the command.");
+		}
+	}
+}
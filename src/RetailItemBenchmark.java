@@ -0,0 +1,512 @@
+/**
+ * This class times the parts of the program that run most often or on the most items, so a change that makes one of them slower can be seen.
+ * Each benchmark is run on generated databases of several sizes. The databases are written once to the temporary directory and reused.
+ *
+ * Benchmarks:
+ * 		load		createArrayList reading a whole database file
+ * 		findHit		findItem looking up descriptions that are in the list
+ * 		findMiss	findItem looking up descriptions that are not in the list
+ * 		readData	RetailItem.readData parsing every line of the file, already in memory
+ * 		save		saveItems writing the whole list, the way exit() does
+ * 		delete		removing an item by description the way deleteRetailItem does, then adding it back
+ * 		display		displayAllRetailItems printing every item, with the output thrown away
+ * 		recount		RetailItemAggregates.recount adding up the totals of every item, the way report verify does
+ *
+ * Every benchmark is run until it has warmed up, then timed over several runs. The time per operation is
+ * 		the time of a run divided by the items or lookups it handled, and both the average and the best run are printed.
+ * The value each run returns is added to a total that is printed at the end, so the JIT cannot skip the work.
+ *
+ * Usage: java RetailItemBenchmark [sizes] [benchmarks]
+ * Both are lists separated by commas. The sizes default to 1000,10000,100000,1000000,10000000 and the benchmarks to all of them.
+ * The largest sizes need a larger heap, such as -Xmx4g.
+ */
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+public class RetailItemBenchmark {
+
+	/**
+	 * long WARMUP_NANOS time each benchmark runs before it is timed.
+	 * long MEASURE_NANOS time each benchmark is timed for, after at least MIN_RUNS runs.
+	 * int MIN_RUNS least number of timed runs.
+	 * int LOOKUPS number of descriptions looked up or deleted in one run of the find and delete benchmarks.
+	 */
+	private static final long WARMUP_NANOS = 2_000_000_000L;
+	private static final long MEASURE_NANOS = 3_000_000_000L;
+	private static final int MIN_RUNS = 3;
+	private static final int LOOKUPS = 4096;
+
+	/**
+	 * long sink total of the values returned by every run, printed at the end so the work is not skipped.
+	 */
+	private static long sink = 0;
+
+	public static void main(String[] args) throws IOException {
+		//variables
+		String sizeList = args.length > 0 ? args[0] : "1000,10000,100000,1000000,10000000";
+		List<String> names = args.length > 1 ? Arrays.asList(args[1].split(",")) : null;
+		Map<String, Benchmark> benchmarks = allBenchmarks();
+		int size;
+		File itemFile;
+
+		System.out.printf("%-10s %10s %14s %14s %6s\n", "benchmark", "items", "avg ns/op", "best ns/op", "runs");
+
+		for(String sizeText : sizeList.split(",")) {
+			size = Integer.parseInt(sizeText.trim());
+			itemFile = generateDatabase(size);
+
+			for(Map.Entry<String, Benchmark> benchmark : benchmarks.entrySet()) {
+				if(names == null || names.contains(benchmark.getKey())) {
+					runBenchmark(benchmark.getKey(), benchmark.getValue(), itemFile, size);
+				}
+			}
+		}
+
+		System.out.println("(total of every run: " + sink + ")");
+	}
+
+	/**
+	 * One benchmark. setUp is not timed; run is.
+	 */
+	private static abstract class Benchmark {
+		/**
+		 * Gets ready to run on a database. Called once for each size.
+		 *
+		 * @param itemFile File holding the database.
+		 * @param size integer representing the number of items in the database.
+		 *
+		 * @throws IOException May throw IOException if the database cannot be read.
+		 */
+		abstract void setUp(File itemFile, int size) throws IOException;
+
+		/**
+		 * Runs the benchmark once.
+		 *
+		 * @return a long representing a value computed from the work, so it cannot be skipped.
+		 *
+		 * @throws IOException May throw IOException if a file cannot be read or written.
+		 */
+		abstract long run() throws IOException;
+
+		/**
+		 * Returns how many operations one run does, used to get the time per operation.
+		 *
+		 * @return an integer representing the number of operations.
+		 */
+		abstract int operations();
+
+		/**
+		 * Lets go of anything setUp kept, so the next size has the heap to itself.
+		 */
+		void tearDown() {
+		}
+	}
+
+	/**
+	 * Creates every benchmark, in the order they are run.
+	 *
+	 * @return a Map from each benchmark name to its Benchmark.
+	 */
+	private static Map<String, Benchmark> allBenchmarks() {
+		//variables
+		Map<String, Benchmark> benchmarks = new LinkedHashMap<String, Benchmark>();
+
+		benchmarks.put("load", new Benchmark() {
+			private File file;
+			private int items;
+
+			@Override
+			void setUp(File itemFile, int size) {
+				file = itemFile;
+				items = size;
+			}
+
+			@Override
+			long run() throws IOException {
+				RetailItemList itemList = new RetailItemList();
+
+				RetailItemManager.createArrayList(itemList, file);
+
+				return itemList.size();
+			}
+
+			@Override
+			int operations() {
+				return items;
+			}
+		});
+
+		benchmarks.put("findHit", new FindBenchmark(true));
+		benchmarks.put("findMiss", new FindBenchmark(false));
+
+		benchmarks.put("readData", new Benchmark() {
+			private MappedByteBuffer fileBytes;
+			private int items;
+
+			@Override
+			void setUp(File itemFile, int size) throws IOException {
+				try(FileChannel channel = new FileInputStream(itemFile).getChannel()) {
+					fileBytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+					fileBytes.load();
+				}
+
+				items = size;
+			}
+
+			@Override
+			long run() throws IOException {
+				RetailItemReader lineReader = new RetailItemReader(fileBytes, 0, fileBytes.limit());
+				RetailItem item = new RetailItem();
+				long unitsTotal = 0;
+
+				while(lineReader.hasNextLine()) {
+					lineReader.nextLine();
+					item.readData(lineReader);
+					unitsTotal += item.getUnitsOnHand();
+				}
+
+				return unitsTotal;
+			}
+
+			@Override
+			int operations() {
+				return items;
+			}
+
+			@Override
+			void tearDown() {
+				fileBytes = null;
+			}
+		});
+
+		benchmarks.put("save", new Benchmark() {
+			private RetailItemList itemList;
+			private File saveFile;
+
+			@Override
+			void setUp(File itemFile, int size) throws IOException {
+				itemList = loadList(itemFile);
+				saveFile = File.createTempFile("RetailItemBenchmark", ".txt");
+				saveFile.deleteOnExit();
+			}
+
+			@Override
+			long run() throws IOException {
+				RetailItemManager.saveItems(itemList, saveFile.getPath());
+
+				return saveFile.length();
+			}
+
+			@Override
+			int operations() {
+				return itemList.size();
+			}
+
+			@Override
+			void tearDown() {
+				itemList = null;
+				saveFile.delete();
+			}
+		});
+
+		benchmarks.put("delete", new Benchmark() {
+			private RetailItemList itemList;
+			private String[] descriptions;
+
+			@Override
+			void setUp(File itemFile, int size) throws IOException {
+				itemList = loadList(itemFile);
+				descriptions = pickDescriptions(size, true);
+				RetailItemManager.descriptionFilter = new RetailItemBloomFilter(itemList, null);
+			}
+
+			@Override
+			long run() {
+				long total = 0;
+				int indexFound;
+				RetailItem deletedItem;
+
+				//each item is put back at the end, so the list keeps its size from run to run
+				for(String description : descriptions) {
+					indexFound = RetailItemManager.findItem(itemList, description);
+					deletedItem = itemList.remove(indexFound);
+					itemList.add(deletedItem);
+					total += indexFound;
+				}
+
+				return total;
+			}
+
+			@Override
+			int operations() {
+				return descriptions.length;
+			}
+
+			@Override
+			void tearDown() {
+				itemList = null;
+				RetailItemManager.descriptionFilter = null;
+			}
+		});
+
+		benchmarks.put("display", new Benchmark() {
+			private RetailItemList itemList;
+
+			@Override
+			void setUp(File itemFile, int size) throws IOException {
+				itemList = loadList(itemFile);
+			}
+
+			@Override
+			long run() {
+				PrintStream screen = System.out;
+				CountingOutputStream thrownAway = new CountingOutputStream();
+
+				//the printing is timed, but not the terminal
+				System.setOut(new PrintStream(new BufferedOutputStream(thrownAway, 64 * 1024)));
+
+				try {
+					RetailItemManager.displayAllRetailItems(itemList);
+					System.out.flush();
+				}
+				finally {
+					System.setOut(screen);
+				}
+
+				return thrownAway.count;
+			}
+
+			@Override
+			int operations() {
+				return itemList.size();
+			}
+
+			@Override
+			void tearDown() {
+				itemList = null;
+			}
+		});
+
+		benchmarks.put("recount", new Benchmark() {
+			private RetailItemList itemList;
+
+			@Override
+			void setUp(File itemFile, int size) throws IOException {
+				itemList = loadList(itemFile);
+			}
+
+			@Override
+			long run() {
+				return RetailItemAggregates.recount(itemList).getTotalValueCents();
+			}
+
+			@Override
+			int operations() {
+				return itemList.size();
+			}
+
+			@Override
+			void tearDown() {
+				itemList = null;
+			}
+		});
+
+		return benchmarks;
+	}
+
+	/**
+	 * The findHit and findMiss benchmarks.
+	 */
+	private static class FindBenchmark extends Benchmark {
+		private boolean hits;
+		private RetailItemList itemList;
+		private String[] descriptions;
+
+		FindBenchmark(boolean findHits) {
+			hits = findHits;
+		}
+
+		@Override
+		void setUp(File itemFile, int size) throws IOException {
+			itemList = loadList(itemFile);
+			descriptions = pickDescriptions(size, hits);
+
+			//the filter the program builds once the database is loaded
+			RetailItemManager.descriptionFilter = new RetailItemBloomFilter(itemList, null);
+		}
+
+		@Override
+		long run() {
+			long total = 0;
+
+			for(String description : descriptions) {
+				total += RetailItemManager.findItem(itemList, description);
+			}
+
+			return total;
+		}
+
+		@Override
+		int operations() {
+			return descriptions.length;
+		}
+
+		@Override
+		void tearDown() {
+			itemList = null;
+			RetailItemManager.descriptionFilter = null;
+		}
+	}
+
+	/**
+	 * An OutputStream that throws its bytes away and counts them.
+	 */
+	private static class CountingOutputStream extends OutputStream {
+		private long count = 0;
+
+		@Override
+		public void write(int b) {
+			++count;
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) {
+			count += length;
+		}
+	}
+
+	//helper methods
+	/**
+	 * Warms a benchmark up, times it, and prints the result.
+	 *
+	 * @param name String representing the name of the benchmark.
+	 * @param benchmark Benchmark to run.
+	 * @param itemFile File holding the database.
+	 * @param size integer representing the number of items in the database.
+	 *
+	 * @throws IOException May throw IOException if the benchmark cannot read or write its files.
+	 */
+	private static void runBenchmark(String name, Benchmark benchmark, File itemFile, int size) throws IOException {
+		//variables
+		long start;
+		long runStart;
+		long runNanos;
+		long totalNanos = 0;
+		long bestNanos = Long.MAX_VALUE;
+		int runs = 0;
+
+		benchmark.setUp(itemFile, size);
+
+		//warms up for a while, running at least once
+		start = System.nanoTime();
+		do {
+			sink += benchmark.run();
+		} while(System.nanoTime() - start < WARMUP_NANOS);
+
+		//times runs until there are enough of them and enough time has passed
+		start = System.nanoTime();
+		while(runs < MIN_RUNS || System.nanoTime() - start < MEASURE_NANOS) {
+			runStart = System.nanoTime();
+			sink += benchmark.run();
+			runNanos = System.nanoTime() - runStart;
+
+			totalNanos += runNanos;
+			bestNanos = Math.min(bestNanos, runNanos);
+			++runs;
+		}
+
+		System.out.printf("%-10s %10d %14.1f %14.1f %6d\n", name, size,
+				(double) totalNanos / runs / benchmark.operations(), (double) bestNanos / benchmark.operations(), runs);
+
+		benchmark.tearDown();
+	}
+
+	/**
+	 * Returns a database file of a number of items, writing it to the temporary directory if it is not there yet.
+	 * Item i is called "Item" followed by i, so the descriptions the benchmarks look up are known without reading the file.
+	 *
+	 * @param size integer representing the number of items.
+	 *
+	 * @return the File holding the database.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be written.
+	 */
+	private static File generateDatabase(int size) throws IOException {
+		//variables
+		File directory = new File(System.getProperty("java.io.tmpdir"), "RetailItemBenchmark");
+		File itemFile = new File(directory, "RetailItemDatabase-" + size + ".txt");
+		File partFile = new File(directory, "RetailItemDatabase-" + size + ".part");
+		Random random = new Random(size);
+		RetailItemWriter itemWriter;
+
+		if(itemFile.exists()) {
+			return itemFile;
+		}
+
+		directory.mkdirs();
+		itemWriter = new RetailItemWriter(partFile.getPath());
+
+		try {
+			for(int i = 0; i < size; ++i) {
+				itemWriter.write("Item" + i, 1 + random.nextInt(1000), 1 + random.nextInt(50000));
+			}
+		}
+		finally {
+			itemWriter.close();
+		}
+
+		//the file only gets its real name once it is complete
+		if(!partFile.renameTo(itemFile)) {
+			throw new IOException("Cannot rename " + partFile + " to " + itemFile + ".");
+		}
+
+		return itemFile;
+	}
+
+	/**
+	 * Loads a database into a new RetailItemList.
+	 *
+	 * @param itemFile File holding the database.
+	 *
+	 * @return the RetailItemList holding the items.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be read.
+	 */
+	private static RetailItemList loadList(File itemFile) throws IOException {
+		//variables
+		RetailItemList itemList = new RetailItemList();
+
+		RetailItemManager.createArrayList(itemList, itemFile);
+
+		return itemList;
+	}
+
+	/**
+	 * Picks descriptions at random for the find and delete benchmarks.
+	 *
+	 * @param size integer representing the number of items in the database.
+	 * @param inList true for descriptions of items in the database, false for descriptions that are not.
+	 *
+	 * @return an array of LOOKUPS descriptions.
+	 */
+	private static String[] pickDescriptions(int size, boolean inList) {
+		//variables
+		Random random = new Random(42);
+		String[] descriptions = new String[LOOKUPS];
+
+		for(int i = 0; i < LOOKUPS; ++i) {
+			if(inList) {
+				//mixes the case, since descriptions are found ignoring case
+				descriptions[i] = (random.nextBoolean() ? "item" : "ITEM") + random.nextInt(size);
+			}
+			else {
+				descriptions[i] = "Missing" + random.nextInt(size);
+			}
+		}
+
+		return descriptions;
+	}
+}
@@ -0,0 +1,303 @@
+/**
+ * This class reads and writes the binary version of the database file.
+ *
+ * The file starts with a header holding "RIDB", the format version, and the number of records.
+ * Each record then holds the length of the description in bytes, the UTF-8 description,
+ * 		the units on hand as an int, and the price in cents as a long.
+ * It also converts database files between the text format and the binary format.
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+public class RetailItemBinaryFile {
+
+	/**
+	 * int MAGIC first four bytes of every binary database file, "RIDB".
+	 * int VERSION version of the format written by this class.
+	 * int COUNT_OFFSET position of the record count in the header.
+	 * int HEADER_BYTES bytes in the header.
+	 * int MIN_RECORD_BYTES bytes in a record with an empty description, the smallest a record can be.
+	 * int BUFFER_SIZE size of the buffer used when reading and writing files.
+	 */
+	public static final int MAGIC = 0x52494442;
+	public static final int VERSION = 1;
+	private static final int COUNT_OFFSET = 8;
+	private static final int HEADER_BYTES = 16;
+	private static final int MIN_RECORD_BYTES = 16;
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Reads every record of a binary database file and adds the items to itemList.
+	 * Records with bad data are reported and skipped the same way RetailItemManager.createArrayList does.
+	 *
+	 * @param itemList RetailItemList used to hold RetailItem objects.
+	 * @param itemFile binary File used to take data and create RetailItem objects.
+	 *
+	 * @throws IOException May throw IOException if itemFile cannot be read, is not a binary database file, or is damaged.
+	 */
+	public static void load(RetailItemList itemList, File itemFile) throws IOException {
+		//variables
+		long fileLength = itemFile.length();
+		long recordCount;
+		long i;
+		DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(itemFile), BUFFER_SIZE));
+
+		try {
+			recordCount = readHeader(input, fileLength);
+
+			//makes room for every record before reading them, now that the count is known to fit in the file
+			itemList.ensureCapacity((int) Math.min(Integer.MAX_VALUE - 8, itemList.size() + recordCount));
+
+			for(i = 0; i < recordCount; ++i) {
+				try {
+					//may throw IllegalArgumentException
+					itemList.add(readRecord(input, maxDescriptionLength(fileLength, recordCount - i)));
+				}
+				catch(IllegalArgumentException badData) {
+					//error message specified in RetailItem.java
+					System.out.println(badData);
+
+					//message informing user record was not added to list
+					System.out.println("Deleted record input.\n");
+				}
+			}
+		}
+		finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Writes every item in itemList to a binary database file.
+	 *
+	 * @param itemList List holding RetailItem objects.
+	 * @param fileName String representing the name of the file to write.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be written.
+	 */
+	public static void save(List<RetailItem> itemList, String fileName) throws IOException {
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName), BUFFER_SIZE));
+
+		try {
+			writeHeader(output, itemList.size());
+
+			for(RetailItem item : itemList) {
+				writeRecord(output, item);
+			}
+		}
+		finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Converts a text database file into a binary database file.
+	 * Lines with bad data are reported and left out.
+	 *
+	 * @param textFile File in the text format to read.
+	 * @param binaryFile File to write in the binary format.
+	 *
+	 * @throws IOException May throw IOException if either file cannot be used.
+	 */
+	public static void convertToBinary(File textFile, File binaryFile) throws IOException {
+		//variables
+		long recordCount = 0;
+		RetailItem item;
+		RetailItemReader fileReader = new RetailItemReader(new FileInputStream(textFile));
+		FileOutputStream fileOutput = new FileOutputStream(binaryFile);
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileOutput, BUFFER_SIZE));
+		ByteBuffer countBuffer = ByteBuffer.allocate(8);
+
+		try {
+			//the record count is not known yet, so it is filled in at the end
+			writeHeader(output, 0);
+
+			while(fileReader.hasNextLine()) {
+				fileReader.nextLine();
+
+				item = new RetailItem();
+
+				try {
+					//may throw IllegalArgumentException
+					item.readData(fileReader);
+
+					writeRecord(output, item);
+					++recordCount;
+				}
+				catch(IllegalArgumentException badData) {
+					//error message specified in RetailItem.java
+					System.out.println(badData);
+
+					//message informing user record was not added to the file
+					System.out.println("Deleted record input.\n");
+				}
+			}
+
+			output.flush();
+
+			//writes the real record count into the header
+			countBuffer.putLong(0, recordCount);
+			fileOutput.getChannel().write(countBuffer, COUNT_OFFSET);
+		}
+		finally {
+			fileReader.close();
+			output.close();
+		}
+	}
+
+	/**
+	 * Converts a binary database file into a text database file in the format written by RetailItem.writeData.
+	 * Records with bad data are reported and left out.
+	 *
+	 * @param binaryFile File in the binary format to read.
+	 * @param textFile File to write in the text format.
+	 *
+	 * @throws IOException May throw IOException if either file cannot be used or binaryFile is damaged.
+	 */
+	public static void convertToText(File binaryFile, File textFile) throws IOException {
+		//variables
+		long fileLength = binaryFile.length();
+		long recordCount;
+		long i;
+		DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(binaryFile), BUFFER_SIZE));
+		RetailItemWriter itemWriter = new RetailItemWriter(textFile.getPath());
+
+		try {
+			recordCount = readHeader(input, fileLength);
+
+			for(i = 0; i < recordCount; ++i) {
+				try {
+					//may throw IllegalArgumentException
+					readRecord(input, maxDescriptionLength(fileLength, recordCount - i)).writeData(itemWriter);
+				}
+				catch(IllegalArgumentException badData) {
+					//error message specified in RetailItem.java
+					System.out.println(badData);
+
+					//message informing user record was not added to the file
+					System.out.println("Deleted record input.\n");
+				}
+			}
+		}
+		finally {
+			input.close();
+			itemWriter.close();
+		}
+	}
+
+	//helper methods
+	/**
+	 * Writes the header of a binary database file.
+	 *
+	 * @param output DataOutputStream of the file.
+	 * @param recordCount long representing how many records follow the header.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be written.
+	 */
+	private static void writeHeader(DataOutputStream output, long recordCount) throws IOException {
+		output.writeInt(MAGIC);
+		output.writeInt(VERSION);
+		output.writeLong(recordCount);
+	}
+
+	/**
+	 * Reads the header of a binary database file and returns the record count.
+	 *
+	 * @param input DataInputStream of the file.
+	 * @param fileLength long representing the number of bytes in the file.
+	 *
+	 * @return a long representing how many records follow the header.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be read, is not a binary database file, has a newer version,
+	 * 		or has a record count that cannot fit in it.
+	 */
+	private static long readHeader(DataInputStream input, long fileLength) throws IOException {
+		//variables
+		int version;
+		long recordCount;
+
+		if(input.readInt() != MAGIC) {
+			throw new IOException("The file is not a binary database file.");
+		}
+
+		version = input.readInt();
+
+		if(version != VERSION) {
+			throw new IOException("Binary database version " + version + " is not supported.");
+		}
+
+		recordCount = input.readLong();
+
+		//every record takes at least MIN_RECORD_BYTES, so a larger count means the header is damaged
+		if(recordCount < 0 || recordCount > (fileLength - HEADER_BYTES) / MIN_RECORD_BYTES) {
+			throw new IOException("The binary database file is damaged.");
+		}
+
+		return recordCount;
+	}
+
+	/**
+	 * Returns the longest description a record can have and still leave room for the records after it.
+	 * The records before it are not counted, so this is only an upper bound, but it is never more than the file holds.
+	 *
+	 * @param fileLength long representing the number of bytes in the file.
+	 * @param recordsLeft long representing the number of records not read yet, including the next one.
+	 *
+	 * @return a long representing the most bytes the next description can take.
+	 */
+	private static long maxDescriptionLength(long fileLength, long recordsLeft) {
+		return fileLength - HEADER_BYTES - recordsLeft * MIN_RECORD_BYTES;
+	}
+
+	/**
+	 * Writes one item as a record.
+	 *
+	 * @param output DataOutputStream of the file.
+	 * @param item RetailItem to write.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be written.
+	 */
+	static void writeRecord(DataOutputStream output, RetailItem item) throws IOException {
+		byte[] descriptionBytes = item.getDescription().getBytes(StandardCharsets.UTF_8);
+
+		output.writeInt(descriptionBytes.length);
+		output.write(descriptionBytes);
+		output.writeInt(item.getUnitsOnHand());
+		output.writeLong(item.getPriceCents());
+	}
+
+	/**
+	 * Reads one record as a new item.
+	 *
+	 * @param input DataInputStream of the file.
+	 * @param maxDescriptionLength long representing the most bytes the description can take in what is left of the file.
+	 *
+	 * @return a new RetailItem holding the data of the record.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be read, the record is cut off, or its length is damaged.
+	 * @throws IllegalArgumentException if the description is empty or the units on hand or price are not greater than 0.
+	 */
+	static RetailItem readRecord(DataInputStream input, long maxDescriptionLength) throws IOException, IllegalArgumentException {
+		//variables
+		int descriptionLength = input.readInt();
+		byte[] descriptionBytes;
+		int unitsOnHand;
+		long priceCents;
+
+		//checked before the array is made, so a damaged length cannot use up the heap
+		if(descriptionLength < 0 || descriptionLength > maxDescriptionLength) {
+			throw new IOException("The binary database file is damaged.");
+		}
+
+		descriptionBytes = new byte[descriptionLength];
+		input.readFully(descriptionBytes);
+		unitsOnHand = input.readInt();
+		priceCents = input.readLong();
+
+		//uses the same rules as for text files
+		return RetailItem.fromCents(new String(descriptionBytes, StandardCharsets.UTF_8), unitsOnHand, priceCents);
+	}
+}
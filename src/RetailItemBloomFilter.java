@@ -0,0 +1,219 @@
+/**
+ * This class is a Bloom filter of the descriptions of a RetailItemList, used to tell that a description is new
+ * 		without looking in the description index of the list, or in the file when the database was opened with --lazy.
+ * mightContain returns false only if no item has the description, ignoring case. If it returns true,
+ * 		the description still has to be looked up, since about one new description in a hundred gets through.
+ *
+ * The filter is an array of bits split into blocks of 512 bits, the size of a cache line.
+ * Each description sets HASHES bits in one block picked by its RetailItemIndex hash, which the store already keeps for every item,
+ * 		so a lookup reads one block and adding an item never makes a String.
+ *
+ * It is a listener of the list. A new description has its bits set when an item is added or renamed,
+ * 		but bits cannot be cleared, since other descriptions may use them, so the bits of a deleted or renamed item stay set.
+ * Once more descriptions have been added than the filter was sized for, or more items have been removed than are left,
+ * 		the filter is built again from the list at a size that fits the items it has now.
+ *
+ * All methods are synchronized, so the filter can be used while other threads change the list.
+ */
+
+public class RetailItemBloomFilter implements RetailItemListener {
+
+	/**
+	 * int BITS_PER_ITEM least number of bits for each description the filter is sized for.
+	 * int HASHES number of bits set for each description.
+	 * int MIN_ITEMS least number of descriptions the filter is sized for.
+	 * int BLOCK_WORDS number of longs in one block.
+	 */
+	private static final int BITS_PER_ITEM = 10;
+	private static final int HASHES = 6;
+	private static final int MIN_ITEMS = 1024;
+	private static final int BLOCK_WORDS = 8;
+
+	/**
+	 * RetailItemList itemList list whose descriptions are in the filter.
+	 * RetailItemLazyDatabase lazyDatabase file whose descriptions are also in the filter, or null if every item was loaded.
+	 * long[] bits bits of every block.
+	 * int blockMask number of blocks minus one, used to turn a hash into a block.
+	 * int capacity number of descriptions that can be added before the filter is built again at a larger size.
+	 * int added number of descriptions added since the filter was built, including ones of items since removed or renamed.
+	 * int removedItems number of items removed since the filter was built.
+	 */
+	private RetailItemList itemList;
+	private RetailItemLazyDatabase lazyDatabase;
+	private long[] bits;
+	private int blockMask;
+	private int capacity;
+	private int added;
+	private int removedItems;
+
+	/**
+	 * Builds the filter from every item of a list and starts listening to the list for changes.
+	 *
+	 * @param items RetailItemList whose descriptions go in the filter.
+	 * @param itemFile RetailItemLazyDatabase the items not read yet are in, or null if every item is in the list.
+	 */
+	public RetailItemBloomFilter(RetailItemList items, RetailItemLazyDatabase itemFile) {
+		itemList = items;
+		lazyDatabase = itemFile;
+		rebuild();
+		itemList.addListener(this);
+	}
+
+	/**
+	 * Returns false if no item has a description, ignoring case, and true if one might.
+	 *
+	 * @param description String representing the description.
+	 *
+	 * @return false if the description is new.
+	 */
+	public boolean mightContain(String description) {
+		return mightContain(RetailItemIndex.hash(description));
+	}
+
+	/**
+	 * Returns false if no item has a description with a RetailItemIndex hash, and true if one might.
+	 *
+	 * @param hash integer representing RetailItemIndex.hash of the description.
+	 *
+	 * @return false if the description is new.
+	 */
+	public synchronized boolean mightContain(int hash) {
+		//variables
+		long mixed = mix(hash);
+		int block = ((int) (mixed >>> 32) & blockMask) * BLOCK_WORDS;
+		int first = (int) mixed & 0xFFFF;
+		int step = ((int) mixed >>> 16) | 1;
+		int bit;
+
+		for(int i = 0; i < HASHES; ++i) {
+			bit = (first + i * step) & 511;
+
+			if((bits[block + (bit >>> 6)] & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns about how many bytes of memory the filter is using.
+	 *
+	 * @return a long representing the number of bytes.
+	 */
+	public synchronized long memoryUsed() {
+		//the array has a 16 byte header
+		return 16L + 8L * bits.length;
+	}
+
+	//listener methods
+	@Override
+	public synchronized void itemAdded(RetailItem item) {
+		addHash(itemList.descriptionHashAt(((RetailItemView) item).getSlot()));
+	}
+
+	@Override
+	public synchronized void itemRemoved(RetailItem item) {
+		//the bits stay set until the filter is built again
+		++removedItems;
+
+		if(removedItems >= MIN_ITEMS && removedItems > itemList.size()) {
+			rebuild();
+		}
+	}
+
+	@Override
+	public synchronized void descriptionChanged(RetailItem item, String oldDescription) {
+		//the bits of the old description stay set until the filter is built again
+		addHash(itemList.descriptionHashAt(((RetailItemView) item).getSlot()));
+	}
+
+	//helper methods
+	/**
+	 * Sets the bits of a description, building the filter again at a larger size first if it is full.
+	 *
+	 * @param hash integer representing RetailItemIndex.hash of the description.
+	 */
+	private void addHash(int hash) {
+		if(added >= capacity) {
+			rebuild();
+		}
+
+		setBits(hash);
+		++added;
+	}
+
+	/**
+	 * Clears the filter, sizes it for twice the items there are now, and sets the bits of every description.
+	 */
+	private void rebuild() {
+		//variables
+		int itemCount = itemList.size() + (lazyDatabase == null ? 0 : lazyDatabase.itemCount());
+		long wantedBits = Math.max(MIN_ITEMS, 2L * itemCount) * BITS_PER_ITEM;
+		int blocks = 1;
+
+		//a power of two number of blocks, so a hash is turned into a block with a mask
+		while(blocks * 512L < wantedBits && blocks < 1 << 26) {
+			blocks *= 2;
+		}
+
+		bits = new long[blocks * BLOCK_WORDS];
+		blockMask = blocks - 1;
+		capacity = (int) Math.min(Integer.MAX_VALUE, blocks * 512L / BITS_PER_ITEM);
+		added = 0;
+		removedItems = 0;
+
+		for(int i = 0; i < itemList.size(); ++i) {
+			setBits(itemList.descriptionHashAt(((RetailItemView) itemList.get(i)).getSlot()));
+			++added;
+		}
+
+		//items in the file that were already read or deleted are added as well, which only costs a few extra bits
+		if(lazyDatabase != null) {
+			for(int i = 0; i < lazyDatabase.itemCount(); ++i) {
+				setBits(lazyDatabase.descriptionHashAt(i));
+				++added;
+			}
+		}
+	}
+
+	/**
+	 * Sets the bits of a description in its block.
+	 *
+	 * @param hash integer representing RetailItemIndex.hash of the description.
+	 */
+	private void setBits(int hash) {
+		//variables
+		long mixed = mix(hash);
+		int block = ((int) (mixed >>> 32) & blockMask) * BLOCK_WORDS;
+		int first = (int) mixed & 0xFFFF;
+		int step = ((int) mixed >>> 16) | 1;
+		int bit;
+
+		for(int i = 0; i < HASHES; ++i) {
+			bit = (first + i * step) & 511;
+			bits[block + (bit >>> 6)] |= 1L << bit;
+		}
+	}
+
+	/**
+	 * Spreads a hash over 64 bits, so the block and the bits in it come from different bits of the result.
+	 *
+	 * @param hash integer representing RetailItemIndex.hash of a description.
+	 *
+	 * @return a long representing the mixed hash.
+	 */
+	private static long mix(int hash) {
+		//variables
+		long mixed = hash & 0xFFFFFFFFL;
+
+		//the finishing steps of MurmurHash3
+		mixed ^= mixed >>> 33;
+		mixed *= 0xFF51AFD7ED558CCDL;
+		mixed ^= mixed >>> 33;
+		mixed *= 0xC4CEB9FE1A85EC53L;
+		mixed ^= mixed >>> 33;
+
+		return mixed;
+	}
+}
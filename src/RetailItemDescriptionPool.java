@@ -0,0 +1,288 @@
+/**
+ * This class keeps descriptions packed one after another in a single byte array, the arena.
+ * A description added to the pool is known by a handle, a long holding where its bytes start in the high 32 bits
+ * 		and its number of characters times two, plus UTF16 if it is kept as two bytes per character, in the low 32 bits.
+ * Several items with the same description can share one handle, so the description is only kept once.
+ *
+ * A description whose characters all fit in one byte (Latin-1, which includes all of ASCII) is kept as one byte per character.
+ * Any other description is kept as two bytes per character (UTF-16), so every description takes a known number of bytes
+ * 		and can be compared with a String one character at a time without making a String out of it.
+ *
+ * The bytes of released descriptions stay in the arena until it is packed. The pool does not know which handles are in use,
+ * 		so the class using it packs it with the handles it still holds once needsPacking says most of the arena is left over.
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class RetailItemDescriptionPool {
+
+	/**
+	 * int INITIAL_ARENA_BYTES number of bytes an empty pool starts with.
+	 * int UTF16 bit of a handle that is set when a description is kept as two bytes per character.
+	 */
+	private static final int INITIAL_ARENA_BYTES = 256;
+	private static final int UTF16 = 1;
+
+	/**
+	 * byte[] arena bytes of every description.
+	 * int arenaSize number of bytes of the arena in use.
+	 * long unusedBytes bytes of the arena left behind by released descriptions.
+	 * 		A shared description is counted each time it is released, so this can be more than the real number.
+	 */
+	private byte[] arena = new byte[INITIAL_ARENA_BYTES];
+	private int arenaSize = 0;
+	private long unusedBytes = 0;
+
+	/**
+	 * Adds a description to the end of the arena, growing the arena if it is too small.
+	 *
+	 * @param description String representing the description.
+	 *
+	 * @return a long representing the handle of the description.
+	 */
+	public long add(String description) {
+		//variables
+		int coder = 0;
+		int byteCount;
+		long needed;
+		long handle;
+		char character;
+
+		for(int i = 0; i < description.length(); ++i) {
+			if(description.charAt(i) > 0xFF) {
+				coder = UTF16;
+				break;
+			}
+		}
+
+		byteCount = coder == 0 ? description.length() : description.length() * 2;
+		needed = (long) arenaSize + byteCount;
+
+		if(needed > arena.length) {
+			if(needed > Integer.MAX_VALUE - 8) {
+				throw new OutOfMemoryError("The descriptions take up more than 2 GB.");
+			}
+
+			arena = Arrays.copyOf(arena, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(needed, arena.length * 2L)));
+		}
+
+		for(int i = 0; i < description.length(); ++i) {
+			character = description.charAt(i);
+
+			if(coder == 0) {
+				arena[arenaSize + i] = (byte) character;
+			}
+			else {
+				arena[arenaSize + 2 * i] = (byte) (character >>> 8);
+				arena[arenaSize + 2 * i + 1] = (byte) character;
+			}
+		}
+
+		handle = ((long) arenaSize << 32) | (description.length() << 1) | coder;
+		arenaSize += byteCount;
+
+		return handle;
+	}
+
+	/**
+	 * Marks the bytes of a description as left over, once one of its users no longer needs it.
+	 *
+	 * @param handle long representing the handle of the description.
+	 */
+	public void release(long handle) {
+		unusedBytes += byteLength(handle);
+	}
+
+	/**
+	 * Returns true if adding a description would grow the arena while more than half of it is left over,
+	 * 		so it should be packed first.
+	 *
+	 * @param description String representing the description about to be added.
+	 *
+	 * @return true if the arena should be packed.
+	 */
+	public boolean needsPacking(String description) {
+		//two bytes per character is the most a description can take
+		return (long) arenaSize + description.length() * 2L > arena.length && unusedBytes > arenaSize / 2;
+	}
+
+	/**
+	 * Moves the descriptions of some handles to the front of the arena, dropping every other byte, and changes the handles to match.
+	 * Handles that were shared still share their description afterwards.
+	 *
+	 * @param handles long array holding the handles still in use. Negative values are skipped.
+	 * @param count integer representing how many places of the array to look at.
+	 */
+	public void pack(long[] handles, int count) {
+		//variables
+		long[] order = new long[count];
+		int used = 0;
+		byte[] packed = new byte[arena.length];
+		int packedSize = 0;
+		long previousHandle = -1;
+		long newHandle = -1;
+		int place;
+
+		//sorts the places by where their bytes start, so shared handles end up next to each other
+		for(int i = 0; i < count; ++i) {
+			if(handles[i] >= 0) {
+				order[used++] = (handles[i] & 0xFFFFFFFF00000000L) | i;
+			}
+		}
+
+		Arrays.sort(order, 0, used);
+
+		for(int i = 0; i < used; ++i) {
+			place = (int) order[i];
+
+			if(handles[place] != previousHandle) {
+				previousHandle = handles[place];
+				System.arraycopy(arena, (int) (previousHandle >>> 32), packed, packedSize, byteLength(previousHandle));
+				newHandle = ((long) packedSize << 32) | (previousHandle & 0xFFFFFFFFL);
+				packedSize += byteLength(previousHandle);
+			}
+
+			handles[place] = newHandle;
+		}
+
+		arena = packed;
+		arenaSize = packedSize;
+		unusedBytes = 0;
+	}
+
+	/**
+	 * Removes every description.
+	 */
+	public void clear() {
+		arenaSize = 0;
+		unusedBytes = 0;
+	}
+
+	/**
+	 * Returns a description as a new String.
+	 *
+	 * @param handle long representing the handle of the description.
+	 *
+	 * @return a String representing the description.
+	 */
+	public String getDescription(long handle) {
+		return new String(arena, (int) (handle >>> 32), byteLength(handle),
+				((int) handle & UTF16) == 0 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_16BE);
+	}
+
+	/**
+	 * Returns true if a description matches a String, comparing the bytes straight with the characters of the String.
+	 *
+	 * @param handle long representing the handle of the description.
+	 * @param text String to compare with.
+	 * @param ignoreCase true to ignore case the same way String.equalsIgnoreCase does.
+	 *
+	 * @return true if the description matches.
+	 */
+	public boolean matches(long handle, String text, boolean ignoreCase) {
+		//variables
+		int length = (int) handle >>> 1;
+		int pooledCodePoint;
+		int textCodePoint;
+
+		if(length != text.length()) {
+			return false;
+		}
+
+		//the two places only drift apart when a surrogate pair is compared with a character that is not one
+		for(int i = 0, j = 0; i < length && j < length; ++i, ++j) {
+			pooledCodePoint = charAt(handle, i);
+			textCodePoint = text.charAt(j);
+
+			if(pooledCodePoint == textCodePoint) {
+				continue;
+			}
+
+			if(!ignoreCase) {
+				return false;
+			}
+
+			if(equalIgnoringCase(pooledCodePoint, textCodePoint)) {
+				continue;
+			}
+
+			//the same as equalsIgnoreCase, a surrogate is compared as the code point of the pair it is in
+			if(Character.isLowSurrogate((char) pooledCodePoint) && i > 0 && Character.isHighSurrogate(charAt(handle, i - 1))) {
+				pooledCodePoint = Character.toCodePoint(charAt(handle, i - 1), (char) pooledCodePoint);
+			}
+			else if(Character.isHighSurrogate((char) pooledCodePoint) && i + 1 < length && Character.isLowSurrogate(charAt(handle, i + 1))) {
+				pooledCodePoint = Character.toCodePoint((char) pooledCodePoint, charAt(handle, ++i));
+			}
+
+			if(Character.isLowSurrogate((char) textCodePoint) && j > 0 && Character.isHighSurrogate(text.charAt(j - 1))) {
+				textCodePoint = Character.toCodePoint(text.charAt(j - 1), (char) textCodePoint);
+			}
+			else if(Character.isHighSurrogate((char) textCodePoint) && j + 1 < length && Character.isLowSurrogate(text.charAt(j + 1))) {
+				textCodePoint = Character.toCodePoint((char) textCodePoint, text.charAt(++j));
+			}
+
+			if(!equalIgnoringCase(pooledCodePoint, textCodePoint)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns about how many bytes of memory the pool is using, including room it has not filled yet.
+	 *
+	 * @return a long representing the number of bytes.
+	 */
+	public long memoryUsed() {
+		//the array has a 16 byte header
+		return 16L + arena.length;
+	}
+
+	//helper methods
+	/**
+	 * Returns a character of a description straight from the arena.
+	 *
+	 * @param handle long representing the handle of the description.
+	 * @param index integer representing the place of the character in the description.
+	 *
+	 * @return the char at index.
+	 */
+	private char charAt(long handle, int index) {
+		//variables
+		int offset = (int) (handle >>> 32);
+
+		if(((int) handle & UTF16) == 0) {
+			return (char) (arena[offset + index] & 0xFF);
+		}
+
+		return (char) (((arena[offset + 2 * index] & 0xFF) << 8) | (arena[offset + 2 * index + 1] & 0xFF));
+	}
+
+	/**
+	 * Returns true if two code points are the same ignoring case, using the same two steps as equalsIgnoreCase.
+	 *
+	 * @param first integer representing the first code point.
+	 * @param second integer representing the second code point.
+	 *
+	 * @return true if the upper case or the lower case of the upper case of the code points are the same.
+	 */
+	private static boolean equalIgnoringCase(int first, int second) {
+		first = Character.toUpperCase(first);
+		second = Character.toUpperCase(second);
+
+		return first == second || Character.toLowerCase(first) == Character.toLowerCase(second);
+	}
+
+	/**
+	 * Returns the number of bytes a description takes up in the arena.
+	 *
+	 * @param handle long representing the handle of the description.
+	 *
+	 * @return an integer representing the number of bytes.
+	 */
+	private static int byteLength(long handle) {
+		return ((int) handle & UTF16) == 0 ? (int) handle >>> 1 : ((int) handle >>> 1) * 2;
+	}
+}
@@ -0,0 +1,357 @@
+/**
+ * This class exports a database file sorted by description, price, or units on hand, without loading the whole file.
+ *
+ * The file is read one line at a time with RetailItem.readData. Items are kept in memory until they take up about
+ * 		maxRunBytes, then sorted and written to a temporary run file with RetailItem.writeData, and the next run is started.
+ * Once the file has been read, the runs are merged into the export file by keeping the first item of each run
+ * 		in a PriorityQueue and writing the smallest one each time.
+ * If there are more than MAX_MERGE_RUNS runs, groups of them are merged into longer runs first,
+ * 		so only a fixed number of files is open at once. A file that fits in one run is sorted in memory and written straight out.
+ *
+ * Items with the same key keep the order they had in the file, and the export is written in the same format saveItems writes.
+ * Lines with bad data are reported and skipped the same way RetailItemManager.createArrayList does.
+ */
+
+import java.io.*;
+import java.util.*;
+
+public class RetailItemExport {
+
+	/**
+	 * int MAX_MERGE_RUNS most run files merged at once.
+	 * long MIN_RUN_BYTES least number of bytes of items kept in memory for each run.
+	 * int ITEM_BYTES about how many bytes an item takes in memory besides the characters of its description.
+	 */
+	private static final int MAX_MERGE_RUNS = 64;
+	private static final long MIN_RUN_BYTES = 1024 * 1024;
+	private static final int ITEM_BYTES = 96;
+
+	/**
+	 * Exports a database file sorted by a key, keeping a quarter of the largest heap in memory for each run.
+	 *
+	 * @param inputFile File holding the items in the format readData reads.
+	 * @param outputFile File to write the sorted items to. It may be inputFile.
+	 * @param key String representing what to sort by, "description", "price", or "units".
+	 *
+	 * @return an integer representing the number of items exported.
+	 *
+	 * @throws IOException May throw IOException if a file cannot be read or written.
+	 * @throws IllegalArgumentException if key is not one of the keys.
+	 */
+	public static int export(File inputFile, File outputFile, String key) throws IOException {
+		return export(inputFile, outputFile, key, Math.max(MIN_RUN_BYTES, Runtime.getRuntime().maxMemory() / 4));
+	}
+
+	/**
+	 * Exports a database file sorted by a key, keeping at most about maxRunBytes of items in memory for each run.
+	 *
+	 * @param inputFile File holding the items in the format readData reads.
+	 * @param outputFile File to write the sorted items to. It may be inputFile.
+	 * @param key String representing what to sort by, "description", "price", or "units".
+	 * @param maxRunBytes long representing about how many bytes of items are sorted in memory at once.
+	 *
+	 * @return an integer representing the number of items exported.
+	 *
+	 * @throws IOException May throw IOException if a file cannot be read or written.
+	 * @throws IllegalArgumentException if key is not one of the keys.
+	 */
+	public static int export(File inputFile, File outputFile, String key, long maxRunBytes) throws IOException {
+		//variables
+		Comparator<RetailItem> order = comparator(key);
+		List<RetailItem> run = new ArrayList<RetailItem>();
+		List<File> runFiles = new ArrayList<File>();
+		File runDirectory = outputFile.getAbsoluteFile().getParentFile();
+		long runBytes = 0;
+		int itemCount = 0;
+		RetailItemReader fileReader = new RetailItemReader(new FileInputStream(inputFile));
+
+		try {
+			try {
+				while(fileReader.hasNextLine()) {
+					fileReader.nextLine();
+
+					RetailItem item = new RetailItem();
+
+					try {
+						//may throw IllegalArgumentException
+						item.readData(fileReader);
+					}
+					catch(IllegalArgumentException badData) {
+						//error message specified in RetailItem.java
+						System.out.println(badData);
+
+						//message informing user record was not exported
+						System.out.println("Deleted record input.\n");
+
+						continue;
+					}
+
+					//a full run is sorted and written out before the item is added to the next one
+					if(runBytes >= maxRunBytes && !run.isEmpty()) {
+						runFiles.add(writeRun(run, order, runDirectory));
+						run.clear();
+						runBytes = 0;
+					}
+
+					run.add(item);
+					runBytes += ITEM_BYTES + 2L * item.getDescription().length();
+					++itemCount;
+				}
+			}
+			finally {
+				fileReader.close();
+			}
+
+			if(runFiles.isEmpty()) {
+				//the whole file fit in one run
+				run.sort(order);
+				writeItems(run, outputFile);
+			}
+			else {
+				if(!run.isEmpty()) {
+					runFiles.add(writeRun(run, order, runDirectory));
+				}
+
+				//the memory of the last run is not needed while merging
+				run = null;
+
+				//merges groups of runs until they can all be merged at once
+				while(runFiles.size() > MAX_MERGE_RUNS) {
+					List<File> mergedRuns = new ArrayList<File>();
+
+					try {
+						for(int i = 0; i < runFiles.size(); i += MAX_MERGE_RUNS) {
+							List<File> group = runFiles.subList(i, Math.min(runFiles.size(), i + MAX_MERGE_RUNS));
+
+							mergedRuns.add(File.createTempFile("RetailItemExport", ".run", runDirectory));
+							merge(group, mergedRuns.get(mergedRuns.size() - 1), order);
+
+							for(File groupRun : group) {
+								groupRun.delete();
+							}
+						}
+					}
+					catch(IOException mergeError) {
+						//the runs of this pass are deleted here, the ones left from the last pass in the finally block
+						for(File mergedRun : mergedRuns) {
+							mergedRun.delete();
+						}
+
+						throw mergeError;
+					}
+
+					runFiles = mergedRuns;
+				}
+
+				merge(runFiles, outputFile, order);
+			}
+		}
+		finally {
+			//deletes the run files, even if the export failed
+			for(File runFile : runFiles) {
+				runFile.delete();
+			}
+		}
+
+		return itemCount;
+	}
+
+	/**
+	 * Returns the order items are exported in for a key.
+	 * Items with the same price or units on hand are put in order by description,
+	 * 		and descriptions are compared ignoring case, the same way the list looks them up, then with case.
+	 *
+	 * @param key String representing what to sort by, "description", "price", or "units".
+	 *
+	 * @return a Comparator putting RetailItem objects in order.
+	 *
+	 * @throws IllegalArgumentException if key is not one of the keys.
+	 */
+	public static Comparator<RetailItem> comparator(String key) throws IllegalArgumentException {
+		//variables
+		Comparator<RetailItem> byDescription = Comparator.comparing(RetailItem::getDescription, String.CASE_INSENSITIVE_ORDER)
+				.thenComparing(RetailItem::getDescription);
+
+		if(key.equals("description")) {
+			return byDescription;
+		}
+		else if(key.equals("price")) {
+			return Comparator.comparingLong(RetailItem::getPriceCents).thenComparing(byDescription);
+		}
+		else if(key.equals("units")) {
+			return Comparator.comparingInt(RetailItem::getUnitsOnHand).thenComparing(byDescription);
+		}
+
+		//error message thrown if the key is not one of the keys
+		throw new IllegalArgumentException("\"" + key + "\" is not a sort key. Use description, price, or units.");
+	}
+
+	//helper methods
+	/**
+	 * Sorts a run of items and writes it to a new temporary file.
+	 *
+	 * @param run List of RetailItem objects to sort. It is left sorted.
+	 * @param order Comparator putting the items in order.
+	 * @param runDirectory File representing the directory to make the run file in.
+	 *
+	 * @return the File the run was written to.
+	 *
+	 * @throws IOException May throw IOException if the run file cannot be written.
+	 */
+	private static File writeRun(List<RetailItem> run, Comparator<RetailItem> order, File runDirectory) throws IOException {
+		//variables
+		File runFile = File.createTempFile("RetailItemExport", ".run", runDirectory);
+
+		//List.sort is stable, so items with the same key keep the order they were read in
+		run.sort(order);
+
+		try {
+			writeItems(run, runFile);
+		}
+		catch(IOException writeError) {
+			runFile.delete();
+
+			throw writeError;
+		}
+
+		return runFile;
+	}
+
+	/**
+	 * Writes a list of items to a file in the database format.
+	 *
+	 * @param items List holding RetailItem objects.
+	 * @param file File to write.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be written.
+	 */
+	private static void writeItems(List<RetailItem> items, File file) throws IOException {
+		//variables
+		RetailItemWriter itemWriter = new RetailItemWriter(file.getPath());
+
+		try {
+			for(RetailItem item : items) {
+				item.writeData(itemWriter);
+			}
+		}
+		finally {
+			itemWriter.close();
+		}
+	}
+
+	/**
+	 * Merges sorted run files into one sorted file.
+	 * The first item of each run waits in a PriorityQueue, and each time the smallest one is written it is replaced
+	 * 		by the next item of its run. Items with the same key are taken from the earlier run first.
+	 *
+	 * @param runFiles List of sorted run files, in the order they were written.
+	 * @param outputFile File to write the merged items to.
+	 * @param order Comparator the runs are sorted with.
+	 *
+	 * @throws IOException May throw IOException if a run cannot be read or outputFile cannot be written.
+	 */
+	private static void merge(List<File> runFiles, File outputFile, Comparator<RetailItem> order) throws IOException {
+		//variables
+		PriorityQueue<Run> heads = new PriorityQueue<Run>(Math.max(1, runFiles.size()), new Comparator<Run>() {
+			@Override
+			public int compare(Run first, Run second) {
+				//variables
+				int compared = order.compare(first.item, second.item);
+
+				return compared != 0 ? compared : Integer.compare(first.number, second.number);
+			}
+		});
+		List<Run> runs = new ArrayList<Run>();
+		RetailItemWriter itemWriter = null;
+		Run smallest;
+
+		try {
+			for(int i = 0; i < runFiles.size(); ++i) {
+				Run run = new Run(runFiles.get(i), i);
+
+				runs.add(run);
+
+				if(run.next()) {
+					heads.add(run);
+				}
+			}
+
+			itemWriter = new RetailItemWriter(outputFile.getPath());
+
+			while(!heads.isEmpty()) {
+				smallest = heads.poll();
+				smallest.item.writeData(itemWriter);
+
+				if(smallest.next()) {
+					heads.add(smallest);
+				}
+			}
+		}
+		finally {
+			for(Run run : runs) {
+				run.close();
+			}
+
+			if(itemWriter != null) {
+				itemWriter.close();
+			}
+		}
+	}
+
+	/**
+	 * A run file being merged, and the item read from it last.
+	 */
+	private static class Run {
+
+		/**
+		 * RetailItemReader runReader reader of the run file.
+		 * int number place of the run in the list of runs, used to keep items with the same key in order.
+		 * RetailItem item item read last, which has not been written yet.
+		 */
+		private RetailItemReader runReader;
+		private int number;
+		private RetailItem item = new RetailItem();
+
+		/**
+		 * Opens a run file.
+		 *
+		 * @param runFile File holding a sorted run.
+		 * @param runNumber integer representing the place of the run in the list of runs.
+		 *
+		 * @throws IOException May throw IOException if the file cannot be opened.
+		 */
+		Run(File runFile, int runNumber) throws IOException {
+			runReader = new RetailItemReader(new FileInputStream(runFile));
+			number = runNumber;
+		}
+
+		/**
+		 * Reads the next item of the run.
+		 *
+		 * @return true if there was another item, false at the end of the run.
+		 *
+		 * @throws IOException May throw IOException if the file cannot be read.
+		 */
+		boolean next() throws IOException {
+			if(!runReader.hasNextLine()) {
+				return false;
+			}
+
+			runReader.nextLine();
+
+			//the run is out of the queue while it reads, so its one item is used again
+			item.readData(runReader);
+
+			return true;
+		}
+
+		/**
+		 * Closes the run file.
+		 *
+		 * @throws IOException May throw IOException if the file cannot be closed.
+		 */
+		void close() throws IOException {
+			runReader.close();
+		}
+	}
+}
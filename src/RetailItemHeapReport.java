@@ -0,0 +1,115 @@
+/**
+ * This class measures how much heap a database file takes up once it is loaded.
+ * It loads the file twice: once into a RetailItemList, and once the way the list used to keep items,
+ * 		as an ArrayList of RetailItem objects with a HashMap from each case-folded description to its index.
+ * The heap in use is measured after garbage collection before and after each load.
+ *
+ * Usage: java RetailItemHeapReport [database file] [offheap]
+ * With "offheap" the list keeps its items in an OffHeapRetailItemStore, and only the heap part of it is measured.
+ */
+
+import java.io.*;
+import java.util.*;
+
+public class RetailItemHeapReport {
+
+	public static void main(String[] args) throws IOException {
+		//variables
+		File itemFile = new File(args.length > 0 ? args[0] : "RetailItemManager/RetailItemDatabase.txt");
+		long before;
+		long objectBytes;
+		long columnBytes;
+		ArrayList<RetailItem> objectList;
+		HashMap<String, Integer> objectIndex;
+		RetailItemList columnList;
+
+		//the old layout
+		before = usedHeap();
+		objectList = new ArrayList<RetailItem>();
+		objectIndex = new HashMap<String, Integer>();
+		loadObjects(itemFile, objectList, objectIndex);
+		objectBytes = usedHeap() - before;
+
+		System.out.println(objectList.size() + " items loaded from " + itemFile + ", " + objectIndex.size() + " different descriptions.");
+		System.out.printf("ArrayList of RetailItem objects and HashMap index: %,d bytes (%.1f bytes per item)\n",
+				objectBytes, (double) objectBytes / Math.max(1, objectList.size()));
+
+		objectList = null;
+		objectIndex = null;
+
+		//the new layout
+		before = usedHeap();
+		if(args.length > 1 && args[1].equals("offheap")) {
+			columnList = new RetailItemList(new OffHeapRetailItemStore());
+		}
+		else {
+			columnList = new RetailItemList();
+		}
+		
+		RetailItemManager.createArrayList(columnList, itemFile);
+		columnBytes = usedHeap() - before;
+
+		System.out.printf("RetailItemList with a %s: %,d bytes (%.1f bytes per item)\n",
+				columnList.getStore().getClass().getName(), columnBytes, (double) columnBytes / Math.max(1, columnList.size()));
+		System.out.printf("Bytes counted by the list itself, on and off the heap: %,d bytes\n", columnList.memoryUsed());
+		System.out.printf("Description filter findItem would use: %,d bytes\n", new RetailItemBloomFilter(columnList, null).memoryUsed());
+
+		if(columnBytes > 0) {
+			System.out.printf("The list uses %.1f times less heap.\n", (double) objectBytes / columnBytes);
+		}
+	}
+
+	/**
+	 * Loads a database file into RetailItem objects and a HashMap index, the way RetailItemList used to.
+	 *
+	 * @param itemFile File holding the database.
+	 * @param objectList ArrayList the items are added to.
+	 * @param objectIndex HashMap from each case-folded description to the index of its first item.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be read.
+	 */
+	private static void loadObjects(File itemFile, ArrayList<RetailItem> objectList, HashMap<String, Integer> objectIndex) throws IOException {
+		//variables
+		RetailItemReader fileReader = new RetailItemReader(new FileInputStream(itemFile));
+		RetailItem item;
+
+		try {
+			while(fileReader.hasNextLine()) {
+				fileReader.nextLine();
+				item = new RetailItem();
+
+				try {
+					item.readData(fileReader);
+					objectIndex.putIfAbsent(item.getDescriptionKey(), objectList.size());
+					objectList.add(item);
+				}
+				catch(IllegalArgumentException badData) {
+					//bad lines are left out the same as when the program loads the file
+				}
+			}
+		}
+		finally {
+			fileReader.close();
+		}
+	}
+
+	/**
+	 * Returns the heap in use after asking for garbage collection until it stops going down.
+	 *
+	 * @return a long representing the number of bytes in use.
+	 */
+	private static long usedHeap() {
+		//variables
+		Runtime runtime = Runtime.getRuntime();
+		long used = Long.MAX_VALUE;
+		long previous;
+
+		do {
+			previous = used;
+			System.gc();
+			used = runtime.totalMemory() - runtime.freeMemory();
+		} while(used < previous);
+
+		return used;
+	}
+}
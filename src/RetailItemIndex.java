@@ -0,0 +1,256 @@
+/**
+ * This class is the description index of a RetailItemList.
+ * It is a hash table of slot numbers kept in two int arrays, one for the slots and one for their hashes,
+ * 		so it does not need an object for each item the way a HashMap does.
+ * A slot goes in the table at the place its hash points to, or the next free place after it.
+ * Items with the same description are all kept, so the one earliest in the list can always be found.
+ */
+
+import java.util.Arrays;
+
+class RetailItemIndex {
+
+	/**
+	 * int EMPTY value of a place in the table with no slot in it.
+	 * int MIN_CAPACITY smallest number of places in the table.
+	 */
+	private static final int EMPTY = -1;
+	private static final int MIN_CAPACITY = 16;
+
+	/**
+	 * int[] slots slot stored at each place of the table, or EMPTY.
+	 * int[] hashes hash of the description of the slot stored at each place.
+	 * int count number of slots in the table.
+	 * int mask number of places minus one, used to turn a hash into a place.
+	 */
+	private int[] slots;
+	private int[] hashes;
+	private int count = 0;
+	private int mask;
+
+	/**
+	 * Creates an empty index.
+	 */
+	RetailItemIndex() {
+		allocate(MIN_CAPACITY);
+	}
+
+	/**
+	 * Returns the hash used for a description. Descriptions that are equal ignoring case have the same hash.
+	 *
+	 * @param description String representing a description.
+	 *
+	 * @return an integer representing the hash of the description.
+	 */
+	static int hash(String description) {
+		return hashOfKey(RetailItem.foldCase(description));
+	}
+
+	/**
+	 * Returns the hash used for a description that has already been case-folded by RetailItem.foldCase.
+	 *
+	 * @param descriptionKey String representing a case-folded description.
+	 *
+	 * @return an integer representing the hash of the description.
+	 */
+	static int hashOfKey(String descriptionKey) {
+		//variables
+		int hash = descriptionKey.hashCode() * 0x9E3779B9;
+
+		//mixes the high bits in, since only the low bits pick the place
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Makes sure a number of slots can be added without the table growing.
+	 *
+	 * @param minCapacity integer representing how many slots need to fit.
+	 */
+	void ensureCapacity(int minCapacity) {
+		if((long) minCapacity * 2 > slots.length) {
+			resize(minCapacity);
+		}
+	}
+
+	/**
+	 * Adds a slot to the table.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 * @param hash integer representing the hash of the item's description.
+	 */
+	void add(int slot, int hash) {
+		//variables
+		int place;
+
+		//the table is kept at most half full so searches stay short
+		if((count + 1) * 2L > slots.length) {
+			resize(count + 1);
+		}
+
+		place = hash & mask;
+
+		while(slots[place] != EMPTY) {
+			place = (place + 1) & mask;
+		}
+
+		slots[place] = slot;
+		hashes[place] = hash;
+		++count;
+	}
+
+	/**
+	 * Removes a slot from the table.
+	 * The slots after it that were moved along to get past it are moved back so searches still find them.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 * @param hash integer representing the hash of the item's description when it was added.
+	 */
+	void remove(int slot, int hash) {
+		//variables
+		int place = hash & mask;
+		int next;
+		int home;
+
+		while(slots[place] != slot) {
+			if(slots[place] == EMPTY) {
+				return;
+			}
+
+			place = (place + 1) & mask;
+		}
+
+		next = place;
+
+		while(true) {
+			next = (next + 1) & mask;
+
+			if(slots[next] == EMPTY) {
+				break;
+			}
+
+			home = hashes[next] & mask;
+
+			//a slot can move back into the gap if the gap is not before the place its hash points to
+			if(next > place ? (home <= place || home > next) : (home <= place && home > next)) {
+				slots[place] = slots[next];
+				hashes[place] = hashes[next];
+				place = next;
+			}
+		}
+
+		slots[place] = EMPTY;
+		--count;
+	}
+
+	/**
+	 * Finds the slot of the item earliest in a list whose description matches a description, ignoring case.
+	 *
+	 * @param description String representing the description to find.
+	 * @param hash integer representing the hash of the description.
+	 * @param itemList RetailItemList the slots belong to.
+	 *
+	 * @return an integer representing the slot found, or -1 if no item matches.
+	 */
+	int find(String description, int hash, RetailItemList itemList) {
+		//variables
+		int place = hash & mask;
+		int slotFound = -1;
+		int slot;
+
+		while(slots[place] != EMPTY) {
+			slot = slots[place];
+
+			if(hashes[place] == hash && itemList.descriptionMatches(slot, description, true)
+					&& (slotFound < 0 || itemList.positionOf(slot) < itemList.positionOf(slotFound))) {
+				slotFound = slot;
+			}
+
+			place = (place + 1) & mask;
+		}
+
+		return slotFound;
+	}
+
+	/**
+	 * Finds the slot of any item in a list whose description is exactly the same as a description, case included.
+	 *
+	 * @param description String representing the description to find.
+	 * @param hash integer representing the hash of the description.
+	 * @param itemList RetailItemList the slots belong to.
+	 *
+	 * @return an integer representing the slot found, or -1 if no item has the description.
+	 */
+	int findExact(String description, int hash, RetailItemList itemList) {
+		//variables
+		int place = hash & mask;
+
+		while(slots[place] != EMPTY) {
+			if(hashes[place] == hash && itemList.descriptionMatches(slots[place], description, false)) {
+				return slots[place];
+			}
+
+			place = (place + 1) & mask;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Removes every slot from the table.
+	 */
+	void clear() {
+		Arrays.fill(slots, EMPTY);
+		count = 0;
+	}
+
+	/**
+	 * Returns about how many bytes of memory the table is using.
+	 *
+	 * @return a long representing the number of bytes.
+	 */
+	long memoryUsed() {
+		return 16L * 2 + 8L * slots.length;
+	}
+
+	//helper methods
+	/**
+	 * Replaces the table with empty arrays of a number of places.
+	 *
+	 * @param capacity integer representing the number of places, a power of two.
+	 */
+	private void allocate(int capacity) {
+		slots = new int[capacity];
+		hashes = new int[capacity];
+		mask = capacity - 1;
+		Arrays.fill(slots, EMPTY);
+	}
+
+	/**
+	 * Moves every slot into a table big enough to hold a number of slots while staying half empty.
+	 *
+	 * @param minCapacity integer representing how many slots need to fit.
+	 */
+	private void resize(int minCapacity) {
+		//variables
+		int[] oldSlots = slots;
+		int[] oldHashes = hashes;
+		int capacity = MIN_CAPACITY;
+
+		while(capacity < minCapacity * 2L) {
+			capacity *= 2;
+		}
+
+		if(capacity <= oldSlots.length) {
+			return;
+		}
+
+		allocate(capacity);
+		count = 0;
+
+		for(int i = 0; i < oldSlots.length; ++i) {
+			if(oldSlots[i] != EMPTY) {
+				add(oldSlots[i], oldHashes[i]);
+			}
+		}
+	}
+}
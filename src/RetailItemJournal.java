@@ -0,0 +1,447 @@
+/**
+ * This class keeps a journal of every change made to the items in a RetailItemList.
+ * Each change is added to the end of the journal file as soon as it happens,
+ * 		so saving costs as much as the change instead of as much as the whole list.
+ * When the program starts, the journal is replayed on top of the database file it was written for.
+ * A checkpoint writes the current items to the database file and empties the journal.
+ *
+ * Create, delete, and rename records do not give the same result when they are replayed on a database that already has them,
+ * 		so the journal must never be replayed over a database written after it. A checkpoint makes sure of this by writing
+ * 		the new database to a ".ready" file first, emptying the journal, and only then putting the ready file in place
+ * 		of the database file. If the program stops partway, finishCheckpoint finds the ready file when the program starts,
+ * 		empties the journal, and finishes the checkpoint, so the journal is only replayed while the old database is still there.
+ *
+ * The methods are synchronized so records from several threads, such as those of a ConcurrentInventory, are not mixed together.
+ *
+ * Each record is one byte telling what kind of change it is, followed by the description of the item
+ * 		and the values of the change. Unit and price records hold the value the item ended up with instead of the difference.
+ */
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+public class RetailItemJournal implements RetailItemListener, Closeable {
+
+	/**
+	 * byte CREATE record for a new item: description, units on hand, price in cents.
+	 * byte DELETE record for a deleted item: description.
+	 * byte UNITS_ADDED record for units added to an item: description, units added, new units on hand.
+	 * byte UNITS_REMOVED record for units removed from an item: description, units removed, new units on hand.
+	 * byte PRICE_CHANGED record for a new price: description, new price in cents.
+	 * byte DESCRIPTION_CHANGED record for a new description: old description, new description.
+	 */
+	public static final byte CREATE = 1;
+	public static final byte DELETE = 2;
+	public static final byte UNITS_ADDED = 3;
+	public static final byte UNITS_REMOVED = 4;
+	public static final byte PRICE_CHANGED = 5;
+	public static final byte DESCRIPTION_CHANGED = 6;
+
+	/**
+	 * File databaseFile database file the journal is written for.
+	 * File journalFile file the journal is written to.
+	 * DataOutputStream output stream that adds records to the end of journalFile.
+	 */
+	private File databaseFile;
+	private File journalFile;
+	private DataOutputStream output;
+
+	/**
+	 * Opens the journal of a database file so new records are added to its end.
+	 * The journal file is created if it does not exist.
+	 *
+	 * @param itemFile File holding the database the journal is written for.
+	 *
+	 * @throws IOException May throw IOException if the journal file cannot be opened.
+	 */
+	public RetailItemJournal(File itemFile) throws IOException {
+		databaseFile = itemFile;
+		journalFile = journalFileFor(itemFile);
+		output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, true)));
+	}
+
+	/**
+	 * Returns the journal file that goes with a database file.
+	 *
+	 * @param itemFile File holding the database the journal is written for.
+	 *
+	 * @return a File with the same name as itemFile followed by ".journal".
+	 */
+	public static File journalFileFor(File itemFile) {
+		return new File(itemFile.getPath() + ".journal");
+	}
+
+	//listener methods
+	@Override
+	public synchronized void itemAdded(RetailItem item) {
+		try {
+			output.writeByte(CREATE);
+			writeString(item.getDescription());
+			output.writeInt(item.getUnitsOnHand());
+			output.writeLong(item.getPriceCents());
+			endRecord();
+		}
+		catch(IOException fileError) {
+			throw new UncheckedIOException(fileError);
+		}
+	}
+
+	@Override
+	public synchronized void itemRemoved(RetailItem item) {
+		try {
+			output.writeByte(DELETE);
+			writeString(item.getDescription());
+			endRecord();
+		}
+		catch(IOException fileError) {
+			throw new UncheckedIOException(fileError);
+		}
+	}
+
+	@Override
+	public synchronized void descriptionChanged(RetailItem item, String oldDescription) {
+		try {
+			output.writeByte(DESCRIPTION_CHANGED);
+			writeString(oldDescription);
+			writeString(item.getDescription());
+			endRecord();
+		}
+		catch(IOException fileError) {
+			throw new UncheckedIOException(fileError);
+		}
+	}
+
+	@Override
+	public synchronized void unitsChanged(RetailItem item, int oldUnitsOnHand) {
+		//variables
+		int difference = item.getUnitsOnHand() - oldUnitsOnHand;
+
+		try {
+			if(difference >= 0) {
+				output.writeByte(UNITS_ADDED);
+			}
+			else {
+				output.writeByte(UNITS_REMOVED);
+			}
+
+			writeString(item.getDescription());
+			output.writeInt(Math.abs(difference));
+			output.writeInt(item.getUnitsOnHand());
+			endRecord();
+		}
+		catch(IOException fileError) {
+			throw new UncheckedIOException(fileError);
+		}
+	}
+
+	@Override
+	public synchronized void priceChanged(RetailItem item, long oldPriceCents) {
+		try {
+			output.writeByte(PRICE_CHANGED);
+			writeString(item.getDescription());
+			output.writeLong(item.getPriceCents());
+			endRecord();
+		}
+		catch(IOException fileError) {
+			throw new UncheckedIOException(fileError);
+		}
+	}
+
+	//journal methods
+	/**
+	 * Writes the current items to the database file and empties the journal.
+	 * The items are written to a temporary file, which is renamed to the ready file once it is complete.
+	 * The journal is emptied before the ready file replaces the database file, so the journal is never left
+	 * 		next to a database that already has its changes. A checkpoint that fails before the ready file is made
+	 * 		leaves the old database and the whole journal in place.
+	 *
+	 * @param itemList RetailItemList holding the current items.
+	 *
+	 * @throws IOException May throw IOException if either file cannot be written.
+	 */
+	public synchronized void checkpoint(RetailItemList itemList) throws IOException {
+		//variables
+		File temporaryFile = new File(databaseFile.getPath() + ".tmp");
+		File readyFile = readyFileFor(databaseFile);
+
+		output.flush();
+
+		RetailItemManager.saveItems(itemList, temporaryFile.getPath());
+
+		//from here on the new database is complete, and finishCheckpoint puts it in place if the program stops
+		replaceFile(temporaryFile, readyFile);
+
+		//starts an empty journal
+		output.close();
+		output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, false)));
+
+		//replaces the database file with the new one
+		replaceFile(readyFile, databaseFile);
+	}
+
+	/**
+	 * Finishes a checkpoint that was stopped after the new database was written, before the program loads the database file.
+	 * The journal is emptied, since the ready file already has every change in it, and the ready file replaces the database file.
+	 * Nothing is done if there is no ready file.
+	 *
+	 * @param itemFile File holding the database the journal is written for.
+	 *
+	 * @return true if a checkpoint was finished.
+	 *
+	 * @throws IOException May throw IOException if the journal cannot be emptied or the database file cannot be replaced.
+	 */
+	public static boolean finishCheckpoint(File itemFile) throws IOException {
+		//variables
+		File readyFile = readyFileFor(itemFile);
+		File file = journalFileFor(itemFile);
+
+		if(!readyFile.exists()) {
+			return false;
+		}
+
+		//empties the journal first, the same order checkpoint uses
+		if(file.exists()) {
+			new FileOutputStream(file, false).close();
+		}
+
+		replaceFile(readyFile, itemFile);
+
+		return true;
+	}
+
+	/**
+	 * Writes any buffered records and closes the journal file.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be written.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		output.close();
+	}
+
+	/**
+	 * Replays every record in the journal of a database file on the items in itemList.
+	 * Nothing is done if there is no journal file.
+	 * A record cut off at the end of the file, such as one being written when the program stopped, is ignored and removed.
+	 *
+	 * @param itemList RetailItemList holding the items loaded from the database file.
+	 * @param itemFile File holding the database the journal was written for.
+	 *
+	 * @return an integer representing how many records were replayed.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be read or has an unknown record in it.
+	 */
+	public static int replay(RetailItemList itemList, File itemFile) throws IOException {
+		//variables
+		File file = journalFileFor(itemFile);
+		int replayed = 0;
+		long goodLength = 0;
+		CountingInputStream counter;
+		DataInputStream input;
+		RandomAccessFile truncator;
+
+		if(!file.exists()) {
+			return 0;
+		}
+
+		counter = new CountingInputStream(new BufferedInputStream(new FileInputStream(file)));
+		input = new DataInputStream(counter);
+
+		try {
+			while(true) {
+				try {
+					replayRecord(itemList, input);
+				}
+				catch(EOFException endOfJournal) {
+					break;
+				}
+
+				++replayed;
+				goodLength = counter.count;
+			}
+		}
+		finally {
+			input.close();
+		}
+
+		//removes a record that was only partly written
+		if(goodLength < file.length()) {
+			truncator = new RandomAccessFile(file, "rw");
+			truncator.setLength(goodLength);
+			truncator.close();
+		}
+
+		return replayed;
+	}
+
+	//helper methods
+	/**
+	 * Returns the file a checkpoint writes the new database to before it replaces the database file.
+	 *
+	 * @param itemFile File holding the database.
+	 *
+	 * @return a File with the same name as itemFile followed by ".ready".
+	 */
+	private static File readyFileFor(File itemFile) {
+		return new File(itemFile.getPath() + ".ready");
+	}
+
+	/**
+	 * Renames a file, replacing the file that has the new name.
+	 *
+	 * @param from File to rename.
+	 * @param to File holding the new name.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be renamed.
+	 */
+	private static void replaceFile(File from, File to) throws IOException {
+		//some systems will not rename over a file that exists, so it is deleted first
+		if(!from.renameTo(to) && !(to.delete() && from.renameTo(to))) {
+			throw new IOException("Could not replace " + to + ".");
+		}
+	}
+
+	/**
+	 * Reads one record and applies it to the items in itemList.
+	 * Records for items that cannot be found are skipped.
+	 *
+	 * @param itemList RetailItemList holding the items.
+	 * @param input DataInputStream of the journal file.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be read or the record is unknown.
+	 */
+	private static void replayRecord(RetailItemList itemList, DataInputStream input) throws IOException {
+		//variables
+		byte recordType = input.readByte();
+		String description = readString(input);
+		String newDescription;
+		int unitsOnHand;
+		long priceCents;
+		int indexFound;
+
+		if(recordType == CREATE) {
+			unitsOnHand = input.readInt();
+			priceCents = input.readLong();
+
+			if(itemList.indexOfDescription(description) < 0) {
+				itemList.add(RetailItem.fromCents(description, unitsOnHand, priceCents));
+			}
+		}
+		else if(recordType == DELETE) {
+			indexFound = itemList.indexOfDescription(description);
+
+			if(indexFound >= 0) {
+				itemList.remove(indexFound);
+			}
+		}
+		else if(recordType == UNITS_ADDED || recordType == UNITS_REMOVED) {
+			//the units added or removed are only kept for people reading the journal
+			input.readInt();
+			unitsOnHand = input.readInt();
+			indexFound = itemList.indexOfDescription(description);
+
+			if(indexFound >= 0) {
+				itemList.get(indexFound).setUnitsOnHand(unitsOnHand);
+			}
+		}
+		else if(recordType == PRICE_CHANGED) {
+			priceCents = input.readLong();
+			indexFound = itemList.indexOfDescription(description);
+
+			if(indexFound >= 0) {
+				itemList.get(indexFound).setPriceCents(priceCents);
+			}
+		}
+		else if(recordType == DESCRIPTION_CHANGED) {
+			newDescription = readString(input);
+			indexFound = itemList.indexOfDescription(description);
+
+			if(indexFound >= 0) {
+				itemList.get(indexFound).setDescription(newDescription);
+			}
+		}
+		else {
+			throw new IOException("The journal has an unknown record type " + recordType + ".");
+		}
+	}
+
+	/**
+	 * Writes a String as its length in bytes followed by its UTF-8 bytes.
+	 *
+	 * @param text String to write.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be written.
+	 */
+	private void writeString(String text) throws IOException {
+		byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
+
+		output.writeInt(textBytes.length);
+		output.write(textBytes);
+	}
+
+	/**
+	 * Reads a String written by writeString.
+	 *
+	 * @param input DataInputStream of the journal file.
+	 *
+	 * @return the String that was read.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be read.
+	 */
+	private static String readString(DataInputStream input) throws IOException {
+		//variables
+		int length = input.readInt();
+		byte[] textBytes;
+
+		if(length < 0) {
+			throw new IOException("The journal is damaged.");
+		}
+
+		textBytes = new byte[length];
+		input.readFully(textBytes);
+
+		return new String(textBytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Sends a finished record to the file so it is kept even if the program stops.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be written.
+	 */
+	private void endRecord() throws IOException {
+		output.flush();
+	}
+
+	/**
+	 * Counts how many bytes have been read from a stream.
+	 */
+	private static class CountingInputStream extends FilterInputStream {
+		long count = 0;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int nextByte = super.read();
+
+			if(nextByte >= 0) {
+				++count;
+			}
+
+			return nextByte;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) throws IOException {
+			int bytesRead = super.read(bytes, offset, length);
+
+			if(bytesRead > 0) {
+				count += bytesRead;
+			}
+
+			return bytesRead;
+		}
+	}
+}
@@ -0,0 +1,437 @@
+/**
+ * This class opens a text database file without reading every item into a RetailItemList first.
+ * The file is memory-mapped, and an index of where each item's line starts is kept in a file beside it,
+ * 		so opening the file again only has to map the index instead of reading every line.
+ * An item is read from the file and added to the list the first time it is looked up with materialize.
+ * From then on the list holds it, and changes, renames, and deletes are made to the list the same as always.
+ *
+ * The index file holds a header, then one long for each item sorted by value: the RetailItemIndex hash of the description
+ * 		in the high 32 bits and where its line starts in the low 32 bits, so the lines of a description are found with a binary search.
+ * The header holds the size and last modified time of the database file, and the index is built again if either has changed.
+ * Lines with bad data are reported while the index is built and left out of it.
+ *
+ * save writes every line of the file in order, using the list's copy of each item that was read,
+ * 		leaving out items that were deleted and adding new items at the end, so the file is the same as a full load and save would write.
+ *
+ * The file has to be under 2GB so it can be mapped at once. The list does not hold every item, so anything that goes through
+ * 		the whole list, such as browsing, searching, and reports, only sees the items read so far.
+ * The class is only meant to be used from one thread.
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+public class RetailItemLazyDatabase implements RetailItemListener {
+
+	/**
+	 * int MAGIC first four bytes of an index file, "RIDX".
+	 * int VERSION version of the index file layout.
+	 * int HEADER_BYTES bytes in the header of an index file.
+	 */
+	private static final int MAGIC = 0x52494458;
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 32;
+
+	/**
+	 * File databaseFile the database file.
+	 * MappedByteBuffer database bytes of the database file.
+	 * LongBuffer keys sorted hash and line start of every item in the file.
+	 * boolean indexBuilt true if the index was built when the file was opened, false if it was read from the index file.
+	 * RetailItemList itemList list items are read into.
+	 * HashSet readLines line starts of every item read into the list, including ones deleted since.
+	 * HashMap slotOfLine slot in the list of each item read, by its line start. A deleted item keeps its entry until its slot is used again.
+	 * HashMap lineOfSlot line start of the item read into each slot in slotOfLine, so the entry can be found when the slot is used again.
+	 */
+	private File databaseFile;
+	private MappedByteBuffer database;
+	private LongBuffer keys;
+	private boolean indexBuilt = false;
+	private RetailItemList itemList;
+	private HashSet<Integer> readLines = new HashSet<Integer>();
+	private HashMap<Integer, Integer> slotOfLine = new HashMap<Integer, Integer>();
+	private HashMap<Integer, Integer> lineOfSlot = new HashMap<Integer, Integer>();
+
+	/**
+	 * Opens a database file, reading its index file or building it if it is missing or out of date.
+	 *
+	 * @param itemFile File of the database.
+	 * @param items RetailItemList to read items into. It should be empty.
+	 *
+	 * @return a RetailItemLazyDatabase for the file.
+	 *
+	 * @throws IOException if the file cannot be mapped or read, or is 2GB or larger.
+	 */
+	public static RetailItemLazyDatabase open(File itemFile, RetailItemList items) throws IOException {
+		//variables
+		RetailItemLazyDatabase lazyDatabase = new RetailItemLazyDatabase();
+
+		lazyDatabase.databaseFile = itemFile;
+		lazyDatabase.itemList = items;
+
+		try(FileChannel channel = FileChannel.open(itemFile.toPath(), StandardOpenOption.READ)) {
+			if(channel.size() >= Integer.MAX_VALUE) {
+				throw new IOException(itemFile + " is too large to open without loading it.");
+			}
+
+			//the mapping stays valid after the channel is closed
+			lazyDatabase.database = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		lazyDatabase.keys = readIndex(itemFile);
+
+		if(lazyDatabase.keys == null) {
+			lazyDatabase.buildIndex();
+		}
+
+		items.addListener(lazyDatabase);
+
+		return lazyDatabase;
+	}
+
+	/**
+	 * Returns the index file kept beside a database file.
+	 *
+	 * @param itemFile File of the database.
+	 *
+	 * @return a File for the index.
+	 */
+	public static File indexFileOf(File itemFile) {
+		return new File(itemFile.getPath() + ".index");
+	}
+
+	/**
+	 * Returns the number of items in the file with good data.
+	 *
+	 * @return an integer representing the number of items.
+	 */
+	public int itemCount() {
+		return keys.limit();
+	}
+
+	/**
+	 * Returns the RetailItemIndex hash of the description of one item in the file.
+	 * The items are in the order of their hashes, not the order of the file.
+	 *
+	 * @param place integer representing the place of the item, from 0 to itemCount() - 1.
+	 *
+	 * @return an integer representing the hash.
+	 */
+	int descriptionHashAt(int place) {
+		return (int) (keys.get(place) >>> 32);
+	}
+
+	/**
+	 * Returns true if the index was built when the file was opened, and false if it was read from the index file.
+	 *
+	 * @return true if the index was built.
+	 */
+	public boolean indexWasBuilt() {
+		return indexBuilt;
+	}
+
+	/**
+	 * Reads the first item in the file whose description matches a description, ignoring case, and adds it to the end of the list.
+	 * Items already read are skipped, since the list has them or they were deleted.
+	 *
+	 * @param description String representing the description to find.
+	 *
+	 * @return an integer representing the index of the item in the list, or -1 if no item in the file that has not been read matches.
+	 */
+	public int materialize(String description) {
+		//variables
+		int hash = RetailItemIndex.hash(description);
+		int place = firstKeyAtLeast((long) hash << 32);
+		int lineStart;
+		int slot;
+		RetailItem item = new RetailItem();
+
+		while(place < keys.limit() && (int) (keys.get(place) >>> 32) == hash) {
+			lineStart = (int) keys.get(place);
+
+			if(!readLines.contains(lineStart)) {
+				readItem(lineStart, item);
+
+				if(item.getDescription().equalsIgnoreCase(description)) {
+					readLines.add(lineStart);
+					itemList.add(item);
+					slot = ((RetailItemView) itemList.get(itemList.size() - 1)).getSlot();
+					slotOfLine.put(lineStart, slot);
+					lineOfSlot.put(slot, lineStart);
+
+					return itemList.size() - 1;
+				}
+			}
+
+			++place;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Writes every item to a file: the lines of the database file in order, using the list's copy of each item that was read
+	 * 		and leaving out the ones that were deleted, then the items that were not read from the file.
+	 *
+	 * @param fileName String representing the name of the file to write.
+	 *
+	 * @throws IOException if the file cannot be written.
+	 */
+	public void save(String fileName) throws IOException {
+		//variables
+		RetailItemReader fileReader = new RetailItemReader(database, 0, database.limit());
+		RetailItemWriter itemWriter = new RetailItemWriter(fileName);
+		RetailItem item = new RetailItem();
+		HashSet<Integer> slotsFromFile = new HashSet<Integer>(slotOfLine.values());
+		Integer slot;
+
+		try {
+			while(fileReader.hasNextLine()) {
+				fileReader.nextLine();
+
+				if(readLines.contains(fileReader.currentLineStart())) {
+					//the list has the item as it is now, unless it was deleted
+					slot = slotOfLine.get(fileReader.currentLineStart());
+
+					if(slot != null && itemList.holdsItem(slot)) {
+						itemList.get(itemList.positionOf(slot)).writeData(itemWriter);
+					}
+				}
+				else {
+					try {
+						//read and written again so the line comes out the same as a full load and save would write it
+						item.readData(fileReader);
+						item.writeData(itemWriter);
+					}
+					catch(IllegalArgumentException badData) {
+						//lines with bad data were reported when the index was built and are left out, the same as a full load
+					}
+				}
+			}
+
+			//items created since the file was opened
+			for(int i = 0; i < itemList.size(); ++i) {
+				if(!slotsFromFile.contains(((RetailItemView) itemList.get(i)).getSlot())) {
+					itemList.get(i).writeData(itemWriter);
+				}
+			}
+		}
+		finally {
+			itemWriter.close();
+		}
+	}
+
+	//listener methods
+	@Override
+	public void itemAdded(RetailItem item) {
+		//variables
+		Integer lineStart = lineOfSlot.remove(((RetailItemView) item).getSlot());
+
+		//a slot is only used again after its item was deleted, so the line it was read from stays deleted
+		//the copy passed to itemRemoved does not say which slot it was in, so deletes are only seen here
+		if(lineStart != null) {
+			slotOfLine.remove(lineStart);
+		}
+	}
+
+	//helper methods
+	/**
+	 * Reads the keys from the index file of a database file, if it is there and was made from the file as it is now.
+	 *
+	 * @param itemFile File of the database.
+	 *
+	 * @return a LongBuffer of the keys, or null if the index file is missing, out of date, or damaged.
+	 */
+	private static LongBuffer readIndex(File itemFile) {
+		//variables
+		File indexFile = indexFileOf(itemFile);
+		MappedByteBuffer index;
+		int keyCount;
+
+		if(!indexFile.exists()) {
+			return null;
+		}
+
+		try(FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+			if(channel.size() < HEADER_BYTES) {
+				return null;
+			}
+
+			index = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			if(index.getInt(0) != MAGIC || index.getInt(4) != VERSION
+					|| index.getLong(8) != itemFile.length() || index.getLong(16) != itemFile.lastModified()) {
+				return null;
+			}
+
+			keyCount = index.getInt(24);
+
+			if(keyCount < 0 || channel.size() != HEADER_BYTES + 8L * keyCount) {
+				return null;
+			}
+
+			return index.position(HEADER_BYTES).slice().asLongBuffer();
+		}
+		catch(IOException indexError) {
+			//an index that cannot be read is built again
+			return null;
+		}
+	}
+
+	/**
+	 * Reads every line of the database file and builds the keys, then writes them to the index file.
+	 * If the index file cannot be written the keys are only kept in memory.
+	 */
+	private void buildIndex() {
+		//variables
+		RetailItemReader fileReader = new RetailItemReader(database, 0, database.limit());
+		RetailItem item = new RetailItem();
+		long[] newKeys = new long[1024];
+		int keyCount = 0;
+
+		try {
+			while(fileReader.hasNextLine()) {
+				fileReader.nextLine();
+
+				try {
+					item.readData(fileReader);
+
+					if(keyCount == newKeys.length) {
+						newKeys = Arrays.copyOf(newKeys, newKeys.length * 2);
+					}
+
+					//the item already case-folded its description, so the hash is made from that
+					newKeys[keyCount++] = ((long) RetailItemIndex.hashOfKey(item.getDescriptionKey()) << 32) | fileReader.currentLineStart();
+				}
+				catch(IllegalArgumentException badData) {
+					//error message specified in RetailItem.java
+					System.out.println(badData);
+
+					//message informing user record was not added to list
+					System.out.println("Deleted record input.\n");
+				}
+			}
+		}
+		catch(IOException readError) {
+			//a region of a buffer is already in memory, so it is never read from a stream
+			throw new UncheckedIOException(readError);
+		}
+
+		//sorted by hash, then by line start, since a line start is never more than 31 bits
+		Arrays.parallelSort(newKeys, 0, keyCount);
+
+		keys = LongBuffer.wrap(newKeys, 0, keyCount).slice();
+		indexBuilt = true;
+
+		try {
+			writeIndex(newKeys, keyCount);
+		}
+		catch(IOException indexError) {
+			//the index is only needed to open the file faster next time
+			System.out.println("The index " + indexFileOf(databaseFile) + " could not be saved, so it will be built again next time.");
+		}
+	}
+
+	/**
+	 * Writes the keys to the index file, writing a temporary file first and moving it into place.
+	 *
+	 * @param sortedKeys long array holding the sorted keys.
+	 * @param keyCount integer representing the number of keys.
+	 *
+	 * @throws IOException if the index file cannot be written.
+	 */
+	private void writeIndex(long[] sortedKeys, int keyCount) throws IOException {
+		//variables
+		File indexFile = indexFileOf(databaseFile);
+		File temporaryFile = new File(indexFile.getPath() + ".tmp");
+		ByteBuffer block = ByteBuffer.allocate(64 * 1024);
+
+		try(FileChannel channel = FileChannel.open(temporaryFile.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			block.putInt(MAGIC).putInt(VERSION).putLong(databaseFile.length()).putLong(databaseFile.lastModified()).putInt(keyCount).putInt(0);
+
+			for(int i = 0; i < keyCount; ++i) {
+				if(block.remaining() < 8) {
+					writeBlock(channel, block);
+				}
+
+				block.putLong(sortedKeys[i]);
+			}
+
+			writeBlock(channel, block);
+		}
+
+		Files.move(temporaryFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Writes the bytes in a block to a channel and empties the block.
+	 *
+	 * @param channel FileChannel to write to.
+	 * @param block ByteBuffer holding the bytes.
+	 *
+	 * @throws IOException if the bytes cannot be written.
+	 */
+	private static void writeBlock(FileChannel channel, ByteBuffer block) throws IOException {
+		block.flip();
+
+		while(block.hasRemaining()) {
+			channel.write(block);
+		}
+
+		block.clear();
+	}
+
+	/**
+	 * Finds the first key that is not less than a value.
+	 *
+	 * @param value long representing the value.
+	 *
+	 * @return an integer representing the place of the key, or the number of keys if every key is less.
+	 */
+	private int firstKeyAtLeast(long value) {
+		//variables
+		int low = 0;
+		int high = keys.limit();
+		int middle;
+
+		while(low < high) {
+			middle = (low + high) >>> 1;
+
+			if(keys.get(middle) < value) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * Reads the item on the line starting at a place in the database file.
+	 *
+	 * @param lineStart integer representing where the line starts.
+	 * @param item RetailItem to read the data into.
+	 */
+	private void readItem(int lineStart, RetailItem item) {
+		//variables
+		RetailItemReader lineReader = new RetailItemReader(database, lineStart, database.limit());
+
+		try {
+			lineReader.nextLine();
+		}
+		catch(IOException readError) {
+			//a region of a buffer is already in memory, so it is never read from a stream
+			throw new UncheckedIOException(readError);
+		}
+
+		//the line was read without an error when the index was built
+		item.readData(lineReader);
+	}
+}
@@ -0,0 +1,818 @@
+/**
+ * This class is a list of retail items whose data is kept in a RetailItemStore instead of in RetailItem objects.
+ * By default the store is a ColumnarRetailItemStore, which keeps every item's data in a few large arrays.
+ * get returns a RetailItemView of the item, so the items can be used like any other RetailItem,
+ * 		and add copies the data of the item it is given into the store.
+ *
+ * The list also keeps an index of every item's description, so an item can be found by its description
+ * 		without going through the whole list, and tells any RetailItemListener objects added to it about every change to the items.
+ * An item added with exactly the same description as an item already in the list shares that item's copy of it in the store,
+ * 		and the index compares descriptions where the store keeps them instead of making Strings.
+ *
+ * Removing an item leaves a tombstone at its place in order instead of moving every later item back one place,
+ * 		so removing items one at a time from a large list is not quadratic.
+ * While there are tombstones, a Fenwick tree counting the items at each place in order turns an index of the list into its place,
+ * 		and a place back into an index, in logarithmic time. With no tombstones, the index and the place are the same.
+ * Once more than MAX_TOMBSTONE_RATIO of the places are tombstones the list is compacted, moving the items back together.
+ * A ConcurrentInventory compacts the list in the background instead, with prepareCompaction and installCompaction.
+ */
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.*;
+
+public class RetailItemList extends AbstractList<RetailItem> implements RandomAccess {
+
+	/**
+	 * int TOMBSTONE value of a place in order whose item was removed.
+	 * double MAX_TOMBSTONE_RATIO largest part of the places in use that can be tombstones before the list is compacted.
+	 */
+	private static final int TOMBSTONE = -1;
+	private static final double MAX_TOMBSTONE_RATIO = 0.25;
+
+	/**
+	 * RetailItemStore store holds the data of every item.
+	 * int[] order slot of the item at each place, in the order of the list, or TOMBSTONE.
+	 * int[] positions place in order of the item in each slot.
+	 * int size number of items in the list.
+	 * int used number of places of order in use, tombstones included.
+	 * int tombstones number of places of order that are tombstones.
+	 * int[] itemCounts Fenwick tree counting the items that are not tombstones in order, or null while there are no tombstones.
+	 * Lookup lastLookup index and place found by the last call to placeOf, or null after items are added or removed.
+	 * RetailItemIndex descriptionIndex finds the slots of items by their description.
+	 * CopyOnWriteArrayList listeners objects told about every change to the items, safe to go through while another thread adds one.
+	 */
+	private RetailItemStore store;
+	private int[] order = new int[16];
+	private int[] positions = new int[16];
+	private int size = 0;
+	private int used = 0;
+	private int tombstones = 0;
+	private int[] itemCounts = null;
+	private Lookup lastLookup = null;
+	private RetailItemIndex descriptionIndex = new RetailItemIndex();
+	private CopyOnWriteArrayList<RetailItemListener> listeners = new CopyOnWriteArrayList<RetailItemListener>();
+
+	/**
+	 * default constructor creating an empty list that keeps its items in a ColumnarRetailItemStore.
+	 */
+	public RetailItemList() {
+		this(new ColumnarRetailItemStore());
+	}
+
+	/**
+	 * Creates an empty list with room for a specific number of items.
+	 *
+	 * @param initialCapacity integer representing how many items the list can hold before it has to grow.
+	 */
+	public RetailItemList(int initialCapacity) {
+		this();
+		ensureCapacity(initialCapacity);
+	}
+
+	/**
+	 * Creates an empty list that keeps its items in a specific store.
+	 *
+	 * @param itemStore RetailItemStore to keep the items in. It should be empty.
+	 */
+	public RetailItemList(RetailItemStore itemStore) {
+		store = itemStore;
+	}
+
+	/**
+	 * Makes sure the list, its store, and its index can hold a number of items without growing.
+	 *
+	 * @param minCapacity integer representing how many items the list needs to hold.
+	 */
+	public void ensureCapacity(int minCapacity) {
+		if(minCapacity > order.length) {
+			growOrder(minCapacity);
+		}
+
+		if(minCapacity > positions.length) {
+			positions = Arrays.copyOf(positions, minCapacity);
+		}
+
+		store.ensureCapacity(minCapacity);
+		descriptionIndex.ensureCapacity(minCapacity);
+	}
+
+	/**
+	 * Returns the store holding the data of the items.
+	 *
+	 * @return the RetailItemStore of this list.
+	 */
+	public RetailItemStore getStore() {
+		return store;
+	}
+
+	/**
+	 * Returns about how many bytes of memory the list is using for its items, its store, and its index.
+	 *
+	 * @return a long representing the number of bytes.
+	 */
+	public long memoryUsed() {
+		return store.memoryUsed() + descriptionIndex.memoryUsed() + 16L * 2 + 4L * order.length + 4L * positions.length
+				+ (itemCounts == null ? 0 : 16L + 4L * itemCounts.length);
+	}
+
+	/**
+	 * Returns the index of the first item whose description matches userInput, ignoring case.
+	 *
+	 * @param userInput String representing the description of the item to find.
+	 *
+	 * @return an integer representing the index the item was found at.
+	 * 			Returns -1 if the item was not found.
+	 */
+	public int indexOfDescription(String userInput) {
+		return indexOfDescription(userInput, RetailItemIndex.hash(userInput));
+	}
+
+	/**
+	 * Returns the index of the first item whose description matches userInput, ignoring case,
+	 * 		when the RetailItemIndex hash of userInput has already been worked out.
+	 *
+	 * @param userInput String representing the description of the item to find.
+	 * @param hash integer representing RetailItemIndex.hash of userInput.
+	 *
+	 * @return an integer representing the index the item was found at.
+	 * 			Returns -1 if the item was not found.
+	 */
+	int indexOfDescription(String userInput, int hash) {
+		int slotFound = descriptionIndex.find(userInput, hash, this);
+
+		if(slotFound < 0) {
+			return -1;
+		}
+
+		return positionOf(slotFound);
+	}
+
+	//compaction methods
+	/**
+	 * Returns the number of places left by removed items that have not been compacted yet.
+	 *
+	 * @return an integer representing the number of tombstones.
+	 */
+	public int tombstoneCount() {
+		return tombstones;
+	}
+
+	/**
+	 * Returns true if more than MAX_TOMBSTONE_RATIO of the places in use are tombstones.
+	 *
+	 * @return true if the list should be compacted.
+	 */
+	public boolean needsCompaction() {
+		return tombstones > 0 && tombstones > used * MAX_TOMBSTONE_RATIO;
+	}
+
+	/**
+	 * Moves the items back together, dropping every tombstone.
+	 */
+	public void compact() {
+		if(tombstones > 0) {
+			installCompaction(prepareCompaction());
+		}
+	}
+
+	/**
+	 * Works out where every item goes once the tombstones are dropped, without changing the list.
+	 * It only reads the list, so it can run while other threads read it, as long as no thread adds or removes items.
+	 *
+	 * @return a Compaction to pass to installCompaction.
+	 */
+	Compaction prepareCompaction() {
+		//variables
+		Compaction compaction = new Compaction();
+		int kept = 0;
+		int slot;
+
+		compaction.order = new int[order.length];
+		compaction.positions = positions.clone();
+		compaction.modCount = modCount;
+
+		for(int i = 0; i < used; ++i) {
+			slot = order[i];
+
+			if(slot != TOMBSTONE) {
+				compaction.order[kept] = slot;
+				compaction.positions[slot] = kept;
+				++kept;
+			}
+		}
+
+		return compaction;
+	}
+
+	/**
+	 * Puts the arrays worked out by prepareCompaction in place, if no item was added or removed since.
+	 * No other thread can be using the list while this runs.
+	 *
+	 * @param compaction Compaction returned by prepareCompaction.
+	 *
+	 * @return true if the list was compacted, false if it changed since the Compaction was prepared.
+	 */
+	boolean installCompaction(Compaction compaction) {
+		if(compaction.modCount != modCount) {
+			return false;
+		}
+
+		//the items keep their indexes, so modCount is not changed
+		order = compaction.order;
+		positions = compaction.positions;
+		used = size;
+		tombstones = 0;
+		itemCounts = null;
+		lastLookup = null;
+
+		return true;
+	}
+
+	/**
+	 * The arrays of a list with its tombstones dropped, made by prepareCompaction.
+	 */
+	static class Compaction {
+		private int[] order;
+		private int[] positions;
+		private int modCount;
+	}
+
+	/**
+	 * An index of the list and the place in order of its item.
+	 * A new Lookup is made each time, so threads reading the list at once never see half of one.
+	 */
+	private static class Lookup {
+		private final int index;
+		private final int place;
+
+		Lookup(int lookupIndex, int lookupPlace) {
+			index = lookupIndex;
+			place = lookupPlace;
+		}
+	}
+
+	//listener methods
+	/**
+	 * Adds a listener that will be told about every change to the items from now on.
+	 *
+	 * @param listener RetailItemListener to add.
+	 */
+	public void addListener(RetailItemListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Removes a listener so it is no longer told about changes.
+	 *
+	 * @param listener RetailItemListener to remove.
+	 */
+	public void removeListener(RetailItemListener listener) {
+		listeners.remove(listener);
+	}
+
+	//methods used by RetailItemView
+	/**
+	 * Returns the description of the item in a slot.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 *
+	 * @return a String representing the description.
+	 */
+	String descriptionAt(int slot) {
+		return store.getDescription(slot);
+	}
+
+	/**
+	 * Returns true if the description of the item in a slot matches a description, without making a String of it.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 * @param description String representing the description to compare with.
+	 * @param ignoreCase true to ignore case the same way String.equalsIgnoreCase does.
+	 *
+	 * @return true if the descriptions match.
+	 */
+	boolean descriptionMatches(int slot, String description, boolean ignoreCase) {
+		return store.descriptionMatches(slot, description, ignoreCase);
+	}
+
+	/**
+	 * Returns the RetailItemIndex hash of the description of the item in a slot, as the store keeps it.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 *
+	 * @return an integer representing the hash.
+	 */
+	int descriptionHashAt(int slot) {
+		return store.descriptionHash(slot);
+	}
+
+	/**
+	 * Returns the units on hand of the item in a slot.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 *
+	 * @return an integer representing the units on hand.
+	 */
+	int unitsOnHandAt(int slot) {
+		return store.getUnitsOnHand(slot);
+	}
+
+	/**
+	 * Returns the price in cents of the item in a slot.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 *
+	 * @return a long representing the price in cents.
+	 */
+	long priceCentsAt(int slot) {
+		return store.getPriceCents(slot);
+	}
+
+	/**
+	 * Returns the position in the list of the item in a slot.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 *
+	 * @return an integer representing the position.
+	 */
+	int positionOf(int slot) {
+		//variables
+		int position = 0;
+
+		if(itemCounts == null) {
+			return positions[slot];
+		}
+
+		//adds up the items before the slot's place
+		for(int i = positions[slot]; i > 0; i -= i & -i) {
+			position += itemCounts[i];
+		}
+
+		return position;
+	}
+
+	/**
+	 * Returns true if a slot holds an item of the list, and false if the item in it was removed.
+	 *
+	 * @param slot integer representing the slot.
+	 *
+	 * @return true if the slot holds an item.
+	 */
+	boolean holdsItem(int slot) {
+		return slot >= 0 && slot < positions.length && positions[slot] < used && order[positions[slot]] == slot;
+	}
+
+	/**
+	 * Changes the description of the item in a slot, updates the index, and tells the listeners.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 * @param description String representing the new description, already checked by RetailItem.
+	 */
+	void updateDescription(int slot, String description) {
+		//variables
+		String oldDescription = store.getDescription(slot);
+
+		descriptionIndex.remove(slot, store.descriptionHash(slot));
+		store.setDescription(slot, description);
+		descriptionIndex.add(slot, store.descriptionHash(slot));
+
+		for(RetailItemListener listener : listeners) {
+			listener.descriptionChanged(new RetailItemView(this, slot), oldDescription);
+		}
+	}
+
+	/**
+	 * Changes the units on hand of the item in a slot and tells the listeners.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 * @param unitsOnHand integer representing the new units on hand, already checked by RetailItem.
+	 */
+	void updateUnitsOnHand(int slot, int unitsOnHand) {
+		//variables
+		int oldUnitsOnHand = store.getUnitsOnHand(slot);
+
+		store.setUnitsOnHand(slot, unitsOnHand);
+
+		for(RetailItemListener listener : listeners) {
+			listener.unitsChanged(new RetailItemView(this, slot), oldUnitsOnHand);
+		}
+	}
+
+	/**
+	 * Changes the price of the item in a slot and tells the listeners.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 * @param priceCents long representing the new price in cents, already checked by RetailItem.
+	 */
+	void updatePriceCents(int slot, long priceCents) {
+		//variables
+		long oldPriceCents = store.getPriceCents(slot);
+
+		store.setPriceCents(slot, priceCents);
+
+		for(RetailItemListener listener : listeners) {
+			listener.priceChanged(new RetailItemView(this, slot), oldPriceCents);
+		}
+	}
+
+	//list methods
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public RetailItem get(int index) {
+		Objects.checkIndex(index, size);
+
+		return new RetailItemView(this, order[placeOf(index)]);
+	}
+
+	//methods that add items
+	@Override
+	public void add(int index, RetailItem item) {
+		//variables
+		long priceCents;
+		String description;
+		int descriptionHash;
+		int sharedSlot;
+		int slot;
+
+		Objects.checkIndex(index, size + 1);
+		priceCents = item.getPriceCents();
+
+		//an item whose price was never set has 0 cents
+		if(priceCents <= 0) {
+			throw new IllegalArgumentException("Price cannot be less than or equal to 0.");
+		}
+
+		description = item.getDescription();
+
+		//the item has already case-folded its description, so the hash is worked out from that once
+		descriptionHash = RetailItemIndex.hashOfKey(item.getDescriptionKey());
+
+		//only the end of the list has room without moving items, so the tombstones are dropped first
+		if(index < size) {
+			compact();
+		}
+
+		if(used == order.length) {
+			growOrder(Math.max(16, (int) Math.min(Integer.MAX_VALUE - 8, order.length * 2L)));
+		}
+
+		//an item with the same description as one already in the list shares its copy
+		sharedSlot = descriptionIndex.findExact(description, descriptionHash, this);
+
+		if(sharedSlot >= 0) {
+			slot = store.addSharingDescription(sharedSlot, item.getUnitsOnHand(), priceCents);
+		}
+		else {
+			slot = store.add(description, descriptionHash, item.getUnitsOnHand(), priceCents);
+		}
+
+		if(slot >= positions.length) {
+			positions = Arrays.copyOf(positions, Math.max(slot + 1, (int) Math.min(Integer.MAX_VALUE - 8, positions.length * 2L)));
+		}
+
+		if(index == size) {
+			order[used] = slot;
+			positions[slot] = used;
+			addItemCount(used, 1);
+			++used;
+		}
+		else {
+			//the items after index move along one position
+			System.arraycopy(order, index, order, index + 1, size - index);
+			order[index] = slot;
+			++used;
+			updatePositions(index, used);
+		}
+
+		++size;
+
+		descriptionIndex.add(slot, descriptionHash);
+		++modCount;
+		lastLookup = null;
+
+		for(RetailItemListener listener : listeners) {
+			listener.itemAdded(new RetailItemView(this, slot));
+		}
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends RetailItem> items) {
+		ensureCapacity(size + items.size());
+
+		for(RetailItem item : items) {
+			add(size, item);
+		}
+
+		return !items.isEmpty();
+	}
+
+	@Override
+	public RetailItem set(int index, RetailItem item) {
+		RetailItem previousItem = remove(index);
+
+		add(index, item);
+
+		return previousItem;
+	}
+
+	//methods that remove items
+	//removed items are returned as plain RetailItem objects, since their slots can be used again
+	@Override
+	public RetailItem remove(int index) {
+		//variables
+		RetailItem removedItem = removeWithoutCompacting(index);
+
+		if(needsCompaction()) {
+			compact();
+		}
+
+		return removedItem;
+	}
+
+	/**
+	 * Removes the item at an index, leaving a tombstone in its place even if the list should be compacted.
+	 * Used by ConcurrentInventory, which compacts the list in the background instead.
+	 *
+	 * @param index integer representing the index of the item.
+	 *
+	 * @return a RetailItem holding a copy of the removed item.
+	 */
+	RetailItem removeWithoutCompacting(int index) {
+		//variables
+		int place;
+		int slot;
+		RetailItem removedItem;
+
+		Objects.checkIndex(index, size);
+		place = placeOf(index);
+		slot = order[place];
+		removedItem = copyOf(slot);
+
+		descriptionIndex.remove(slot, store.descriptionHash(slot));
+		store.remove(slot);
+
+		//the items after index stay where they are
+		order[place] = TOMBSTONE;
+		addItemCount(place, -1);
+		++tombstones;
+		--size;
+
+		//tombstones at the end are dropped straight away
+		while(used > 0 && order[used - 1] == TOMBSTONE) {
+			--used;
+			--tombstones;
+		}
+
+		if(tombstones == 0) {
+			itemCounts = null;
+		}
+		else if(itemCounts == null) {
+			buildItemCounts();
+		}
+
+		++modCount;
+		lastLookup = null;
+
+		for(RetailItemListener listener : listeners) {
+			listener.itemRemoved(removedItem);
+		}
+
+		return removedItem;
+	}
+
+	@Override
+	public void clear() {
+		//variables
+		ArrayList<RetailItem> removedItems = new ArrayList<RetailItem>();
+
+		//the items are only copied if someone needs to be told about them
+		if(!listeners.isEmpty()) {
+			for(int i = 0; i < used; ++i) {
+				if(order[i] != TOMBSTONE) {
+					removedItems.add(copyOf(order[i]));
+				}
+			}
+		}
+
+		store.clear();
+		descriptionIndex.clear();
+		size = 0;
+		used = 0;
+		tombstones = 0;
+		itemCounts = null;
+		++modCount;
+		lastLookup = null;
+
+		for(RetailItem item : removedItems) {
+			for(RetailItemListener listener : listeners) {
+				listener.itemRemoved(item);
+			}
+		}
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		removeIf(fromIndex, toIndex, item -> true);
+	}
+
+	@Override
+	public boolean removeIf(Predicate<? super RetailItem> filter) {
+		return removeIf(0, size, filter);
+	}
+
+	//methods that reorder items
+	@Override
+	public void sort(Comparator<? super RetailItem> comparator) {
+		//variables
+		RetailItem[] items = toArray(new RetailItem[size]);
+
+		Arrays.sort(items, comparator);
+		compact();
+
+		for(int i = 0; i < size; ++i) {
+			order[i] = ((RetailItemView) items[i]).getSlot();
+		}
+
+		updatePositions(0, size);
+		++modCount;
+		lastLookup = null;
+	}
+
+	//helper methods
+	/**
+	 * Removes the items between two positions that match a filter, moving the rest up in one pass.
+	 *
+	 * @param fromIndex integer representing the first position to check.
+	 * @param toIndex integer representing the position after the last one to check.
+	 * @param filter Predicate that returns true for the items to remove.
+	 *
+	 * @return true if any item was removed.
+	 */
+	private boolean removeIf(int fromIndex, int toIndex, Predicate<? super RetailItem> filter) {
+		//variables
+		ArrayList<RetailItem> removedItems = new ArrayList<RetailItem>();
+		int kept = fromIndex;
+		int slot;
+		RetailItem removedItem;
+
+		Objects.checkFromToIndex(fromIndex, toIndex, size);
+
+		//the items are moved up in the same pass, so the tombstones are dropped first and indexes are places
+		compact();
+
+		for(int i = fromIndex; i < toIndex; ++i) {
+			slot = order[i];
+
+			if(filter.test(new RetailItemView(this, slot))) {
+				removedItem = copyOf(slot);
+				removedItems.add(removedItem);
+				descriptionIndex.remove(slot, store.descriptionHash(slot));
+				store.remove(slot);
+			}
+			else {
+				order[kept++] = slot;
+			}
+		}
+
+		if(removedItems.isEmpty()) {
+			return false;
+		}
+
+		System.arraycopy(order, toIndex, order, kept, size - toIndex);
+		size -= toIndex - kept;
+		used = size;
+		updatePositions(fromIndex, size);
+		++modCount;
+		lastLookup = null;
+
+		for(RetailItem item : removedItems) {
+			for(RetailItemListener listener : listeners) {
+				listener.itemRemoved(item);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the place in order of the item at an index of the list.
+	 *
+	 * @param index integer representing the index, from 0 to size - 1.
+	 *
+	 * @return an integer representing the place.
+	 */
+	private int placeOf(int index) {
+		//variables
+		Lookup previous = lastLookup;
+		int place = 0;
+		int itemsLeft = index;
+
+		if(itemCounts == null) {
+			return index;
+		}
+
+		if(previous != null && previous.index == index - 1) {
+			//most loops go through the list in order, so the next item is found by skipping the tombstones after the last one
+			place = previous.place + 1;
+
+			while(order[place] == TOMBSTONE) {
+				++place;
+			}
+		}
+		else {
+			//walks down the tree, skipping every part holding no more than the items still to pass
+			for(int step = Integer.highestOneBit(order.length); step > 0; step >>>= 1) {
+				if(place + step <= order.length && itemCounts[place + step] <= itemsLeft) {
+					place += step;
+					itemsLeft -= itemCounts[place];
+				}
+			}
+		}
+
+		lastLookup = new Lookup(index, place);
+
+		return place;
+	}
+
+	/**
+	 * Adds to the count of items at a place in the Fenwick tree, if there is one.
+	 *
+	 * @param place integer representing the place in order.
+	 * @param change integer representing the number to add, 1 or -1.
+	 */
+	private void addItemCount(int place, int change) {
+		if(itemCounts == null) {
+			return;
+		}
+
+		for(int i = place + 1; i < itemCounts.length; i += i & -i) {
+			itemCounts[i] += change;
+		}
+	}
+
+	/**
+	 * Builds the Fenwick tree from order in one pass, with one count for each place of order.
+	 */
+	private void buildItemCounts() {
+		//variables
+		int parent;
+
+		itemCounts = new int[order.length + 1];
+
+		for(int i = 0; i < used; ++i) {
+			if(order[i] != TOMBSTONE) {
+				itemCounts[i + 1] = 1;
+			}
+		}
+
+		//each count is added to the next part of the tree that covers it
+		for(int i = 1; i < itemCounts.length; ++i) {
+			parent = i + (i & -i);
+
+			if(parent < itemCounts.length) {
+				itemCounts[parent] += itemCounts[i];
+			}
+		}
+	}
+
+	/**
+	 * Makes order bigger, building the Fenwick tree again to match if there is one.
+	 *
+	 * @param newLength integer representing the new length of order.
+	 */
+	private void growOrder(int newLength) {
+		order = Arrays.copyOf(order, newLength);
+
+		if(itemCounts != null) {
+			buildItemCounts();
+		}
+	}
+
+	/**
+	 * Sets the position of every item between two positions to where it now is in order.
+	 *
+	 * @param fromIndex integer representing the first position to set.
+	 * @param toIndex integer representing the position after the last one to set.
+	 */
+	private void updatePositions(int fromIndex, int toIndex) {
+		for(int i = fromIndex; i < toIndex; ++i) {
+			positions[order[i]] = i;
+		}
+	}
+
+	/**
+	 * Makes a RetailItem holding a copy of the data in a slot.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 *
+	 * @return a new RetailItem with the same description, units on hand, and price.
+	 */
+	private RetailItem copyOf(int slot) {
+		return RetailItem.fromCents(store.getDescription(slot), store.getUnitsOnHand(slot), store.getPriceCents(slot));
+	}
+}
@@ -0,0 +1,53 @@
+/**
+ * This interface is used by classes that need to know when the items in a RetailItemList change.
+ * A listener is added with RetailItemList.addListener and is told about every change after it happens.
+ * Every method does nothing by default so a listener only overrides the changes it cares about.
+ * When the list is changed through a ConcurrentInventory, the methods can be called from several threads at once,
+ * 		so a listener that keeps any state has to be thread-safe.
+ */
+
+public interface RetailItemListener {
+
+	/**
+	 * Called after an item is added to the list.
+	 *
+	 * @param item RetailItem that was added.
+	 */
+	default void itemAdded(RetailItem item) {
+	}
+
+	/**
+	 * Called after an item is removed from the list.
+	 *
+	 * @param item RetailItem that was removed.
+	 */
+	default void itemRemoved(RetailItem item) {
+	}
+
+	/**
+	 * Called after the description of an item in the list is changed.
+	 *
+	 * @param item RetailItem that was changed.
+	 * @param oldDescription String representing the description the item had before.
+	 */
+	default void descriptionChanged(RetailItem item, String oldDescription) {
+	}
+
+	/**
+	 * Called after the units on hand of an item in the list are changed.
+	 *
+	 * @param item RetailItem that was changed.
+	 * @param oldUnitsOnHand integer representing the units on hand the item had before.
+	 */
+	default void unitsChanged(RetailItem item, int oldUnitsOnHand) {
+	}
+
+	/**
+	 * Called after the price of an item in the list is changed.
+	 *
+	 * @param item RetailItem that was changed.
+	 * @param oldPriceCents long representing the price the item had before, in cents.
+	 */
+	default void priceChanged(RetailItem item, long oldPriceCents) {
+	}
+}
@@ -0,0 +1,208 @@
+/**
+ * This class puts load on a RetailItemServer running on the same computer.
+ * It connects a number of clients at once, each on its own thread, and each client sends a number of requests,
+ * 		waiting for the answer to one before sending the next, the way a point-of-sale terminal would.
+ * The requests are a mix of looking up an item, removing one unit, and adding it back, so the units on hand
+ * 		are the same after the test as before it if no request is lost.
+ *
+ * Usage: java RetailItemLoadTest port [clients] [requests per client]
+ * The clients default to 100 and the requests per client to 1,000.
+ */
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RetailItemLoadTest {
+
+	public static void main(String[] args) throws Exception {
+		//variables
+		int port;
+		int clients = 100;
+		int requestsPerClient = 1000;
+		List<String> descriptions;
+		ExecutorService clientThreads;
+		List<Future<?>> clientResults = new ArrayList<Future<?>>();
+		AtomicLong requests = new AtomicLong();
+		AtomicLong errors = new AtomicLong();
+		AtomicLong latencyNanos = new AtomicLong();
+		long start;
+		long elapsedNanos;
+
+		if(args.length < 1) {
+			System.out.println("Usage: java RetailItemLoadTest port [clients] [requests per client]");
+
+			return;
+		}
+
+		port = Integer.parseInt(args[0]);
+
+		if(args.length > 1) {
+			clients = Integer.parseInt(args[1]);
+		}
+
+		if(args.length > 2) {
+			requestsPerClient = Integer.parseInt(args[2]);
+		}
+
+		descriptions = listDescriptions(port);
+
+		if(descriptions.isEmpty()) {
+			System.out.println("The server has no items to test with.");
+
+			return;
+		}
+
+		System.out.println("Testing " + clients + " clients with " + requestsPerClient + " requests each on " + descriptions.size() + " items.");
+
+		clientThreads = RetailItemServer.newThreadPerTaskExecutor();
+		start = System.nanoTime();
+
+		for(int i = 0; i < clients; ++i) {
+			clientResults.add(clientThreads.submit(new Client(port, i, requestsPerClient, descriptions, requests, errors, latencyNanos)));
+		}
+
+		//waits for every client, so a client that could not connect is reported
+		for(Future<?> clientResult : clientResults) {
+			clientResult.get();
+		}
+
+		elapsedNanos = System.nanoTime() - start;
+		clientThreads.shutdown();
+
+		System.out.printf("%,d requests in %.2f seconds: %,.0f requests per second\n",
+				requests.get(), elapsedNanos / 1e9, requests.get() / (elapsedNanos / 1e9));
+		System.out.printf("Average time for an answer: %.1f microseconds\n", latencyNanos.get() / 1000.0 / Math.max(1, requests.get()));
+		System.out.println("Errors: " + errors.get());
+	}
+
+	/**
+	 * Asks the server for its items and returns their descriptions.
+	 *
+	 * @param port integer representing the port of the server.
+	 *
+	 * @return a List of the descriptions.
+	 *
+	 * @throws IOException May throw IOException if the server cannot be reached.
+	 */
+	private static List<String> listDescriptions(int port) throws IOException {
+		//variables
+		List<String> descriptions = new ArrayList<String>();
+		String answer;
+		int itemCount;
+
+		try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+			BufferedReader input = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+			PrintWriter output = new PrintWriter(new OutputStreamWriter(socket.getOutputStream()));
+
+			output.print("list\n");
+			output.flush();
+			answer = input.readLine();
+
+			if(answer == null || !answer.startsWith("OK ")) {
+				throw new IOException("The server did not answer list: " + answer);
+			}
+
+			itemCount = Integer.parseInt(answer.substring(3).trim());
+
+			//the description is the first word of each line
+			for(int i = 0; i < itemCount; ++i) {
+				answer = input.readLine();
+				descriptions.add(answer.substring(0, answer.indexOf(' ')));
+			}
+
+			output.print("quit\n");
+			output.flush();
+		}
+
+		return descriptions;
+	}
+
+	/**
+	 * One client of the test, with its own connection to the server.
+	 */
+	private static class Client implements Callable<Void> {
+		private int port;
+		private int clientNumber;
+		private int requestCount;
+		private List<String> descriptions;
+		private AtomicLong requests;
+		private AtomicLong errors;
+		private AtomicLong latencyNanos;
+
+		Client(int serverPort, int number, int count, List<String> itemDescriptions, AtomicLong requestTotal, AtomicLong errorTotal, AtomicLong latencyTotal) {
+			port = serverPort;
+			clientNumber = number;
+			requestCount = count;
+			descriptions = itemDescriptions;
+			requests = requestTotal;
+			errors = errorTotal;
+			latencyNanos = latencyTotal;
+		}
+
+		@Override
+		public Void call() throws IOException {
+			//variables
+			Random random = new Random(clientNumber);
+			String description = null;
+			String request;
+			String answer;
+			long sent;
+			long clientLatency = 0;
+			int clientRequests = 0;
+			int clientErrors = 0;
+
+			try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+				socket.setTcpNoDelay(true);
+				BufferedReader input = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+				Writer output = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream()));
+
+				for(int i = 0; i < requestCount; ++i) {
+					//every third request looks an item up, removes a unit, then adds the unit back
+					if(i % 3 == 0) {
+						description = descriptions.get(random.nextInt(descriptions.size()));
+						request = "get " + description;
+					}
+					else if(i % 3 == 1) {
+						request = "remove " + description + " 1";
+					}
+					else {
+						request = "add " + description + " 1";
+					}
+
+					sent = System.nanoTime();
+					output.write(request);
+					output.write('\n');
+					output.flush();
+					answer = input.readLine();
+					clientLatency += System.nanoTime() - sent;
+					++clientRequests;
+
+					if(answer == null) {
+						throw new IOException("The server closed the connection.");
+					}
+
+					if(!answer.startsWith("OK ")) {
+						++clientErrors;
+
+						//the add is skipped when the remove did not happen, so no unit is added that was not removed
+						if(i % 3 == 1) {
+							++i;
+						}
+					}
+				}
+
+				output.write("quit\n");
+				output.flush();
+			}
+
+			requests.addAndGet(clientRequests);
+			errors.addAndGet(clientErrors);
+			latencyNanos.addAndGet(clientLatency);
+
+			return null;
+		}
+	}
+}
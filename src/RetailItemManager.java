@@ -20,17 +20,188 @@ public class RetailItemManager {
 	 * Scanner userScnr Class variable used throughout the program to get user input.
 	 */
     static Scanner userScnr = new Scanner(System.in);
+    
+    /**
+     * boolean binaryFormat Class variable that is true when the database and backup files use the binary format.
+     */
+    static boolean binaryFormat = false;
+    
+    /**
+     * RetailItemJournal journal Class variable holding the journal of changes, or null if changes are only saved on exit.
+     * int MENU_OPTIONS number of choices on the menu.
+     */
+    static RetailItemJournal journal = null;
+    
+    /**
+     * RetailItemBackups backups Class variable keeping the generations of backups and the items changed since the last one.
+     */
+    static RetailItemBackups backups = null;
+    static final int MENU_OPTIONS = 16;
+    
+    /**
+     * ConcurrentInventory inventory Class variable used to change units on hand in one step, so changes from other threads are not lost.
+     */
+    static ConcurrentInventory inventory = null;
+    
+    /**
+     * RetailItemMetrics metrics Class variable timing loads, saves, backups, lookups, searches, queries, and batch and server commands.
+     * 		Only the work is timed, never the time spent waiting for the user to type.
+     */
+    static RetailItemMetrics metrics = new RetailItemMetrics();
+    
+    /**
+     * RetailItemSearchIndex searchIndex Class variable suggesting descriptions, made the first time it is needed.
+     * int SUGGESTIONS most suggestions shown at once.
+     */
+    static RetailItemSearchIndex searchIndex = null;
+    static final int SUGGESTIONS = 10;
+    
+    /**
+     * RetailItemRangeIndex rangeIndex Class variable keeping the items sorted by price and units on hand, made the first time it is needed.
+     */
+    static RetailItemRangeIndex rangeIndex = null;
+    
+    /**
+     * RetailItemAggregates aggregates Class variable keeping the running totals of the items for the inventory report.
+     */
+    static RetailItemAggregates aggregates = null;
+    
+    /**
+     * RetailItemLazyDatabase lazyDatabase Class variable reading items from the database file as they are looked up, or null if every item was loaded.
+     */
+    static RetailItemLazyDatabase lazyDatabase = null;
+    
+    /**
+     * RetailItemBloomFilter descriptionFilter Class variable telling findItem that a description is new without looking it up,
+     * 		made once the database is loaded, or null before then.
+     */
+    static RetailItemBloomFilter descriptionFilter = null;
+    
+    /**
+     * int PAGE_SIZE number of items shown on each page when browsing.
+     */
+    static final int PAGE_SIZE = 20;
+    
     public static void main(String[] args) throws Exception {
 	
 	
-		//creates new file using RetailItemDatabase.txt
-		File itemFile = new File("RetailItemManager/RetailItemDatabase.txt");
-
-		//creates an ArrayList
-		ArrayList<RetailItem> itemList = new ArrayList<RetailItem>();
+		//list that keeps an index of item descriptions, created once the options are read
+		RetailItemList itemList;
 		
 		//variables
 		int choice = 0; //used for menuChoice and executeMenuSelection
+		boolean parallelLoad = false; //loads the file on several threads when true
+		boolean useJournal = false; //keeps a journal of changes instead of saving everything on exit when true
+		boolean offHeapStore = false; //keeps the items outside the Java heap when true
+		boolean lazyOpen = false; //reads items from the file as they are looked up instead of loading them all when true
+		String batchFileName = null; //file of commands to run instead of showing the menu, or "-" for the keyboard
+		String reportFileName = null; //file the batch report is written to, or null for the screen
+		int serverPort = -1; //port to serve the inventory on instead of showing the menu, or -1 for no server
+		
+		//reads the options the program was started with
+		for(int i = 0; i < args.length; ++i) {
+			if(args[i].equals("--parallel")) {
+				parallelLoad = true;
+			}
+			else if(args[i].equals("--binary")) {
+				binaryFormat = true;
+			}
+			else if(args[i].equals("--journal")) {
+				useJournal = true;
+			}
+			else if(args[i].equals("--lazy")) {
+				lazyOpen = true;
+			}
+			else if(args[i].equals("--store=offheap")) {
+				offHeapStore = true;
+			}
+			else if(args[i].equals("--store=columns")) {
+				offHeapStore = false;
+			}
+			else if(args[i].equals("--batch") && i + 1 < args.length) {
+				batchFileName = args[++i];
+			}
+			else if(args[i].equals("--report") && i + 1 < args.length) {
+				reportFileName = args[++i];
+			}
+			else if(args[i].equals("--serve") && i + 1 < args.length) {
+				try {
+					serverPort = Integer.parseInt(args[++i]);
+				}
+				catch(NumberFormatException notAPort) {
+					//error message for a port that is not a number
+					System.out.println("The port \"" + args[i] + "\" is not a number and was ignored.");
+				}
+			}
+			else if((args[i].equals("--to-binary") || args[i].equals("--to-text")) && i + 2 < args.length) {
+				//converts a file and exits without showing the menu
+				convertFile(args[i], new File(args[i + 1]), new File(args[i + 2]));
+				
+				return;
+			}
+			else if(args[i].equals("--export") && i + 3 < args.length) {
+				//exports a sorted copy of a file and exits without showing the menu
+				exportFile(args[i + 1], new File(args[i + 2]), new File(args[i + 3]));
+				
+				return;
+			}
+			else if(args[i].equals("--reconcile") && i + 2 < args.length) {
+				//compares two files and exits without showing the menu, writing batch commands if a third file is given
+				reconcileFiles(new File(args[i + 1]), new File(args[i + 2]), i + 3 < args.length ? args[i + 3] : null);
+				
+				return;
+			}
+			else if(args[i].equals("--list-backups")) {
+				//lists the backup generations and exits without showing the menu
+				listBackups();
+				
+				return;
+			}
+			else if(args[i].equals("--restore") && i + 2 < args.length) {
+				//restores a backup generation and exits without showing the menu
+				restoreBackup(args[i + 1], new File(args[i + 2]));
+				
+				return;
+			}
+			else {
+				//error message for an option the program does not know
+				System.out.println("Unknown option \"" + args[i] + "\" was ignored.");
+			}
+		}
+		
+		//every item has to be loaded for the binary format, the journal, and other programs sending commands
+		if(lazyOpen && (binaryFormat || parallelLoad || useJournal || batchFileName != null || serverPort >= 0)) {
+			System.out.println("--lazy cannot be used with --binary, --parallel, --journal, --batch, or --serve, so every item will be loaded.");
+			lazyOpen = false;
+		}
+		
+		//creates the list with the store that was chosen
+		if(offHeapStore) {
+			itemList = new RetailItemList(new OffHeapRetailItemStore());
+		}
+		else {
+			itemList = new RetailItemList();
+		}
+		
+		inventory = new ConcurrentInventory(itemList);
+		
+		//keeps the totals for the report up to date from the first item loaded on
+		aggregates = new RetailItemAggregates();
+		itemList.addListener(aggregates);
+		
+		//creates new file using RetailItemDatabase.txt, or RetailItemDatabase.bin for the binary format
+		File itemFile = new File("RetailItemManager/" + databaseFileName("RetailItemDatabase"));
+		
+		//puts in place a database file a checkpoint wrote before the program stopped, so the journal is not replayed over it
+		try {
+			if(RetailItemJournal.finishCheckpoint(itemFile)) {
+				System.out.println("Finished a checkpoint that was stopped before it was done.\n");
+			}
+		}
+		catch(IOException fileError) {
+			//error message if the checkpoint cannot be finished
+			System.out.println(fileError.getMessage());
+		}
 		
 		//checks to ensure file exists
 		//if it does not exist, program will exit without doing anything
@@ -41,28 +212,83 @@ public class RetailItemManager {
 		else {
 			//try block to catch any file errors
 			try {
-				//creates a Scanner for the file
-				Scanner fileScnr = new Scanner(itemFile);
-				
 				//creates ArrayList from items in file
 				//may throw IOException
-				createArrayList(itemList, itemFile, fileScnr); 
+				long loadStart = System.nanoTime();
+				
+				if(lazyOpen) {
+					//only maps the file and its index, and reads items as they are looked up
+					lazyDatabase = RetailItemLazyDatabase.open(itemFile, itemList);
+					
+					System.out.println("Opened " + itemFile + " with " + lazyDatabase.itemCount() + " retail items"
+						+ (lazyDatabase.indexWasBuilt() ? ", and saved its index for next time." : " using its saved index."));
+					System.out.println("Items are read as they are looked up, so browsing, searching, and reports are not available.\n");
+				}
+				else if(binaryFormat) {
+					RetailItemBinaryFile.load(itemList, itemFile);
+				}
+				else if(parallelLoad) {
+					RetailItemParallelLoader.load(itemList, itemFile);
+				}
+				else {
+					createArrayList(itemList, itemFile);
+				}
+				
+				//built once every item is in, and kept up to date from then on
+				descriptionFilter = new RetailItemBloomFilter(itemList, lazyDatabase);
+				
+				metrics.recordSince("load", loadStart);
+				
+				if(useJournal) {
+					//applies the changes made since the file was last saved
+					//may throw IOException
+					int changesReplayed = RetailItemJournal.replay(itemList, itemFile);
+					
+					if(changesReplayed > 0) {
+						System.out.println("Replayed " + changesReplayed + " saved changes from the journal.\n");
+					}
+					
+					//writes every change from now on to the journal
+					journal = new RetailItemJournal(itemFile);
+					itemList.addListener(journal);
+				}
 				
 				//backs up the most recently saved version of the file
 				//done in case something goes wrong with saving changes
+				//the list only holds the items read so far when the file is opened lazily, and the file itself is never written to
 				//may throw IOException
-				backupFile(itemList);
+				if(lazyDatabase == null) {
+					backupFile(itemList);
+				}
 
-				do {
-					displayMenu();
-					choice = menuChoice(userScnr);
-					executeMenuSelection(itemList, choice); //may throw IOException
-				} while(choice != 9);
+				if(batchFileName != null) {
+					//runs the commands in the file instead of showing the menu, then saves once
+					//may throw IOException
+					runBatch(batchFileName, reportFileName);
+					saveOnExit(itemList);
+				}
+				else if(serverPort >= 0) {
+					//serves the inventory to other programs instead of showing the menu, then saves once
+					//may throw IOException
+					runServer(serverPort);
+					saveOnExit(itemList);
+				}
+				else {
+					do {
+						displayMenu();
+						choice = menuChoice(userScnr);
+						executeMenuSelection(itemList, choice); //may throw IOException
+					} while(choice != 9);
+				}
 			}
 			catch(IOException fileError) {
 				//error message if executeMenuSelection(), createArrayList(), or backupFile() throw an IOException
 				System.out.println("There was an error when handling the file.");
 			}
+			catch(UncheckedIOException journalError) {
+				//error message if a change could not be written to the journal
+				System.out.println("There was an error when handling the file.");
+			}
 		}
 	}
 	
@@ -71,20 +297,20 @@ public class RetailItemManager {
 	 * 
 	 * @param itemList an ArrayList used to hold RetailItem objects.
 	 * @param itemFile a File used to take data and create RetailItem objects.
-	 * @param fileScnr Scanner used to read data from the File.
 	 * 
-	 * @throws IOException May throw IOException when creating a Scanner for itemFile
+	 * @throws IOException May throw IOException when opening or reading itemFile
 	 * 
 	 */	
-	public static void createArrayList(ArrayList<RetailItem> itemList, File itemFile, Scanner fileScnr) throws IOException {
+	public static void createArrayList(RetailItemList itemList, File itemFile) throws IOException {
+		//creates a RetailItemReader for the file
+		//one reader is used for every line instead of a Scanner for each line
+		RetailItemReader fileReader = new RetailItemReader(new FileInputStream(itemFile));
+		
 		//creates new items to add to itemList
 		//while there is still another line to read
-		while(fileScnr.hasNextLine()) {
-			//gets next line in the file
-			String dataLine = fileScnr.nextLine();
-			
-			//creates Scanner for the line
-			Scanner lineScnr = new Scanner(dataLine);
+		while(fileReader.hasNextLine()) {
+			//moves to next line in the file
+			fileReader.nextLine();
 			
 			//creates new retailItem
 			RetailItem item = new RetailItem();
@@ -92,7 +318,7 @@ public class RetailItemManager {
 			try {
 				//may throw IllegalArgumentException
 				//reads data in line to create a new RetailItem
-				item.readData(lineScnr);
+				item.readData(fileReader);
 				
 				//adds new item to itemList if exception isn't thrown
 				itemList.add(item);
@@ -106,8 +332,8 @@ public class RetailItemManager {
 			}
 		}
 		
-		//closes Scanner
-		fileScnr.close();
+		//closes RetailItemReader
+		fileReader.close();
 	}
 	
 	/**
@@ -115,7 +341,7 @@ public class RetailItemManager {
 	 */
 	public static void displayMenu() {
 		System.out.println("MENU: ");
-		System.out.println("1. Display All Retail Items.");
+		System.out.println("1. Browse All Retail Items, a Page at a Time.");
 		System.out.println("2. Display a Specific Retail Item.");
 		System.out.println("3. Remove Units from an Item.");
 		System.out.println("4. Add Units to an Item.");
@@ -124,6 +350,13 @@ public class RetailItemManager {
 		System.out.println("7. Create a New Retail Item.");
 		System.out.println("8. Delete an Existing Retail Item.");
 		System.out.println("9. Save and Exit.");
+		System.out.println("10. Checkpoint the Database.");
+		System.out.println("11. Show Operation Statistics.");
+		System.out.println("12. Search for Retail Items.");
+		System.out.println("13. Find Retail Items in a Price Range.");
+		System.out.println("14. Find Retail Items Low on Stock.");
+		System.out.println("15. Display the Retail Items with the Fewest Units.");
+		System.out.println("16. Show the Inventory Report.");
 		System.out.println();
 	}
 
@@ -132,7 +365,7 @@ public class RetailItemManager {
 	 * 
 	 * @param userScnr Scanner used to get input from the user.
 	 * 
-	 * @return an integer, 1-9, representing the user's choice.
+	 * @return an integer, 1-MENU_OPTIONS, representing the user's choice.
 	 */
 	public static int menuChoice(Scanner userScnr) {
 		//variables
@@ -141,7 +374,7 @@ public class RetailItemManager {
 		String userInput;
 		
 		//prompts user for a menu number
-		System.out.println("Please enter a number (1-9), no decimals, corresponding to what you would like to do.");
+		System.out.println("Please enter a number (1-" + MENU_OPTIONS + "), no decimals, corresponding to what you would like to do.");
 		
 		while(counter < 5) {
 			//gets user input
@@ -157,10 +390,10 @@ public class RetailItemManager {
 			if(inputScnr.hasNextInt()) {
 				choice = inputScnr.nextInt();
 				
-				if(choice < 1 || choice > 9) {
+				if(choice < 1 || choice > MENU_OPTIONS) {
 					//error message for user
 					System.out.println("\"" + choice + "\" is not a valid choice.");
-					System.out.println("You have " + (5 - counter) + " more tries to enter a number 1 through 9 before the program exits itself and current changes will be saved.");
+					System.out.println("You have " + (5 - counter) + " more tries to enter a number 1 through " + MENU_OPTIONS + " before the program exits itself and current changes will be saved.");
 					System.out.println("Please input another number.");
 				
 				}
@@ -174,7 +407,7 @@ public class RetailItemManager {
 			else {
 				//error message for user
 				System.out.println("\"" + userInput + "\" is not a valid choice.");
-				System.out.println("You have " + (5 - counter) + " more tries to enter a number 1 through 9 before the program exits itself and current changes will be saved.");
+				System.out.println("You have " + (5 - counter) + " more tries to enter a number 1 through " + MENU_OPTIONS + " before the program exits itself and current changes will be saved.");
 			}
 			
 			++counter;
@@ -197,9 +430,16 @@ public class RetailItemManager {
 	 * 
 	 * @throws IOException May throw IOException when executing the exit() method
 	 */
-	public static void executeMenuSelection(ArrayList<RetailItem> itemList, int menuSelection) throws IOException {
+	public static void executeMenuSelection(RetailItemList itemList, int menuSelection) throws IOException {
+		//these choices go through every item, but only the items looked up so far are loaded
+		if(lazyDatabase != null && (menuSelection == 1 || menuSelection >= 12)) {
+			System.out.println("This choice needs every item loaded, so it is not available when the database is opened with --lazy.\n");
+			
+			return;
+		}
+		
 		if(menuSelection == 1) {
-			displayAllRetailItems(itemList);
+			browseRetailItems(itemList, userScnr);
 		}
 		else if(menuSelection == 2) {
 			displaySpecificItem(itemList, userScnr);
@@ -225,6 +465,27 @@ public class RetailItemManager {
 		else if(menuSelection == 9) {
 			exit(itemList);
 		}
+		else if(menuSelection == 10) {
+			checkpoint(itemList);
+		}
+		else if(menuSelection == 11) {
+			displayStatistics();
+		}
+		else if(menuSelection == 12) {
+			searchItems(itemList, userScnr);
+		}
+		else if(menuSelection == 13) {
+			findItemsInPriceRange(itemList, userScnr);
+		}
+		else if(menuSelection == 14) {
+			findLowStockItems(itemList, userScnr);
+		}
+		else if(menuSelection == 15) {
+			displayFewestUnits(itemList, userScnr);
+		}
+		else if(menuSelection == 16) {
+			displayReport(itemList, userScnr);
+		}
 	}
 	
 	/**
@@ -232,12 +493,153 @@ public class RetailItemManager {
 	 * 
 	 * @param itemList ArrayList holding RetailItem objects.
 	 */
-	public static void displayAllRetailItems(ArrayList<RetailItem> itemList) {
+	public static void displayAllRetailItems(RetailItemList itemList) {
 		System.out.println("Displaying all retail items.\n");
 		
-		//iterates through itemList and prints out the info for each item
-		for(int i = 0; i < itemList.size(); ++i) {
-			itemList.get(i).printInfo();
+		//prints out the info for each item, a buffer at a time
+		printItems(itemList, 0, itemList.size(), false);
+	}
+	
+	/**
+	 * Shows itemList a page at a time, letting user go to the next or previous page or jump to an item.
+	 * 
+	 * @param itemList ArrayList holding RetailItem objects.
+	 * @param userScnr Scanner used to get user input.
+	 */
+	public static void browseRetailItems(RetailItemList itemList, Scanner userScnr) {
+		//variables
+		boolean done = false;
+		int firstIndex = 0;
+		int indexFound;
+		String userInput;
+		
+		if(itemList.isEmpty()) {
+			System.out.println("There are no retail items to display. Returning to the menu.\n");
+			
+			return;
+		}
+		
+		while(!done) {
+			displayPage(itemList, firstIndex);
+			
+			//prompts user for where to go next
+			System.out.println("Enter \"n\" for the next page, \"p\" for the previous page, an item number or description to jump to it,"
+					+ " or \"q\" to return to the menu.");
+			
+			userInput = userScnr.next();
+			
+			//clears Scanner in case user put anything else in
+			userScnr.nextLine();
+			
+			//creates Scanner for user input
+			//done to tell item numbers from descriptions
+			Scanner inputScnr = new Scanner(userInput);
+			
+			if(userInput.equalsIgnoreCase("q")) {
+				done = true;
+			}
+			else if(userInput.equalsIgnoreCase("n")) {
+				if(firstIndex + PAGE_SIZE < itemList.size()) {
+					firstIndex += PAGE_SIZE;
+				}
+				else {
+					System.out.println("This is the last page.\n");
+				}
+			}
+			else if(userInput.equalsIgnoreCase("p")) {
+				if(firstIndex > 0) {
+					firstIndex = Math.max(0, firstIndex - PAGE_SIZE);
+				}
+				else {
+					System.out.println("This is the first page.\n");
+				}
+			}
+			else if(inputScnr.hasNextInt()) {
+				indexFound = inputScnr.nextInt() - 1;
+				
+				if(indexFound >= 0 && indexFound < itemList.size()) {
+					firstIndex = pageStart(indexFound);
+				}
+				else {
+					System.out.println("There is no item number " + userInput + ". The items are numbered 1 to " + itemList.size() + ".\n");
+				}
+			}
+			else {
+				indexFound = findItem(itemList, userInput);
+				
+				if(indexFound >= 0) {
+					firstIndex = pageStart(indexFound);
+				}
+				else {
+					System.out.println("Item \"" + userInput + "\" was not found.\n");
+				}
+			}
+			
+			//closes Scanner
+			inputScnr.close();
+		}
+		
+		System.out.println("Returning to the menu.\n");
+	}
+	
+	/**
+	 * Prints one page of itemList, numbering the items, in a single write.
+	 * 
+	 * @param itemList ArrayList holding RetailItem objects.
+	 * @param firstIndex integer representing the index of the first item on the page.
+	 */
+	public static void displayPage(RetailItemList itemList, int firstIndex) {
+		//variables
+		int lastIndex = Math.min(firstIndex + PAGE_SIZE, itemList.size());
+		
+		System.out.println("Items " + (firstIndex + 1) + " to " + lastIndex + " of " + itemList.size()
+				+ " (page " + (firstIndex / PAGE_SIZE + 1) + " of " + ((itemList.size() + PAGE_SIZE - 1) / PAGE_SIZE) + ").\n");
+		
+		printItems(itemList, firstIndex, lastIndex, true);
+	}
+	
+	/**
+	 * Returns the index of the first item on the page holding an item.
+	 * 
+	 * @param index integer representing the index of the item.
+	 * 
+	 * @return an integer representing the index of the first item on its page.
+	 */
+	public static int pageStart(int index) {
+		return index - index % PAGE_SIZE;
+	}
+	
+	/**
+	 * Prints the info of the items between two indexes of a list the same way printInfo does,
+	 * 		putting them together in a buffer so they are written a buffer at a time instead of three prints for each item.
+	 * 
+	 * @param items List holding the items.
+	 * @param fromIndex integer representing the index of the first item to print.
+	 * @param toIndex integer representing the index after the last item to print.
+	 * @param numbered true to print the number of each item, counting from 1, before its info.
+	 */
+	public static void printItems(List<RetailItem> items, int fromIndex, int toIndex, boolean numbered) {
+		//variables
+		RetailItemWriter screenWriter = new RetailItemWriter(new OutputStreamWriter(System.out));
+		RetailItem item;
+		
+		try {
+			for(int i = fromIndex; i < toIndex; ++i) {
+				item = items.get(i);
+				
+				if(numbered) {
+					screenWriter.write("Item " + (i + 1) + ":" + System.lineSeparator());
+				}
+				
+				screenWriter.writeInfo(item.getDescription(), item.getUnitsOnHand(), item.getPriceCents());
+			}
+			
+			//the writer is flushed but not closed, so the screen stays open
+			screenWriter.flush();
+		}
+		catch(IOException screenError) {
+			//System.out does not throw, but sets an error flag instead
+			System.out.println("There was an error when printing the items.");
 		}
 	}
 	
@@ -247,11 +649,12 @@ public class RetailItemManager {
 	 * @param itemList ArrayList holding RetailItem objects.
 	 * @param userScnr Scanner used to get input from the user.
 	 */
-	public static void displaySpecificItem(ArrayList<RetailItem> itemList, Scanner userScnr) {
+	public static void displaySpecificItem(RetailItemList itemList, Scanner userScnr) {
 		//variables
 		int indexFound;
 		String userInput;
 		String choice;
+		List<String> suggestions;
 		
 		do {
 			//prompts user for item
@@ -270,6 +673,15 @@ public class RetailItemManager {
 			else {
 				//lets user know the item was not found
 				System.out.println("Item \"" + userInput + "\" was not found. Make sure there are no spaces.");
+				
+				//suggests items the user may have meant, if every item is loaded
+				if(lazyDatabase == null) {
+					suggestions = searchIndex(itemList).suggest(userInput, SUGGESTIONS);
+					
+					if(!suggestions.isEmpty()) {
+						System.out.println("Did you mean: " + String.join(", ", suggestions) + "?");
+					}
+				}
 			}
 
 			//asks user if they want to display another item
@@ -290,14 +702,16 @@ public class RetailItemManager {
 	 * @param itemList ArrayList holding RetailItem objects.
 	 * @param userScnr Scanner used to get input from the user.
 	 */
-	public static void removeItemUnits(ArrayList<RetailItem> itemList, Scanner userScnr) {
+	public static void removeItemUnits(RetailItemList itemList, Scanner userScnr) {
 		//variables
 		boolean done = false;
 		int indexFound;
 		int previousUnits;
 		int unitsToRemove;
+		int newUnits;
 		int counter = 0;
 		String userInput;
+		String description;
 		
 		//prompts user for an item
 		System.out.println("What item would you like to remove units from. Remember, no spaces.");
@@ -311,10 +725,11 @@ public class RetailItemManager {
 		
 		if(indexFound >= 0) {
 			
+			description = itemList.get(indexFound).getDescription();
 			previousUnits = itemList.get(indexFound).getUnitsOnHand();
 			
 			//informs user how many units the item has
-			System.out.println("Item found. \"" + itemList.get(indexFound).getDescription() + "\" has " + previousUnits + " units on hand.");
+			System.out.println("Item found. \"" + description + "\" has " + previousUnits + " units on hand.");
 			
 			while(counter <= 5 && !done) {
 				//prompts user for number of units to remove.
@@ -333,22 +748,31 @@ public class RetailItemManager {
 					if(inputScnr.hasNextInt()) {
 						unitsToRemove = inputScnr.nextInt();
 						
-						if(!(unitsToRemove <= 0) && !(unitsToRemove > itemList.get(indexFound).getUnitsOnHand())) {
+						if(isValidUnits(unitsToRemove)) {
 							//lets user know program is removing the units
 							System.out.println("Removing " + unitsToRemove + " units from item \"" 
-							    + itemList.get(indexFound).getDescription() + "\".");
-							
-							//changes units on hand
-							itemList.get(indexFound).setUnitsOnHand(previousUnits - unitsToRemove);
-					
-							//tells user program has removed the units and how many units are left
-							System.out.println("Item \"" 
-                                + itemList.get(indexFound).getDescription() 
-                                + "\" now has " + itemList.get(indexFound).getUnitsOnHand() 
-                                + " units on hand.\n");
+							    + description + "\".");
 							
-							//sets to true to get out of loop
-							done = true;
+							try {
+								//changes units on hand in one step
+								//the units are taken from what the item has now, not what it had when it was shown
+								newUnits = inventory.removeUnits(description, unitsToRemove);
+						
+								//tells user program has removed the units and how many units are left
+								System.out.println("Item \"" 
+	                                + description 
+	                                + "\" now has " + newUnits 
+	                                + " units on hand.\n");
+								
+								//sets to true to get out of loop
+								done = true;
+							}
+							catch(IllegalArgumentException notEnoughUnits) {
+								//error message if the item does not have that many units
+								System.out.println(notEnoughUnits.getMessage() + " At least one unit has to be left. Please try again.");
+								//informs user how many tries are left
+								System.out.println("You have " + (5 - counter) + " more tries.");
+							}
 						}
 						else {
 							//error message for bad input
@@ -391,14 +815,15 @@ public class RetailItemManager {
 	 * @param itemList ArrayList holding RetailItem objects.
 	 * @param userScnr Scanner used to get input from the user.
 	 */
-	public static void addItemUnits(ArrayList<RetailItem> itemList, Scanner userScnr) {
+	public static void addItemUnits(RetailItemList itemList, Scanner userScnr) {
 		//variables
 		boolean done = false;
 		int indexFound;
 		int unitsToAdd;
-		int previousUnits;
+		int newUnits;
 		int counter = 0;
 		String userInput;
+		String description;
 		
 		//prompts user for item
 		System.out.println("What item would you like to add units to. Remember, no spaces.");
@@ -411,10 +836,10 @@ public class RetailItemManager {
 		indexFound = findItem(itemList, userInput);
 		
 		if(indexFound >= 0) {
-			previousUnits = itemList.get(indexFound).getUnitsOnHand();
+			description = itemList.get(indexFound).getDescription();
 			
 			//informs user how many units on hand there are for the given item
-			System.out.println("Item \"" + itemList.get(indexFound).getDescription() + "\" has " + itemList.get(indexFound).getUnitsOnHand() + " units.");
+			System.out.println("Item \"" + description + "\" has " + itemList.get(indexFound).getUnitsOnHand() + " units.");
 			
 			while(counter <= 5 && !done) {
 				//prompts user for items to add
@@ -431,20 +856,29 @@ public class RetailItemManager {
 					if(inputScnr.hasNextInt()) {
 						unitsToAdd = inputScnr.nextInt();
 						
-						if(unitsToAdd > 0) {
+						if(isValidUnits(unitsToAdd)) {
 							//informs user the program is adding the units
 							System.out.println("Adding " + unitsToAdd + " units to item \"" 
-                                + itemList.get(indexFound).getDescription() + "\".");
+                                + description + "\".");
 							
-							//adds the units
-							itemList.get(indexFound).setUnitsOnHand(previousUnits + unitsToAdd);
-						
-							//informs user the units have been added and how many are left
-							System.out.println("Item \"" + itemList.get(indexFound).getDescription() 
-                                + "\" now has " + itemList.get(indexFound).getUnitsOnHand() 
-                                + " units.\n");
+							try {
+								//adds the units in one step
+								//the units are added to what the item has now, not what it had when it was shown
+								newUnits = inventory.addUnits(description, unitsToAdd);
 							
-							done = true;
+								//informs user the units have been added and how many are left
+								System.out.println("Item \"" + description 
+	                                + "\" now has " + newUnits 
+	                                + " units.\n");
+								
+								done = true;
+							}
+							catch(IllegalArgumentException tooManyUnits) {
+								//error message if the item cannot hold that many units
+								System.out.println(tooManyUnits.getMessage() + " Please try again.");
+								//message letting user know how many tries are left
+								System.out.println("You have " + (5 - counter) + " more tries.");
+							}
 						}
 						else {
 							//error message for bad input
@@ -486,7 +920,7 @@ public class RetailItemManager {
 	 * @param itemList ArrayList holding RetailItem objects.
 	 * @param userScnr Scanner used to get input from the user.
 	 */
-	public static void changeItemPrice(ArrayList<RetailItem> itemList, Scanner userScnr) {
+	public static void changeItemPrice(RetailItemList itemList, Scanner userScnr) {
 		//variables
 		boolean done = false;
 		double newPrice;
@@ -527,7 +961,7 @@ public class RetailItemManager {
 					if(inputScnr.hasNextDouble()) {
 						newPrice = inputScnr.nextDouble();
 						
-						if(newPrice > 0) {
+						if(RetailItem.isStorablePrice(newPrice)) {
 							//informs user the program is changing the price to a new one
 							System.out.printf("Changing the price for item \"%s\" from $%.2f to $%.2f.\n", itemList.get(indexFound).getDescription(), itemList.get(indexFound).getPrice(), newPrice);
 							
@@ -541,7 +975,7 @@ public class RetailItemManager {
 						}
 						else {
 							//error message for user if they input a bad value
-							System.out.println("The new price needs to be greater than zero with two decimals (only the first two decimals will be stored).\n"
+							System.out.println("The new price needs to be at least $0.01 with two decimals (only the first two decimals will be stored).\n"
 								+ "If no decimals are input, the program shall assume" 
                                 + " the decimals are \".00\". Please try again.\n");
 							
@@ -551,7 +985,7 @@ public class RetailItemManager {
 					}
 					else {
 						//error message for user if they input a bad value
-						System.out.println("The new price needs to be greater than zero with two decimals (only the first two decimals will be stored).\n"
+						System.out.println("The new price needs to be at least $0.01 with two decimals (only the first two decimals will be stored).\n"
 								+ "If no decimals are input, the program shall assume" 
                                 + " the decimals are \".00\". Please try again.\n");
 						
@@ -584,7 +1018,7 @@ public class RetailItemManager {
 	 * @param itemList ArrayList holding RetailItem objects.
 	 * @param userScnr Scanner used to get input from the user.
 	 */
-	public static void changeItemDescription(ArrayList<RetailItem> itemList, Scanner userScnr) {
+	public static void changeItemDescription(RetailItemList itemList, Scanner userScnr) {
 		//variables
 		int indexFound;
 		String userInput;
@@ -648,7 +1082,7 @@ public class RetailItemManager {
 	 * @param itemList ArrayList holding RetailItem objects.
 	 * @param userScnr Scanner used to get input from the user.
 	 */
-	public static void addNewRetailItem(ArrayList<RetailItem> itemList, Scanner userScnr) {
+	public static void addNewRetailItem(RetailItemList itemList, Scanner userScnr) {
 		//variables
 		boolean done = false;
 		double userPrice = 0.00;
@@ -712,7 +1146,7 @@ public class RetailItemManager {
 							if(inputScnr.hasNextInt()) {
 								userUnitsOnHand = inputScnr.nextInt();
 								
-								if(userUnitsOnHand > 0) {
+								if(isValidUnits(userUnitsOnHand)) {
 									//confirms the amount is correct
 									System.out.println("Is the amount \"" + userUnitsOnHand + "\" correct?");
 									System.out.println("Press \"y\" to continue. Anything else and this process will repeat.");
@@ -762,7 +1196,7 @@ public class RetailItemManager {
 						if(inputScnr.hasNextDouble()) {
 							userPrice = inputScnr.nextDouble();
 										
-							if(userPrice > 0) {
+							if(RetailItem.isStorablePrice(userPrice)) {
 								//confirms price is correct
 								System.out.printf("Is the price \"$%.2f\" correct?\n", userPrice);
 								System.out.println("Press \"Y\" to continue. Anything else and this process will repeat.");
@@ -777,7 +1211,7 @@ public class RetailItemManager {
 							}
 							else {
 								//error message for negative price
-								System.out.println("The price of the new item needs to be greater than 0. Please try again.\n");
+								System.out.println("The price of the new item needs to be at least $0.01. Please try again.\n");
 							}
 						}
 						else {
@@ -840,15 +1274,24 @@ public class RetailItemManager {
 	 * @param itemList ArrayList holding RetailItem objects.
 	 * @param userScnr Scanner used to get input from the user.
 	 */
-	public static void deleteRetailItem(ArrayList<RetailItem> itemList, Scanner userScnr) {
+	public static void deleteRetailItem(RetailItemList itemList, Scanner userScnr) {
 		//variables
 		int indexFound;
 		String itemToDelete;
 		String choice;
 		
-		//displays all retail items 
+		//displays the retail items, or tells user how to browse them if there are too many for one page
 		//this inform user what items are available to delete
-		displayAllRetailItems(itemList);
+		//nothing is shown when the file is opened lazily, since only the items looked up so far are loaded
+		if(lazyDatabase != null) {
+			System.out.println("The database was opened with --lazy, so the items cannot be listed.");
+		}
+		else if(itemList.size() <= PAGE_SIZE) {
+			displayAllRetailItems(itemList);
+		}
+		else {
+			System.out.println("There are " + itemList.size() + " retail items. Enter \"?\" to browse them a page at a time first.");
+		}
 		
 		//prompts user to choose an item to delete
 		System.out.println("\nWhat item would you like to try and delete? Remember, no spaces.");
@@ -858,6 +1301,18 @@ public class RetailItemManager {
 		//clears Scanner in case user input something else
 		userScnr.nextLine();
 		
+		if(itemToDelete.equals("?") && lazyDatabase == null) {
+			browseRetailItems(itemList, userScnr);
+			
+			//prompts user again now that they have seen the items
+			System.out.println("What item would you like to try and delete? Remember, no spaces.");
+			
+			itemToDelete = userScnr.next();
+			
+			//clears Scanner in case user input something else
+			userScnr.nextLine();
+		}
+		
 		indexFound = findItem(itemList, itemToDelete);
 		
 		if(indexFound >= 0) {
@@ -878,10 +1333,21 @@ public class RetailItemManager {
 				itemList.remove(indexFound);
 				
 				//informs user the item has been deleted
-				System.out.println("Item has been deleted. Displaying remaining retail items.\n");
-			
-				//displays the remaining retail items.
-				displayAllRetailItems(itemList);
+				//the remaining items are not shown when the file is opened lazily, since only the items looked up so far are loaded
+				if(lazyDatabase != null) {
+					System.out.println("Item has been deleted.\n");
+				}
+				else {
+					System.out.println("Item has been deleted. Displaying remaining retail items.\n");
+				
+					//displays the remaining retail items, or the page the item was on if there are more than a page
+					if(itemList.size() <= PAGE_SIZE) {
+						displayAllRetailItems(itemList);
+					}
+					else {
+						displayPage(itemList, pageStart(Math.min(indexFound, itemList.size() - 1)));
+					}
+				}
 			}
 			else {
 				//if user does not press Y, this informs user the item has not been deleted
@@ -894,62 +1360,629 @@ public class RetailItemManager {
 	}
 	
 	/**
-	 * Exits the program and saves the current state of itemList to a .txt file.
+	 * Exits the program and saves the current state of itemList to a .txt file, or a .bin file for the binary format.
 	 * 
 	 * @param itemList ArrayList hold RetailItem objects.
 	 * 
 	 * @throws IOException May throw IOException if FileWriter cannot open the new file.
 	 */
-	public static void exit(ArrayList<RetailItem> itemList) throws IOException {
-		//variables
-		int i;
-		
-		//creates FileWriter to write to the new file
-		FileWriter fileWriter = new FileWriter("RetailItemDatabase.txt");
-		
-		//creates PrintWriter to write to the file
-		PrintWriter printWriter = new PrintWriter(fileWriter);
-		
+	public static void exit(RetailItemList itemList) throws IOException {
 		//informs user they have decided to quit
 		System.out.println("You have decided to quit. Saving the file.");
 		
-		//writes current items in itemList to the file and saves it
-		for(i = 0; i < itemList.size(); ++i) {
-			itemList.get(i).writeData(printWriter);
-		}
+		saveOnExit(itemList);
 		
 		//informs user the file is saved and it is exiting
 		System.out.println("File has been saved. Exiting the program.");
+	}
+	
+	/**
+	 * Saves the current state of itemList when the program is done with it.
+	 * With a journal every change is already saved, so the journal is closed instead of writing the whole file.
+	 * The backups are told which items changed either way.
+	 * 
+	 * @param itemList ArrayList holding RetailItem objects.
+	 * 
+	 * @throws IOException May throw IOException if the file, the journal, or the backups cannot be written.
+	 */
+	public static void saveOnExit(RetailItemList itemList) throws IOException {
+		//variables
+		long start = System.nanoTime();
+		
+		if(journal != null) {
+			//every change is already in the journal, so it only needs to be closed
+			journal.close();
+		}
+		else if(lazyDatabase != null) {
+			//copies the items that were never read from the database file, and writes the rest from itemList
+			lazyDatabase.save(databaseFileName("RetailItemDatabase"));
+		}
+		else {
+			//writes current items in itemList to the file and saves it
+			saveItems(itemList, databaseFileName("RetailItemDatabase"));
+		}
 		
-		//closes PrintWriter
-		printWriter.close();
+		if(backups != null) {
+			//remembers what changed so the next backup only holds those items
+			backups.saveChanges(itemList);
+		}
+		
+		metrics.recordSince("save", start);
+	}
+	
+	/**
+	 * Writes the current state of itemList to the database file and empties the journal.
+	 * 
+	 * @param itemList ArrayList holding RetailItem objects.
+	 * 
+	 * @throws IOException May throw IOException if the database file or the journal cannot be written.
+	 */
+	public static void checkpoint(RetailItemList itemList) throws IOException {
+		if(journal != null) {
+			//informs user the program is writing the database file
+			System.out.println("Folding the journal into the database file.");
+			
+			journal.checkpoint(itemList);
+			
+			//informs user the checkpoint is done
+			System.out.println("Checkpoint done. The journal is empty.\n");
+		}
+		else {
+			//informs user there is no journal to checkpoint
+			System.out.println("Changes are not being journaled, so there is nothing to checkpoint."
+				+ " Start the program with --journal to journal changes.\n");
+		}
 	}
 
 	/**
 	 * Saves the previously saved version of the file to prevent the complete loss of data 
 	 * 		if there is an error while handling the file.
+	 * Each backup is a new generation in the RetailItemDatabaseBackups folder that only holds the items
+	 * 		changed since the generation before it, unless a full copy is needed. Full copies use the binary format if binaryFormat is true.
+	 * 
+	 * @param itemList ArrayList holding RetailItem objects.
+	 * 
+	 * @throws IOException May throw IOException if FileWriter cannot open the new file.
+	 */
+	public static void backupFile(RetailItemList itemList) throws IOException {
+		//variables
+		long start = System.nanoTime();
+		
+		backups = new RetailItemBackups(new File("RetailItemDatabaseBackups"), binaryFormat);
+		
+		//writes the items changed since the last backup
+		backups.backup(itemList);
+		
+		//remembers every item changed from now on for the next backup
+		itemList.addListener(backups);
+		
+		//folds old generations together without making the user wait
+		backups.startCompaction();
+		
+		metrics.recordSince("backup", start);
+	}
+	
+	/**
+	 * Prints every backup generation that can be restored.
+	 */
+	public static void listBackups() {
+		//variables
+		File backupDirectory = new File("RetailItemDatabaseBackups");
+		
+		System.out.println("Backup generations, oldest first:");
+		
+		for(int generation : RetailItemBackups.listGenerations(backupDirectory)) {
+			if(RetailItemBackups.isFull(backupDirectory, generation)) {
+				System.out.println(generation + " (full copy)");
+			}
+			else {
+				System.out.println(generation + " (changes only)");
+			}
+		}
+	}
+	
+	/**
+	 * Rebuilds a backup generation and writes it to a file.
+	 * 
+	 * @param generation String representing the number of the generation to restore.
+	 * @param outputFile File to write the restored items to.
+	 */
+	public static void restoreBackup(String generation, File outputFile) {
+		try {
+			saveItems(RetailItemBackups.rebuild(new File("RetailItemDatabaseBackups"), Integer.parseInt(generation)), outputFile.getPath());
+			
+			//informs user the generation was restored
+			System.out.println("Restored backup generation " + generation + " to " + outputFile + ".");
+		}
+		catch(NumberFormatException badNumber) {
+			//error message if the generation is not a number
+			System.out.println("\"" + generation + "\" is not a backup generation number.");
+		}
+		catch(IOException fileError) {
+			//error message if the generation cannot be rebuilt
+			System.out.println(fileError.getMessage());
+		}
+	}
+	
+	/**
+	 * Writes every item in itemList to a file in the text format, or the binary format if binaryFormat is true.
 	 * 
 	 * @param itemList ArrayList holding RetailItem objects.
+	 * @param fileName String representing the name of the file to write.
 	 * 
 	 * @throws IOException May throw IOException if FileWriter cannot open the new file.
 	 */
-	public static void backupFile(ArrayList<RetailItem> itemList) throws IOException {
+	public static void saveItems(RetailItemList itemList, String fileName) throws IOException {
 		//variables
 		int i;
 		
-		//creates FileWriter to write to the new file
-		FileWriter fileWriter = new FileWriter("RetailItemDatabaseBackup.txt");
+		if(binaryFormat) {
+			RetailItemBinaryFile.save(itemList, fileName);
+		}
+		else {
+			//creates RetailItemWriter to write to the new file
+			//it buffers the lines and writes the numbers without printf
+			RetailItemWriter itemWriter = new RetailItemWriter(fileName);
+			
+			//writes current items in itemList to the file and saves it
+			for(i = 0; i < itemList.size(); ++i) {
+				itemList.get(i).writeData(itemWriter);
+			}
+			
+			//closes RetailItemWriter
+			itemWriter.close();
+		}
+	}
+	
+	/**
+	 * Returns the name of a database file with the extension for the format being used.
+	 * 
+	 * @param baseName String representing the name of the file without an extension.
+	 * 
+	 * @return a String representing baseName followed by ".bin" for the binary format or ".txt" for the text format.
+	 */
+	public static String databaseFileName(String baseName) {
+		if(binaryFormat) {
+			return baseName + ".bin";
+		}
 		
-		//creates PrintWriter to write to the file
-		PrintWriter printWriter = new PrintWriter(fileWriter);
+		return baseName + ".txt";
+	}
+	
+	/**
+	 * Converts a database file from one format to the other.
+	 * 
+	 * @param option String representing the conversion, "--to-binary" or "--to-text".
+	 * @param inputFile File to convert.
+	 * @param outputFile File to write the converted data to.
+	 */
+	public static void convertFile(String option, File inputFile, File outputFile) {
+		try {
+			if(option.equals("--to-binary")) {
+				RetailItemBinaryFile.convertToBinary(inputFile, outputFile);
+			}
+			else {
+				RetailItemBinaryFile.convertToText(inputFile, outputFile);
+			}
+			
+			//informs user the file was converted
+			System.out.println("Converted " + inputFile + " to " + outputFile + ".");
+		}
+		catch(IOException fileError) {
+			//error message if either file cannot be used
+			System.out.println("There was an error when handling the file.");
+		}
+	}
+	
+	/**
+	 * Writes a copy of a database file sorted by description, price, or units on hand.
+	 * The file is sorted in runs by RetailItemExport, so it does not have to fit in memory.
+	 * 
+	 * @param key String representing what to sort by, "description", "price", or "units".
+	 * @param inputFile text File to export.
+	 * @param outputFile File to write the sorted items to.
+	 */
+	public static void exportFile(String key, File inputFile, File outputFile) {
+		//variables
+		int itemCount;
+		long start = System.nanoTime();
 		
-		//writes current items in itemList to the file and saves it
-		for(i = 0; i < itemList.size(); ++i) {
-			itemList.get(i).writeData(printWriter);
+		try {
+			//may throw IllegalArgumentException
+			itemCount = RetailItemExport.export(inputFile, outputFile, key);
+			
+			//informs user the file was exported
+			System.out.printf("Exported %d items from %s to %s sorted by %s in %.1f seconds.\n", itemCount, inputFile, outputFile, key,
+					(System.nanoTime() - start) / 1e9);
 		}
+		catch(IllegalArgumentException badKey) {
+			//error message specified in RetailItemExport.java
+			System.out.println(badKey.getMessage());
+		}
+		catch(IOException fileError) {
+			//error message if either file cannot be used
+			System.out.println("There was an error when handling the file.");
+		}
+	}
+	
+	/**
+	 * Prints how the items of one database file differ from another, using RetailItemReconcile.
+	 * 
+	 * @param oldFile text File holding the items as they were.
+	 * @param newFile text File holding the items as they are now.
+	 * @param batchFileName String representing the name of the file to write batch commands to that turn oldFile into newFile,
+	 * 		or null for no batch commands.
+	 */
+	public static void reconcileFiles(File oldFile, File newFile, String batchFileName) {
+		//variables
+		PrintWriter records = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+		PrintWriter batch = null;
 		
-		//closes PrintWriter
-		printWriter.close();
+		try {
+			if(batchFileName != null) {
+				batch = new PrintWriter(new BufferedWriter(new FileWriter(batchFileName)));
+			}
+			
+			System.out.println("Changes from " + oldFile + " to " + newFile + ":");
+			RetailItemReconcile.reconcile(oldFile, newFile, records, batch);
+			
+			//informs user the batch file was written
+			if(batch != null) {
+				System.out.println("Wrote the commands that make the changes to " + batchFileName + ".");
+			}
+		}
+		catch(IOException fileError) {
+			//error message if either file cannot be used
+			records.flush();
+			System.out.println("There was an error when handling the file.");
+		}
+		finally {
+			if(batch != null) {
+				batch.close();
+			}
+		}
+	}
+	
+	/**
+	 * Runs a file of commands with RetailItemBatch and writes its report.
+	 * 
+	 * @param batchFileName String representing the name of the file of commands, or "-" to read them from the keyboard.
+	 * @param reportFileName String representing the name of the file to write the report to, or null to print it.
+	 * 
+	 * @throws IOException May throw IOException if the commands cannot be read or the report cannot be written.
+	 */
+	public static void runBatch(String batchFileName, String reportFileName) throws IOException {
+		//variables
+		RetailItemReader commands;
+		PrintWriter report;
+		
+		if(batchFileName.equals("-")) {
+			commands = new RetailItemReader(System.in);
+		}
+		else {
+			commands = new RetailItemReader(new FileInputStream(batchFileName));
+		}
+		
+		if(reportFileName == null) {
+			report = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+		}
+		else {
+			report = new PrintWriter(new BufferedWriter(new FileWriter(reportFileName)));
+		}
+		
+		try {
+			RetailItemBatch.run(inventory, commands, report);
+		}
+		finally {
+			commands.close();
+			
+			//the screen is left open for the messages after the report
+			if(reportFileName == null) {
+				report.flush();
+			}
+			else {
+				report.close();
+			}
+		}
+	}
+	
+	/**
+	 * Prints the inventory report from the running totals, then lets user check it against a full recount of the items.
+	 * 
+	 * @param itemList ArrayList holding RetailItem objects.
+	 * @param userScnr Scanner used to get user input.
+	 */
+	public static void displayReport(RetailItemList itemList, Scanner userScnr) {
+		//variables
+		RetailItemAggregates.Totals totals = aggregates.getTotals();
+		RetailItemAggregates.Totals recounted;
+		String choice;
+		long start;
+		
+		System.out.println("Inventory report.\n");
+		System.out.println("Items: " + totals.getItemCount());
+		System.out.println("Total units on hand: " + totals.getTotalUnits());
+		System.out.printf("Total stock value: $%d.%02d\n", totals.getTotalValueCents() / 100, totals.getTotalValueCents() % 100);
+		System.out.printf("Average price: $%.2f\n\n", totals.getAveragePrice());
+		
+		//asks user if they want to check the report
+		System.out.println("Press \"v\" to check the report by counting every item again. Any other key will return you to the menu.");
+		
+		choice = userScnr.next();
+		
+		//clears Scanner in case user put anything else in
+		userScnr.nextLine();
+		
+		if(choice.equalsIgnoreCase("v")) {
+			start = System.nanoTime();
+			recounted = RetailItemAggregates.recount(itemList);
+			metrics.recordSince("recount", start);
+			
+			if(recounted.equals(totals)) {
+				System.out.printf("The report matches a full recount, which took %.1f ms.\n\n", (System.nanoTime() - start) / 1e6);
+			}
+			else {
+				//should never happen, but the recount is the one to trust
+				System.out.println("The report does not match a full recount: " + recounted + ".\n");
+			}
+		}
+	}
+	
+	/**
+	 * Prints how many times each operation was done and how long it took.
+	 */
+	public static void displayStatistics() {
+		System.out.println("Operation statistics since the program started.\n");
+		System.out.println(metrics.report());
+	}
+	
+	/**
+	 * Serves the inventory with RetailItemServer until the user presses Enter.
+	 * 
+	 * @param port integer representing the port to listen on, or 0 for any free port.
+	 * 
+	 * @throws IOException May throw IOException if the port cannot be used.
+	 */
+	public static void runServer(int port) throws IOException {
+		//variables
+		RetailItemServer server = new RetailItemServer(inventory, port);
+		
+		server.start();
+		System.out.println("Serving the inventory on port " + server.getPort() + ".");
+		System.out.println("Press Enter to stop the server and save.");
+		
+		//waits for the user, or for the end of the input if there is no keyboard
+		if(userScnr.hasNextLine()) {
+			userScnr.nextLine();
+		}
+		
+		server.close();
+		System.out.println("The server has stopped.");
+	}
+	
+	/**
+	 * Returns true if a number of units can be added to an item, removed from an item, or given to a new item.
+	 * Used by the menu and by RetailItemBatch so both check units the same way.
+	 * 
+	 * @param units integer representing a number of units.
+	 * 
+	 * @return true if units is greater than zero.
+	 */
+	public static boolean isValidUnits(int units) {
+		return units > 0;
+	}
+	
+	/**
+	 * Lets user search for items by the start of their description or by a description spelled almost right,
+	 * 		and prints the info of each item found.
+	 * 
+	 * @param itemList ArrayList holding RetailItem objects.
+	 * @param userScnr Scanner used to get user input.
+	 */
+	public static void searchItems(RetailItemList itemList, Scanner userScnr) {
+		//variables
+		String userInput;
+		List<String> suggestions;
+		long start;
+		
+		//prompts user for part of a description
+		System.out.println("Enter the start of a description, or a description you are not sure how to spell. Remember, no spaces.");
+		
+		userInput = userScnr.next();
+		
+		//clears Scanner in case user put anything else in
+		userScnr.nextLine();
+		
+		start = System.nanoTime();
+		suggestions = searchIndex(itemList).suggest(userInput, SUGGESTIONS);
+		metrics.recordSince("search", start);
+		
+		if(suggestions.isEmpty()) {
+			System.out.println("No items match \"" + userInput + "\". Returning to the menu.\n");
+		}
+		else {
+			System.out.println("Found " + suggestions.size() + " items matching \"" + userInput + "\", best match first.\n");
+			
+			for(String description : suggestions) {
+				itemList.get(findItem(itemList, description)).printInfo();
+			}
+		}
+	}
+	
+	/**
+	 * Returns the search index of the list, making it the first time it is needed so starting the program does not wait for it.
+	 * 
+	 * @param itemList ArrayList holding RetailItem objects.
+	 * 
+	 * @return the RetailItemSearchIndex of itemList.
+	 */
+	public static RetailItemSearchIndex searchIndex(RetailItemList itemList) {
+		if(searchIndex == null) {
+			searchIndex = RetailItemSearchIndex.of(itemList);
+		}
+		
+		return searchIndex;
+	}
+	
+	/**
+	 * Lets user find every item whose price is between two prices and prints them, cheapest first.
+	 * 
+	 * @param itemList ArrayList holding RetailItem objects.
+	 * @param userScnr Scanner used to get user input.
+	 */
+	public static void findItemsInPriceRange(RetailItemList itemList, Scanner userScnr) {
+		//variables
+		double lowestPrice;
+		double highestPrice;
+		long start;
+		List<RetailItem> items;
+		
+		lowestPrice = askForNumber(userScnr, "What is the lowest price to look for? Number only.", false);
+		
+		if(Double.isNaN(lowestPrice)) {
+			return;
+		}
+		
+		highestPrice = askForNumber(userScnr, "What is the highest price to look for? Number only.", false);
+		
+		if(Double.isNaN(highestPrice)) {
+			return;
+		}
+		
+		start = System.nanoTime();
+		items = rangeIndex(itemList).priceRange(lowestPrice, highestPrice);
+		metrics.recordSince("price range", start);
+		
+		System.out.printf("Retail items from $%.2f to $%.2f, cheapest first.\n\n", lowestPrice, highestPrice);
+		printItems(items);
+	}
+	
+	/**
+	 * Lets user find every item with fewer units on hand than a number and prints them, fewest units first.
+	 * 
+	 * @param itemList ArrayList holding RetailItem objects.
+	 * @param userScnr Scanner used to get user input.
+	 */
+	public static void findLowStockItems(RetailItemList itemList, Scanner userScnr) {
+		//variables
+		double threshold = askForNumber(userScnr, "Show items with fewer units on hand than what number? Whole number only.", true);
+		long start;
+		List<RetailItem> items;
+		
+		if(Double.isNaN(threshold)) {
+			return;
+		}
+		
+		start = System.nanoTime();
+		items = rangeIndex(itemList).unitsBelow((int) threshold);
+		metrics.recordSince("low stock", start);
+		
+		System.out.println("Retail items with fewer than " + (int) threshold + " units on hand, fewest first.\n");
+		printItems(items);
+	}
+	
+	/**
+	 * Lets user choose how many items to see and prints the items with the fewest units on hand.
+	 * 
+	 * @param itemList ArrayList holding RetailItem objects.
+	 * @param userScnr Scanner used to get user input.
+	 */
+	public static void displayFewestUnits(RetailItemList itemList, Scanner userScnr) {
+		//variables
+		double count = askForNumber(userScnr, "How many items would you like to see? Whole number only.", true);
+		long start;
+		List<RetailItem> items;
+		
+		if(Double.isNaN(count)) {
+			return;
+		}
+		
+		start = System.nanoTime();
+		items = rangeIndex(itemList).fewestUnits((int) count);
+		metrics.recordSince("fewest units", start);
+		
+		System.out.println("The " + (int) count + " retail items with the fewest units on hand, fewest first.\n");
+		printItems(items);
+	}
+	
+	/**
+	 * Prints the info of every item in a list, followed by how many there were.
+	 * 
+	 * @param items List of the items to print.
+	 */
+	public static void printItems(List<RetailItem> items) {
+		printItems(items, 0, items.size(), false);
+		
+		System.out.println(items.size() + " items found. Returning to the menu.\n");
+	}
+	
+	/**
+	 * Asks user for a number that is 0 or more, giving them 5 more tries if it is not valid.
+	 * 
+	 * @param userScnr Scanner used to get user input.
+	 * @param prompt String asking for the number.
+	 * @param wholeNumber true if the number cannot have decimals.
+	 * 
+	 * @return a double representing the number, or NaN if the user ran out of tries.
+	 */
+	public static double askForNumber(Scanner userScnr, String prompt, boolean wholeNumber) {
+		//variables
+		int counter = 0;
+		double number;
+		String userInput;
+		
+		while(counter <= 5) {
+			System.out.println(prompt);
+			
+			userInput = userScnr.next();
+			
+			//clears Scanner in case user input something else
+			userScnr.nextLine();
+			
+			//creates Scanner for user input
+			//done for bad data handling
+			Scanner inputScnr = new Scanner(userInput);
+			
+			if(wholeNumber ? inputScnr.hasNextInt() : inputScnr.hasNextDouble()) {
+				number = wholeNumber ? inputScnr.nextInt() : inputScnr.nextDouble();
+				
+				if(number >= 0) {
+					inputScnr.close();
+					
+					return number;
+				}
+			}
+			
+			inputScnr.close();
+			
+			//error message for user if they input a bad value
+			System.out.println("\"" + userInput + "\" is not a valid number. It needs to be 0 or more" + (wholeNumber ? " without decimals." : "."));
+			
+			//informs user how many tries they have left
+			System.out.println("You have " + (5 - counter) + " more tries.\n");
+			
+			++counter;
+		}
+		
+		//message only displays if user runs out of tries
+		System.out.println("You have failed to input a valid number. Returning to the menu.\n");
+		
+		return Double.NaN;
+	}
+	
+	/**
+	 * Returns the price and units on hand indexes of the list, making them the first time they are needed.
+	 * 
+	 * @param itemList ArrayList holding RetailItem objects.
+	 * 
+	 * @return the RetailItemRangeIndex of itemList.
+	 */
+	public static RetailItemRangeIndex rangeIndex(RetailItemList itemList) {
+		if(rangeIndex == null) {
+			rangeIndex = new RetailItemRangeIndex(itemList);
+		}
+		
+		return rangeIndex;
 	}
 	
 	/**
@@ -963,7 +1996,9 @@ public class RetailItemManager {
 	}
 	
 	/**
-	 * Iterates through itemList to try and find an item by the description.
+	 * Uses the description index of itemList to try and find an item by the description, ignoring case.
+	 * When the database was opened with --lazy, an item that has not been looked up yet is read from the file into itemList.
+	 * Once the database is loaded, descriptionFilter answers most lookups of new descriptions before either is looked at.
 	 * 
 	 * @param itemList ArrayList holding RetailItem objects.
 	 * @param userInput String representing the item a user wants to find.
@@ -971,18 +2006,25 @@ public class RetailItemManager {
 	 * @return an integer representing the index an item was found at.
 	 * 			Returns -1 if item was not found.
 	 */
-	public static int findItem(ArrayList<RetailItem> itemList, String userInput) {
+	public static int findItem(RetailItemList itemList, String userInput) {
 		//variables
-		int i;
+		long start = System.nanoTime();
+		int hash = RetailItemIndex.hash(userInput);
+		int indexFound = -1;
 		
-		//iterates through itemList trying to find the item
-		for(i = 0; i < itemList.size(); ++i) {
-			if(itemList.get(i).getDescription().equalsIgnoreCase(userInput)) {
-				return i;
+		//a description the filter has never seen is new, so neither the list nor the file is looked at
+		if(descriptionFilter == null || descriptionFilter.mightContain(hash)) {
+			//looks up the case-folded description instead of going through the whole list
+			indexFound = itemList.indexOfDescription(userInput, hash);
+			
+			//reads the item from the file if it has not been looked up before
+			if(indexFound < 0 && lazyDatabase != null) {
+				indexFound = lazyDatabase.materialize(userInput);
 			}
 		}
 		
-		//default return
-		return -1;
+		metrics.recordSince("lookup", start);
+		
+		return indexFound;
 	} 
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+/**
+ * This class keeps a RetailItemTimer for every kind of operation the program does, such as loading, saving, a lookup, or a search.
+ * A timer is made the first time its operation is timed and is registered with JMX, so the same numbers can be watched with JConsole.
+ * The report prints the count, operations per second, median, 99th percentile, and longest time of every timer.
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+public class RetailItemMetrics {
+
+	/**
+	 * long startNanos System.nanoTime() when the metrics were started.
+	 * Map timers timers by operation name, sorted so the report is in the same order every time.
+	 */
+	private long startNanos = System.nanoTime();
+	private Map<String, RetailItemTimer> timers = new ConcurrentSkipListMap<String, RetailItemTimer>();
+
+	/**
+	 * Returns the timer of an operation, making it the first time.
+	 * Finding a timer that already exists does not make any objects.
+	 *
+	 * @param name String representing the name of the operation.
+	 *
+	 * @return the RetailItemTimer of the operation.
+	 */
+	public RetailItemTimer timer(String name) {
+		//variables
+		RetailItemTimer timer = timers.get(name);
+
+		if(timer == null) {
+			timer = newTimer(name);
+		}
+
+		return timer;
+	}
+
+	/**
+	 * Records how long an operation took, from a start time to now.
+	 *
+	 * @param name String representing the name of the operation.
+	 * @param operationStartNanos long representing System.nanoTime() when the operation started.
+	 */
+	public void recordSince(String name, long operationStartNanos) {
+		//the time is taken first, so making a new timer is not counted
+		long nanos = System.nanoTime() - operationStartNanos;
+
+		timer(name).record(nanos);
+	}
+
+	/**
+	 * Returns a table of every timer, one line for each operation.
+	 *
+	 * @return a String holding the table, with a line separator after each line.
+	 */
+	public String report() {
+		//variables
+		StringBuilder table = new StringBuilder();
+
+		table.append(String.format("%-20s %10s %12s %12s %12s %12s\n", "operation", "count", "ops/sec", "p50 us", "p99 us", "max us"));
+
+		for(RetailItemTimer timer : timers.values()) {
+			table.append(String.format("%-20s %10d %12.2f %12.1f %12.1f %12.1f\n", timer.getName(), timer.getCount(),
+					timer.getOperationsPerSecond(), timer.getMedianMicros(), timer.getPercentile99Micros(), timer.getMaxMicros()));
+		}
+
+		return table.toString();
+	}
+
+	//helper methods
+	/**
+	 * Makes the timer of an operation and registers it with JMX, unless another thread just made it.
+	 *
+	 * @param name String representing the name of the operation.
+	 *
+	 * @return the RetailItemTimer of the operation.
+	 */
+	private synchronized RetailItemTimer newTimer(String name) {
+		//variables
+		RetailItemTimer timer = timers.get(name);
+
+		if(timer != null) {
+			return timer;
+		}
+
+		timer = new RetailItemTimer(name, startNanos);
+		timers.put(name, timer);
+
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(timer,
+					new ObjectName("RetailItemManager:type=Operation,name=" + ObjectName.quote(name)));
+		}
+		catch(JMException | SecurityException notRegistered) {
+			//the timer still works, it just cannot be seen with JMX
+		}
+
+		return timer;
+	}
+}
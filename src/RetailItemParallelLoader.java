@@ -0,0 +1,273 @@
+/**
+ * This class loads a database file on several threads at once.
+ * The file is memory-mapped and split into chunks that each start at the beginning of a line.
+ * Each chunk is read into RetailItem objects by its own task on a fork-join pool, and the items are then added to the list
+ * 		in the same order as the file. Lines with bad data are reported the same way as RetailItemManager.createArrayList reports them.
+ *
+ * Only the parsing is done in parallel. Adding the items to the store, the index, and the listeners of the list is done
+ * 		by the thread that called load, one chunk at a time, while the tasks of later chunks keep parsing.
+ * A chunk's items are kept as objects until they are added, so at most CHUNKS_IN_FLIGHT_PER_THREAD chunks for each thread
+ * 		are read ahead of the one being added, and each chunk's list is let go as soon as it has been added.
+ * The extra memory is therefore a few chunks' worth of objects instead of a second copy of the whole file.
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class RetailItemParallelLoader {
+
+	/**
+	 * int MIN_CHUNK_SIZE smallest chunk given to a task, so small files are not split into tiny pieces.
+	 * int MAX_CHUNK_SIZE largest chunk given to a task, kept well under the 2GB a single mapping can hold.
+	 * int CHUNKS_PER_THREAD chunks made for each thread, so the chunks read ahead of the one being added are a small part of the file.
+	 * int CHUNKS_IN_FLIGHT_PER_THREAD most chunks for each thread that are being read or waiting to be added at once.
+	 */
+	private static final int MIN_CHUNK_SIZE = 1024 * 1024;
+	private static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+	private static final int CHUNKS_PER_THREAD = 16;
+	private static final int CHUNKS_IN_FLIGHT_PER_THREAD = 2;
+
+	/**
+	 * Reads every line of itemFile on a fork-join pool and adds the items to itemList in file order.
+	 *
+	 * @param itemList RetailItemList used to hold RetailItem objects.
+	 * @param itemFile File used to take data and create RetailItem objects.
+	 *
+	 * @throws IOException May throw IOException when opening, mapping or reading itemFile.
+	 */
+	public static void load(RetailItemList itemList, File itemFile) throws IOException {
+		//variables
+		int threads = ForkJoinPool.getCommonPoolParallelism();
+		int nextChunk = 0;
+		long[] chunkStarts;
+		ArrayDeque<Future<ChunkResult>> inFlight = new ArrayDeque<Future<ChunkResult>>();
+		ChunkResult result;
+
+		FileChannel channel = FileChannel.open(itemFile.toPath(), StandardOpenOption.READ);
+
+		try {
+			chunkStarts = findChunkStarts(channel, threads);
+
+			//adds items and prints bad lines in file order, starting a new chunk each time one is added
+			while(nextChunk + 1 < chunkStarts.length || !inFlight.isEmpty()) {
+				while(nextChunk + 1 < chunkStarts.length && inFlight.size() < threads * CHUNKS_IN_FLIGHT_PER_THREAD) {
+					inFlight.add(startChunk(channel, chunkStarts[nextChunk], chunkStarts[nextChunk + 1]));
+					++nextChunk;
+				}
+
+				result = getResult(inFlight.poll());
+
+				for(String badData : result.badData) {
+					//error message specified in RetailItem.java
+					System.out.println(badData);
+
+					//message informing user record was not added to list
+					System.out.println("Deleted record input.\n");
+				}
+
+				//the first chunk tells about how many items the file holds, so the list only grows once
+				if(result.start == 0 && result.end > 0) {
+					itemList.ensureCapacity((int) Math.min(Integer.MAX_VALUE - 8,
+							itemList.size() + (long) result.items.size() * channel.size() / result.end));
+				}
+
+				itemList.addAll(result.items);
+			}
+		}
+		finally {
+			//tasks that are still running are not needed once loading has failed
+			for(Future<ChunkResult> future : inFlight) {
+				future.cancel(true);
+			}
+
+			channel.close();
+		}
+	}
+
+	/**
+	 * Splits the file into chunks that each start at the beginning of a line.
+	 *
+	 * @param channel FileChannel of the file being loaded.
+	 * @param threads integer representing how many threads will read the chunks.
+	 *
+	 * @return an array of longs holding the start of each chunk, followed by the size of the file.
+	 *
+	 * @throws IOException May throw IOException when reading the file.
+	 */
+	private static long[] findChunkStarts(FileChannel channel, int threads) throws IOException {
+		//variables
+		long fileSize = channel.size();
+		long chunkSize = fileSize / Math.max(1, threads * CHUNKS_PER_THREAD);
+		long nextStart = 0;
+		ArrayList<Long> chunkStarts = new ArrayList<Long>();
+		long[] starts;
+		ByteBuffer probe = ByteBuffer.allocate(4096);
+
+		chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, chunkSize));
+
+		while(nextStart < fileSize) {
+			chunkStarts.add(nextStart);
+			nextStart = findLineStart(channel, nextStart + chunkSize, probe);
+		}
+
+		chunkStarts.add(fileSize);
+
+		starts = new long[chunkStarts.size()];
+
+		for(int i = 0; i < starts.length; ++i) {
+			starts[i] = chunkStarts.get(i);
+		}
+
+		return starts;
+	}
+
+	/**
+	 * Returns the position of the first line that starts at or after a position in the file.
+	 *
+	 * @param channel FileChannel of the file being loaded.
+	 * @param position long representing where to start looking.
+	 * @param probe ByteBuffer used to read the file while looking.
+	 *
+	 * @return a long representing the start of the line, or the size of the file if there are no more lines.
+	 *
+	 * @throws IOException May throw IOException when reading the file.
+	 */
+	private static long findLineStart(FileChannel channel, long position, ByteBuffer probe) throws IOException {
+		//variables
+		int bytesRead;
+
+		if(position >= channel.size()) {
+			return channel.size();
+		}
+
+		//the byte before position tells if a line starts exactly at position
+		--position;
+
+		while(true) {
+			probe.clear();
+			bytesRead = channel.read(probe, position);
+
+			if(bytesRead < 0) {
+				return channel.size();
+			}
+
+			for(int i = 0; i < bytesRead; ++i) {
+				if(probe.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+
+			position += bytesRead;
+		}
+	}
+
+	/**
+	 * Starts a task on the fork-join pool that reads one chunk.
+	 *
+	 * @param channel FileChannel of the file being loaded.
+	 * @param start long representing the start of the chunk.
+	 * @param end long representing the end of the chunk.
+	 *
+	 * @return a Future of the ChunkResult of the chunk.
+	 */
+	private static Future<ChunkResult> startChunk(FileChannel channel, long start, long end) {
+		return ForkJoinPool.commonPool().submit(new Callable<ChunkResult>() {
+			@Override
+			public ChunkResult call() throws IOException {
+				return readChunk(channel, start, end);
+			}
+		});
+	}
+
+	/**
+	 * Maps one chunk of the file and reads every line in it.
+	 *
+	 * @param channel FileChannel of the file being loaded.
+	 * @param start long representing the start of the chunk.
+	 * @param end long representing the end of the chunk.
+	 *
+	 * @return a ChunkResult holding the items and bad data messages of the chunk, in file order.
+	 *
+	 * @throws IOException May throw IOException when mapping the chunk, or if the chunk is too big to map.
+	 */
+	private static ChunkResult readChunk(FileChannel channel, long start, long end) throws IOException {
+		//variables
+		ChunkResult result = new ChunkResult(start, end);
+		MappedByteBuffer chunk;
+		RetailItemReader chunkReader;
+		RetailItem item;
+
+		if(end - start > Integer.MAX_VALUE) {
+			throw new IOException("A line starting at byte " + start + " is too long to load.");
+		}
+
+		chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+		chunkReader = new RetailItemReader(chunk, 0, (int) (end - start));
+
+		while(chunkReader.hasNextLine()) {
+			chunkReader.nextLine();
+
+			item = new RetailItem();
+
+			try {
+				//may throw IllegalArgumentException, including for a price the list cannot store
+				item.readData(chunkReader);
+
+				result.items.add(item);
+			}
+			catch(IllegalArgumentException badData) {
+				//kept to print once all chunks are done
+				result.badData.add(badData.toString());
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the result of a finished task, passing on an IOException it threw.
+	 *
+	 * @param future Future of the task.
+	 *
+	 * @return the ChunkResult of the task.
+	 *
+	 * @throws IOException if the task threw an IOException or was interrupted.
+	 */
+	private static ChunkResult getResult(Future<ChunkResult> future) throws IOException {
+		try {
+			return future.get();
+		}
+		catch(ExecutionException taskError) {
+			if(taskError.getCause() instanceof IOException) {
+				throw (IOException) taskError.getCause();
+			}
+
+			throw new IOException(taskError.getCause());
+		}
+		catch(InterruptedException interrupted) {
+			Thread.currentThread().interrupt();
+
+			throw new InterruptedIOException("Loading was interrupted.");
+		}
+	}
+
+	/**
+	 * Holds the items and bad data messages read from one chunk, and where the chunk is in the file.
+	 */
+	private static class ChunkResult {
+		long start;
+		long end;
+		ArrayList<RetailItem> items = new ArrayList<RetailItem>();
+		ArrayList<String> badData = new ArrayList<String>();
+
+		ChunkResult(long chunkStart, long chunkEnd) {
+			start = chunkStart;
+			end = chunkEnd;
+		}
+	}
+}
@@ -0,0 +1,199 @@
+/**
+ * This class keeps the items of a RetailItemList sorted by price and by units on hand, so items in a price range
+ * 		or items low on stock are found without going through the whole list.
+ * It is a listener of the list, so every change to a price or to units on hand moves the item to its new place in the order.
+ *
+ * Each index is a TreeSet of entries holding a value and the slot of the item. Entries with the same value are sorted by slot.
+ * A query finds the first entry in the range in logarithmic time, then reads entries in order until it has what it needs.
+ *
+ * The copy of a removed item does not say which slot it was in, so the entries of removed items stay in the indexes
+ * 		and are skipped by the queries, which check that the slot still holds an item with the value of the entry.
+ * Once there are more of those entries than items, the indexes are built again from the list.
+ *
+ * All methods are synchronized, so the indexes can be used while other threads change the list.
+ */
+
+import java.util.*;
+
+public class RetailItemRangeIndex implements RetailItemListener {
+
+	/**
+	 * int MIN_REBUILD least number of removed items before the indexes are built again.
+	 */
+	private static final int MIN_REBUILD = 1024;
+
+	/**
+	 * RetailItemList itemList list being indexed.
+	 * TreeSet byPrice entries of the price in cents of every item.
+	 * TreeSet byUnits entries of the units on hand of every item.
+	 * int removedItems number of items removed since the indexes were built, whose entries may still be in them.
+	 */
+	private RetailItemList itemList;
+	private TreeSet<Entry> byPrice = new TreeSet<Entry>();
+	private TreeSet<Entry> byUnits = new TreeSet<Entry>();
+	private int removedItems = 0;
+
+	/**
+	 * Creates the indexes of a list and starts listening to the list for changes.
+	 *
+	 * @param items RetailItemList to index.
+	 */
+	public RetailItemRangeIndex(RetailItemList items) {
+		itemList = items;
+		rebuild();
+		itemList.addListener(this);
+	}
+
+	/**
+	 * Returns the items whose price is between two prices, including both, cheapest first.
+	 *
+	 * @param lowestPrice double representing the lowest price.
+	 * @param highestPrice double representing the highest price.
+	 *
+	 * @return a List of the items found.
+	 */
+	public synchronized List<RetailItem> priceRange(double lowestPrice, double highestPrice) {
+		//variables
+		long lowestCents = (long) Math.ceil(Math.max(0, lowestPrice) * 100 - 1e-6);
+		long highestCents = (long) Math.floor(Math.min(highestPrice, Long.MAX_VALUE / 100.0) * 100 + 1e-6);
+
+		if(lowestCents > highestCents) {
+			return new ArrayList<RetailItem>();
+		}
+
+		return itemsOf(byPrice.subSet(new Entry(lowestCents, Integer.MIN_VALUE), true, new Entry(highestCents, Integer.MAX_VALUE), true), Integer.MAX_VALUE, true);
+	}
+
+	/**
+	 * Returns the items with fewer units on hand than a threshold, fewest first.
+	 *
+	 * @param threshold integer representing the number of units.
+	 *
+	 * @return a List of the items found.
+	 */
+	public synchronized List<RetailItem> unitsBelow(int threshold) {
+		return itemsOf(byUnits.headSet(new Entry(threshold, Integer.MIN_VALUE), false), Integer.MAX_VALUE, false);
+	}
+
+	/**
+	 * Returns the items with the fewest units on hand, fewest first.
+	 *
+	 * @param count integer representing the most items to return.
+	 *
+	 * @return a List of the items found.
+	 */
+	public synchronized List<RetailItem> fewestUnits(int count) {
+		return itemsOf(byUnits, count, false);
+	}
+
+	//listener methods
+	@Override
+	public synchronized void itemAdded(RetailItem item) {
+		//variables
+		int slot = ((RetailItemView) item).getSlot();
+
+		byPrice.add(new Entry(itemList.priceCentsAt(slot), slot));
+		byUnits.add(new Entry(itemList.unitsOnHandAt(slot), slot));
+	}
+
+	@Override
+	public synchronized void itemRemoved(RetailItem item) {
+		//the entries are skipped from now on, and dropped when the indexes are built again
+		++removedItems;
+
+		if(removedItems >= MIN_REBUILD && removedItems > itemList.size()) {
+			rebuild();
+		}
+	}
+
+	@Override
+	public synchronized void unitsChanged(RetailItem item, int oldUnitsOnHand) {
+		//variables
+		int slot = ((RetailItemView) item).getSlot();
+
+		byUnits.remove(new Entry(oldUnitsOnHand, slot));
+		byUnits.add(new Entry(itemList.unitsOnHandAt(slot), slot));
+	}
+
+	@Override
+	public synchronized void priceChanged(RetailItem item, long oldPriceCents) {
+		//variables
+		int slot = ((RetailItemView) item).getSlot();
+
+		byPrice.remove(new Entry(oldPriceCents, slot));
+		byPrice.add(new Entry(itemList.priceCentsAt(slot), slot));
+	}
+
+	/**
+	 * A value of an item and the slot of the item, sorted by value and then by slot.
+	 */
+	private static class Entry implements Comparable<Entry> {
+		private long value;
+		private int slot;
+
+		Entry(long entryValue, int entrySlot) {
+			value = entryValue;
+			slot = entrySlot;
+		}
+
+		@Override
+		public int compareTo(Entry other) {
+			if(value != other.value) {
+				return Long.compare(value, other.value);
+			}
+
+			return Integer.compare(slot, other.slot);
+		}
+	}
+
+	//helper methods
+	/**
+	 * Builds both indexes from the items in the list.
+	 */
+	private void rebuild() {
+		//variables
+		int slot;
+
+		byPrice.clear();
+		byUnits.clear();
+		removedItems = 0;
+
+		for(int i = 0; i < itemList.size(); ++i) {
+			slot = ((RetailItemView) itemList.get(i)).getSlot();
+			byPrice.add(new Entry(itemList.priceCentsAt(slot), slot));
+			byUnits.add(new Entry(itemList.unitsOnHandAt(slot), slot));
+		}
+	}
+
+	/**
+	 * Returns the items of entries in order, skipping entries left behind by removed items.
+	 *
+	 * @param entries Set of entries, in order.
+	 * @param count integer representing the most items to return.
+	 * @param prices true if the entries hold prices in cents, false if they hold units on hand.
+	 *
+	 * @return a List of the items.
+	 */
+	private List<RetailItem> itemsOf(Set<Entry> entries, int count, boolean prices) {
+		//variables
+		List<RetailItem> items = new ArrayList<RetailItem>();
+		long currentValue;
+
+		for(Entry entry : entries) {
+			if(items.size() >= count) {
+				break;
+			}
+
+			if(itemList.holdsItem(entry.slot)) {
+				currentValue = prices ? itemList.priceCentsAt(entry.slot) : itemList.unitsOnHandAt(entry.slot);
+
+				//a slot used again by a newer item has its own entry
+				if(currentValue == entry.value) {
+					items.add(itemList.get(itemList.positionOf(entry.slot)));
+				}
+			}
+		}
+
+		return items;
+	}
+}
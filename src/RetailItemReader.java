@@ -0,0 +1,638 @@
+/**
+ * This class reads a database file one line at a time without creating a Scanner for every line.
+ * It reads the file into a reusable byte buffer and splits each line into tokens the same way Scanner does,
+ * 		so RetailItem.readData can use it in place of a Scanner.
+ * Numbers that are written the way RetailItem.writeData writes them are parsed without regular expressions.
+ * Anything else falls back to a Scanner for that one token so the validation rules do not change.
+ * Like a Scanner, it reads decimals with the decimal separator of the default locale, so a number with a decimal point
+ * 		is only parsed without a Scanner when the decimal separator is '.'.
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.*;
+import java.text.DecimalFormatSymbols;
+import java.util.*;
+
+public class RetailItemReader implements Closeable {
+
+	/**
+	 * int BUFFER_SIZE starting size of the buffer when reading from a stream.
+	 * int MAX_FAST_DIGITS most digits a price can have and still be parsed exactly without Double.parseDouble.
+	 * double[] POWERS_OF_TEN powers of ten that are exact as doubles.
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int MAX_FAST_DIGITS = 15;
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	/**
+	 * InputStream input stream the buffer is filled from, null when reading a region of a buffer.
+	 * Charset charset character set used to turn descriptions into Strings.
+	 * ByteBuffer buffer bytes being read.
+	 * int position index of the first byte that has not been read as a line yet.
+	 * int limit index after the last valid byte in the buffer.
+	 * int lineStart index of the first byte of the current line.
+	 * int lineEnd index after the last byte of the current line.
+	 * int cursor index of the next byte to tokenize in the current line.
+	 * boolean endOfInput true once there is nothing left to put in the buffer.
+	 * boolean skipLineFeed true if the last line ended with '\r', so a '\n' right after it is part of the line separator.
+	 * boolean decimalPoint true if the default locale separates decimals with '.', so the fast path of hasNextDouble can read a decimal point.
+	 */
+	private InputStream input;
+	private Charset charset;
+	private ByteBuffer buffer;
+	private int position;
+	private int limit;
+	private int lineStart;
+	private int lineEnd;
+	private int cursor;
+	private boolean endOfInput;
+	private boolean skipLineFeed;
+	private boolean decimalPoint = decimalSeparatorIsPoint();
+
+	/**
+	 * int intCursor cursor hasNextInt was last called at, -1 if none.
+	 * int intTokenEnd end of the token hasNextInt last read.
+	 * int intValue value hasNextInt last read.
+	 * int doubleCursor cursor hasNextDouble was last called at, -1 if none.
+	 * int doubleTokenEnd end of the token hasNextDouble last read.
+	 * double doubleValue value hasNextDouble last read.
+	 * boolean centsRead true if the value hasNextDouble last read was written with plain digits and was also read as cents.
+	 * long centsValue value hasNextDouble last read in cents, rounded half up to two decimals, if centsRead is true.
+	 */
+	private int intCursor = -1;
+	private int intTokenEnd;
+	private int intValue;
+	private int doubleCursor = -1;
+	private int doubleTokenEnd;
+	private double doubleValue;
+	private boolean centsRead;
+	private long centsValue;
+
+	/**
+	 * Creates a RetailItemReader that reads lines from a stream using the default character set, the same as Scanner.
+	 *
+	 * @param inputStream InputStream to read lines from.
+	 */
+	public RetailItemReader(InputStream inputStream) {
+		input = inputStream;
+		charset = Charset.defaultCharset();
+		buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		position = 0;
+		limit = 0;
+		endOfInput = false;
+	}
+
+	/**
+	 * Creates a RetailItemReader that reads the lines between two indexes of a buffer that is already filled.
+	 *
+	 * @param byteBuffer ByteBuffer holding the lines.
+	 * @param start integer representing the index of the first byte to read.
+	 * @param end integer representing the index after the last byte to read.
+	 */
+	public RetailItemReader(ByteBuffer byteBuffer, int start, int end) {
+		input = null;
+		charset = Charset.defaultCharset();
+		buffer = byteBuffer;
+		position = start;
+		limit = end;
+		endOfInput = true;
+	}
+
+	//line methods
+	/**
+	 * Returns true if there is another line to read.
+	 *
+	 * @return true if there is another line to read.
+	 *
+	 * @throws IOException if the stream cannot be read.
+	 */
+	public boolean hasNextLine() throws IOException {
+		if(position == limit && !endOfInput) {
+			fill();
+		}
+
+		//a '\n' right after a '\r' belongs to the last line
+		if(skipLineFeed && position < limit) {
+			if(buffer.get(position) == '\n') {
+				++position;
+
+				if(position == limit && !endOfInput) {
+					fill();
+				}
+			}
+
+			skipLineFeed = false;
+		}
+
+		return position < limit;
+	}
+
+	/**
+	 * Moves to the next line. The token methods read from this line until nextLine is called again.
+	 *
+	 * @throws IOException if the stream cannot be read.
+	 * @throws NoSuchElementException if there are no more lines.
+	 */
+	public void nextLine() throws IOException {
+		//variables
+		int scan;
+		int unreadStart;
+		byte nextByte;
+
+		if(!hasNextLine()) {
+			throw new NoSuchElementException("No line found");
+		}
+
+		scan = position;
+
+		//looks for the end of the line, reading more of the stream if needed
+		while(true) {
+			while(scan < limit) {
+				nextByte = buffer.get(scan);
+
+				if(nextByte == '\n' || nextByte == '\r') {
+					break;
+				}
+
+				++scan;
+			}
+
+			if(scan < limit || endOfInput) {
+				break;
+			}
+
+			//fill moves the unread bytes to the start of the buffer
+			unreadStart = position;
+			fill();
+			scan -= unreadStart;
+		}
+
+		lineStart = position;
+		cursor = position;
+		lineEnd = scan;
+		intCursor = -1;
+		doubleCursor = -1;
+
+		//skips the line separator
+		if(scan < limit) {
+			skipLineFeed = buffer.get(scan) == '\r';
+			position = scan + 1;
+		}
+		else {
+			position = scan;
+		}
+	}
+
+	/**
+	 * Moves the unread bytes to the start of the buffer and reads more of the stream after them.
+	 * Makes the buffer bigger if a line does not fit in it.
+	 *
+	 * @throws IOException if the stream cannot be read.
+	 */
+	private void fill() throws IOException {
+		//variables
+		int bytesRead;
+		byte[] bytes = buffer.array();
+
+		if(position > 0) {
+			System.arraycopy(bytes, position, bytes, 0, limit - position);
+			limit -= position;
+			position = 0;
+		}
+		else if(limit == bytes.length) {
+			bytes = Arrays.copyOf(bytes, bytes.length * 2);
+			buffer = ByteBuffer.wrap(bytes);
+		}
+
+		do {
+			bytesRead = input.read(bytes, limit, bytes.length - limit);
+		} while(bytesRead == 0);
+
+		if(bytesRead < 0) {
+			endOfInput = true;
+		}
+		else {
+			limit += bytesRead;
+		}
+	}
+
+	/**
+	 * Returns where the current line starts.
+	 * When reading a region of a buffer this is the index of the line in the buffer, so the line can be found again later.
+	 *
+	 * @return an integer representing the index of the first byte of the current line.
+	 */
+	public int currentLineStart() {
+		return lineStart;
+	}
+
+	/**
+	 * Returns the whole current line, without its line separator.
+	 *
+	 * @return a String representing the current line.
+	 */
+	public String currentLine() {
+		return decode(lineStart, lineEnd);
+	}
+
+	//token methods
+	/**
+	 * Returns true if the current line has another token.
+	 *
+	 * @return true if the current line has another token.
+	 */
+	public boolean hasNext() {
+		//skips whitespace before the token
+		while(cursor < lineEnd && isWhitespace(buffer.get(cursor))) {
+			++cursor;
+		}
+
+		return cursor < lineEnd;
+	}
+
+	/**
+	 * Returns the next token in the current line.
+	 *
+	 * @return a String representing the next token in the current line.
+	 *
+	 * @throws NoSuchElementException if there are no more tokens in the line.
+	 */
+	public String next() {
+		//variables
+		int tokenEnd;
+		String token;
+
+		if(!hasNext()) {
+			throw new NoSuchElementException();
+		}
+
+		tokenEnd = findTokenEnd();
+		token = decode(cursor, tokenEnd);
+		cursor = tokenEnd;
+
+		return token;
+	}
+
+	/**
+	 * Returns true if the next token in the current line is an integer, the same as Scanner.hasNextInt.
+	 *
+	 * @return true if the next token in the current line is an integer.
+	 */
+	public boolean hasNextInt() {
+		//variables
+		int tokenEnd;
+		int scan;
+		long value = 0;
+		boolean negative = false;
+		Scanner tokenScnr;
+
+		if(!hasNext()) {
+			return false;
+		}
+
+		//value was already read at this cursor
+		if(intCursor == cursor) {
+			return true;
+		}
+
+		tokenEnd = findTokenEnd();
+		scan = cursor;
+
+		if(buffer.get(scan) == '-' || buffer.get(scan) == '+') {
+			negative = buffer.get(scan) == '-';
+			++scan;
+		}
+
+		//plain whole numbers of up to ten digits are read here
+		if(scan < tokenEnd && tokenEnd - scan <= 10 && isDigits(scan, tokenEnd)) {
+			while(scan < tokenEnd) {
+				value = value * 10 + (buffer.get(scan) - '0');
+				++scan;
+			}
+
+			if(negative) {
+				value = -value;
+			}
+
+			if(value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+				setIntToken((int) value, tokenEnd);
+
+				return true;
+			}
+		}
+
+		//anything else is checked by a Scanner
+		tokenScnr = new Scanner(decode(cursor, tokenEnd));
+
+		if(tokenScnr.hasNextInt()) {
+			setIntToken(tokenScnr.nextInt(), tokenEnd);
+			tokenScnr.close();
+
+			return true;
+		}
+
+		tokenScnr.close();
+
+		return false;
+	}
+
+	/**
+	 * Returns the next token in the current line as an integer.
+	 *
+	 * @return an integer representing the next token.
+	 *
+	 * @throws InputMismatchException if the next token is not an integer.
+	 */
+	public int nextInt() {
+		if(!hasNextInt()) {
+			throw new InputMismatchException();
+		}
+
+		cursor = intTokenEnd;
+
+		return intValue;
+	}
+
+	/**
+	 * Returns true if the next token in the current line is a double, the same as Scanner.hasNextDouble.
+	 *
+	 * @return true if the next token in the current line is a double.
+	 */
+	public boolean hasNextDouble() {
+		//variables
+		int tokenEnd;
+		int scan;
+		int digits = 0;
+		int decimals = 0;
+		long mantissa = 0;
+		boolean negative = false;
+		boolean pointRead = false;
+		boolean fast = true;
+		byte nextByte;
+		Scanner tokenScnr;
+
+		if(!hasNext()) {
+			return false;
+		}
+
+		//value was already read at this cursor
+		if(doubleCursor == cursor) {
+			return true;
+		}
+
+		tokenEnd = findTokenEnd();
+		scan = cursor;
+
+		if(buffer.get(scan) == '-' || buffer.get(scan) == '+') {
+			negative = buffer.get(scan) == '-';
+			++scan;
+		}
+
+		//reads digits with at most one decimal point
+		while(scan < tokenEnd && fast) {
+			nextByte = buffer.get(scan);
+
+			if(nextByte >= '0' && nextByte <= '9') {
+				mantissa = mantissa * 10 + (nextByte - '0');
+				++digits;
+
+				if(pointRead) {
+					++decimals;
+				}
+			}
+			else if(nextByte == '.' && !pointRead && decimalPoint) {
+				//a Scanner would read '.' as something else, such as the grouping separator of de_DE
+				pointRead = true;
+			}
+			else {
+				fast = false;
+			}
+
+			++scan;
+		}
+
+		//a whole number of up to 15 digits divided by an exact power of ten is rounded the same as Double.parseDouble
+		if(fast && digits > 0 && digits <= MAX_FAST_DIGITS) {
+			setDoubleToken(negative ? -(mantissa / POWERS_OF_TEN[decimals]) : mantissa / POWERS_OF_TEN[decimals], tokenEnd);
+			centsValue = toCents(mantissa, decimals);
+			centsValue = negative ? -centsValue : centsValue;
+			centsRead = true;
+
+			return true;
+		}
+
+		//anything else is checked by a Scanner
+		tokenScnr = new Scanner(decode(cursor, tokenEnd));
+
+		if(tokenScnr.hasNextDouble()) {
+			setDoubleToken(tokenScnr.nextDouble(), tokenEnd);
+			tokenScnr.close();
+
+			return true;
+		}
+
+		tokenScnr.close();
+
+		return false;
+	}
+
+	/**
+	 * Returns the next token in the current line as a double.
+	 *
+	 * @return a double representing the next token.
+	 *
+	 * @throws InputMismatchException if the next token is not a double.
+	 */
+	public double nextDouble() {
+		if(!hasNextDouble()) {
+			throw new InputMismatchException();
+		}
+
+		cursor = doubleTokenEnd;
+
+		return doubleValue;
+	}
+
+	/**
+	 * Returns true if the next token in the current line is a double written with plain digits, with at most one decimal point,
+	 * 		so it can be read straight into cents by nextCents.
+	 *
+	 * @return true if the next token can be read as cents.
+	 */
+	public boolean hasNextCents() {
+		return hasNextDouble() && centsRead;
+	}
+
+	/**
+	 * Returns the next token in the current line as a price in cents, rounded half up to two decimals
+	 * 		the same way RetailItem.toCents rounds the double it is written as.
+	 *
+	 * @return a long representing the next token in cents.
+	 *
+	 * @throws InputMismatchException if the next token is not a double written with plain digits.
+	 */
+	public long nextCents() {
+		if(!hasNextCents()) {
+			throw new InputMismatchException();
+		}
+
+		cursor = doubleTokenEnd;
+
+		return centsValue;
+	}
+
+	/**
+	 * Closes the stream being read.
+	 *
+	 * @throws IOException if the stream cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		if(input != null) {
+			input.close();
+		}
+	}
+
+	//helper methods
+	/**
+	 * Returns true if the default locale a Scanner reads numbers with separates decimals with '.'.
+	 *
+	 * @return true if the decimal separator is '.'.
+	 */
+	private static boolean decimalSeparatorIsPoint() {
+		return DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT)).getDecimalSeparator() == '.';
+	}
+
+	/**
+	 * Remembers the integer read at the cursor so nextInt does not read it again.
+	 *
+	 * @param value integer that was read.
+	 * @param tokenEnd integer representing the index after the token.
+	 */
+	private void setIntToken(int value, int tokenEnd) {
+		intCursor = cursor;
+		intValue = value;
+		intTokenEnd = tokenEnd;
+	}
+
+	/**
+	 * Remembers the double read at the cursor so nextDouble does not read it again.
+	 *
+	 * @param value double that was read.
+	 * @param tokenEnd integer representing the index after the token.
+	 */
+	private void setDoubleToken(double value, int tokenEnd) {
+		doubleCursor = cursor;
+		doubleValue = value;
+		doubleTokenEnd = tokenEnd;
+		centsRead = false;
+	}
+
+	/**
+	 * Turns the digits of a number into cents, rounding half up any decimals after the second.
+	 * The digits are exact, so this gives the same cents as rounding the decimal number, with no double in between.
+	 *
+	 * @param mantissa long holding every digit of the number, without the decimal point.
+	 * @param decimals integer representing how many of the digits are after the decimal point.
+	 *
+	 * @return a long representing the number in cents.
+	 */
+	private static long toCents(long mantissa, int decimals) {
+		//variables
+		long divisor = 1;
+
+		if(decimals <= 2) {
+			return decimals == 2 ? mantissa : decimals == 1 ? mantissa * 10 : mantissa * 100;
+		}
+
+		for(int i = 2; i < decimals; ++i) {
+			divisor *= 10;
+		}
+
+		//the digits dropped round up when they are at least half a cent
+		return mantissa / divisor + (mantissa % divisor * 2 >= divisor ? 1 : 0);
+	}
+
+	/**
+	 * Returns the index after the token that starts at the cursor.
+	 *
+	 * @return an integer representing the index after the token.
+	 */
+	private int findTokenEnd() {
+		//variables
+		int scan = cursor;
+
+		while(scan < lineEnd && !isWhitespace(buffer.get(scan))) {
+			++scan;
+		}
+
+		return scan;
+	}
+
+	/**
+	 * Returns true if every byte between two indexes is a digit.
+	 *
+	 * @param start integer representing the index of the first byte.
+	 * @param end integer representing the index after the last byte.
+	 *
+	 * @return true if every byte is a digit.
+	 */
+	private boolean isDigits(int start, int end) {
+		//variables
+		int i;
+		byte nextByte;
+
+		for(i = start; i < end; ++i) {
+			nextByte = buffer.get(i);
+
+			if(nextByte < '0' || nextByte > '9') {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Turns the bytes between two indexes into a String.
+	 *
+	 * @param start integer representing the index of the first byte.
+	 * @param end integer representing the index after the last byte.
+	 *
+	 * @return a String made from the bytes.
+	 */
+	private String decode(int start, int end) {
+		//variables
+		int i;
+		boolean ascii = true;
+		byte[] bytes = new byte[end - start];
+
+		buffer.get(start, bytes);
+
+		for(i = 0; i < bytes.length && ascii; ++i) {
+			ascii = bytes[i] >= 0;
+		}
+
+		//ASCII bytes mean the same thing in any ASCII-compatible character set
+		if(ascii) {
+			return new String(bytes, StandardCharsets.ISO_8859_1);
+		}
+
+		return new String(bytes, charset);
+	}
+
+	/**
+	 * Returns true if a byte is one of the ASCII characters Scanner treats as whitespace.
+	 *
+	 * @param nextByte byte to check.
+	 *
+	 * @return true if the byte is whitespace.
+	 */
+	static boolean isWhitespace(byte nextByte) {
+		return nextByte == ' ' || (nextByte >= '\t' && nextByte <= '\r') || (nextByte >= 0x1C && nextByte <= 0x1F);
+	}
+}
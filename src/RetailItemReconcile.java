@@ -0,0 +1,223 @@
+/**
+ * This class compares two database files in one pass and reports how the items of the new file differ from the old one.
+ *
+ * Both files are first sorted by description with RetailItemExport, so neither has to fit in memory.
+ * The sorted copies are then read side by side, one item at a time from each, the same way two sorted runs are merged:
+ * 		the item whose description comes first is taken, and an item found in both files is taken from both.
+ * Descriptions are matched ignoring case, the same way the list looks them up, so each item is compared with only one other.
+ *
+ * Records written for each difference, with descriptions that have no spaces:
+ * 		added DESCRIPTION UNITS PRICE		the item is only in the new file
+ * 		removed DESCRIPTION UNITS PRICE		the item is only in the old file
+ * 		renamed OLD_DESCRIPTION NEW_DESCRIPTION	the description is the same but its case changed
+ * 		units DESCRIPTION OLD_UNITS NEW_UNITS	the units on hand changed
+ * 		price DESCRIPTION OLD_PRICE NEW_PRICE	the price changed
+ * The records are followed by a summary line.
+ *
+ * It can also write a file of RetailItemBatch commands that turns the old file into the new one when run with --batch.
+ * The records and commands are written with Locale.ROOT, so prices always have a '.' and the batch file reads the same in any locale.
+ * Items whose description is in the same file more than once are matched in the order they are in,
+ * 		but the batch commands cannot tell them apart, since they find items by description.
+ */
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.util.Locale;
+
+public class RetailItemReconcile {
+
+	/**
+	 * Compares an old and a new database file and writes a record for each difference.
+	 *
+	 * @param oldFile File holding the items as they were.
+	 * @param newFile File holding the items as they are now.
+	 * @param records PrintWriter the records and the summary are written to.
+	 * @param batch PrintWriter the batch commands are written to, or null for no batch commands.
+	 *
+	 * @return a long representing the number of items that were added, removed, or changed.
+	 *
+	 * @throws IOException May throw IOException if a file cannot be read or the sorted copies cannot be written.
+	 */
+	public static long reconcile(File oldFile, File newFile, PrintWriter records, PrintWriter batch) throws IOException {
+		//variables
+		File sortedOld = File.createTempFile("RetailItemReconcile", ".txt");
+		File sortedNew = File.createTempFile("RetailItemReconcile", ".txt");
+		RetailItemReader oldReader = null;
+		RetailItemReader newReader = null;
+		RetailItem oldItem = new RetailItem();
+		RetailItem newItem = new RetailItem();
+		boolean hasOld;
+		boolean hasNew;
+		int compared;
+		long added = 0;
+		long removed = 0;
+		long changed = 0;
+		long unchanged = 0;
+
+		try {
+			RetailItemExport.export(oldFile, sortedOld, "description");
+			RetailItemExport.export(newFile, sortedNew, "description");
+
+			oldReader = new RetailItemReader(new FileInputStream(sortedOld));
+			newReader = new RetailItemReader(new FileInputStream(sortedNew));
+			hasOld = next(oldReader, oldItem);
+			hasNew = next(newReader, newItem);
+
+			while(hasOld || hasNew) {
+				//an item left in only one file comes before the end of the other
+				if(!hasOld) {
+					compared = 1;
+				}
+				else if(!hasNew) {
+					compared = -1;
+				}
+				else {
+					compared = String.CASE_INSENSITIVE_ORDER.compare(oldItem.getDescription(), newItem.getDescription());
+				}
+
+				if(compared < 0) {
+					writeItemRecord(records, "removed", oldItem);
+
+					if(batch != null) {
+						batch.printf(Locale.ROOT, "delete %s\n", oldItem.getDescription());
+					}
+
+					++removed;
+					hasOld = next(oldReader, oldItem);
+				}
+				else if(compared > 0) {
+					writeItemRecord(records, "added", newItem);
+
+					if(batch != null) {
+						batch.printf(Locale.ROOT, "create %s %d %.2f\n", newItem.getDescription(), newItem.getUnitsOnHand(),
+								BigDecimal.valueOf(newItem.getPriceCents(), 2));
+					}
+
+					++added;
+					hasNew = next(newReader, newItem);
+				}
+				else {
+					if(compareItems(oldItem, newItem, records, batch)) {
+						++changed;
+					}
+					else {
+						++unchanged;
+					}
+
+					hasOld = next(oldReader, oldItem);
+					hasNew = next(newReader, newItem);
+				}
+			}
+		}
+		finally {
+			if(oldReader != null) {
+				oldReader.close();
+			}
+
+			if(newReader != null) {
+				newReader.close();
+			}
+
+			sortedOld.delete();
+			sortedNew.delete();
+		}
+
+		records.printf(Locale.ROOT, "%d added, %d removed, %d changed, %d unchanged.\n", added, removed, changed, unchanged);
+		records.flush();
+
+		if(batch != null) {
+			batch.flush();
+		}
+
+		return added + removed + changed;
+	}
+
+	//helper methods
+	/**
+	 * Writes the records and batch commands for an item found in both files.
+	 *
+	 * @param oldItem RetailItem as it is in the old file.
+	 * @param newItem RetailItem with the same description, ignoring case, as it is in the new file.
+	 * @param records PrintWriter the records are written to.
+	 * @param batch PrintWriter the batch commands are written to, or null for no batch commands.
+	 *
+	 * @return true if anything about the item changed.
+	 */
+	private static boolean compareItems(RetailItem oldItem, RetailItem newItem, PrintWriter records, PrintWriter batch) {
+		//variables
+		boolean changed = false;
+		int unitChange = newItem.getUnitsOnHand() - oldItem.getUnitsOnHand();
+
+		//the rename comes first, so the commands after it can use the new description
+		if(!oldItem.getDescription().equals(newItem.getDescription())) {
+			records.printf(Locale.ROOT, "renamed %s %s\n", oldItem.getDescription(), newItem.getDescription());
+
+			if(batch != null) {
+				batch.printf(Locale.ROOT, "rename %s %s\n", oldItem.getDescription(), newItem.getDescription());
+			}
+
+			changed = true;
+		}
+
+		if(unitChange != 0) {
+			records.printf(Locale.ROOT, "units %s %d %d\n", newItem.getDescription(), oldItem.getUnitsOnHand(), newItem.getUnitsOnHand());
+
+			//both files have at least one unit of every item, so a remove always leaves one
+			if(batch != null && unitChange > 0) {
+				batch.printf(Locale.ROOT, "add %s %d\n", newItem.getDescription(), unitChange);
+			}
+			else if(batch != null) {
+				batch.printf(Locale.ROOT, "remove %s %d\n", newItem.getDescription(), -unitChange);
+			}
+
+			changed = true;
+		}
+
+		if(oldItem.getPriceCents() != newItem.getPriceCents()) {
+			records.printf(Locale.ROOT, "price %s %.2f %.2f\n", newItem.getDescription(),
+					BigDecimal.valueOf(oldItem.getPriceCents(), 2), BigDecimal.valueOf(newItem.getPriceCents(), 2));
+
+			if(batch != null) {
+				batch.printf(Locale.ROOT, "price %s %.2f\n", newItem.getDescription(), BigDecimal.valueOf(newItem.getPriceCents(), 2));
+			}
+
+			changed = true;
+		}
+
+		return changed;
+	}
+
+	/**
+	 * Writes a record holding a whole item.
+	 *
+	 * @param records PrintWriter the record is written to.
+	 * @param kind String representing the kind of record, "added" or "removed".
+	 * @param item RetailItem the record is about.
+	 */
+	private static void writeItemRecord(PrintWriter records, String kind, RetailItem item) {
+		records.printf(Locale.ROOT, "%s %s %d %.2f\n", kind, item.getDescription(), item.getUnitsOnHand(), BigDecimal.valueOf(item.getPriceCents(), 2));
+	}
+
+	/**
+	 * Reads the next item of a sorted copy into an item, which is used again for every line.
+	 *
+	 * @param sortedReader RetailItemReader reading a file written by RetailItemExport.
+	 * @param item RetailItem the values are read into.
+	 *
+	 * @return true if there was another item, false at the end of the file.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be read.
+	 */
+	private static boolean next(RetailItemReader sortedReader, RetailItem item) throws IOException {
+		if(!sortedReader.hasNextLine()) {
+			return false;
+		}
+
+		sortedReader.nextLine();
+
+		//every line of a sorted copy was written by writeData, so it always reads
+		item.readData(sortedReader);
+
+		return true;
+	}
+}
@@ -0,0 +1,455 @@
+/**
+ * This class suggests item descriptions that start with, or are close to, what the user typed, without going through the whole list.
+ * It is a listener of the RetailItemList, so it is kept up to date as items are created, renamed, and deleted.
+ *
+ * Descriptions are compared by their case-folded keys, the same as RetailItemList.indexOfDescription.
+ * Two indexes are kept:
+ * 		a TreeMap of the keys, sorted so every key starting with some text is found as one range of the map, and
+ * 		a trigram index from every three characters in a row to the keys holding them, used to find keys that are spelled almost the same.
+ * Keys that share the most trigrams with the text are checked with the edit distance (the number of characters that have to be
+ * 		added, removed, or changed), and only the close ones are suggested.
+ * Suggestions starting with the text come first, shortest first out of the first few in sorted order. The close ones come after, closest first.
+ *
+ * A removed key is only marked as gone, since taking its id out of a long trigram list would mean reading the whole list.
+ * Once more than half of the ids are gone, the trigram index is built again from the keys that are left.
+ *
+ * All methods are synchronized, so the index can be used while other threads change the list.
+ */
+
+import java.util.*;
+
+public class RetailItemSearchIndex implements RetailItemListener {
+
+	/**
+	 * int PREFIX_CANDIDATES most keys starting with the text that are ranked, for each suggestion wanted.
+	 * int FUZZY_CANDIDATES most keys whose edit distance is worked out.
+	 * int MAX_POSTINGS_SCANNED most keys read from the trigram index for one search, so a very common trigram cannot slow it down.
+	 * int MIN_REBUILD least number of removed ids before the trigram index is built again.
+	 */
+	private static final int PREFIX_CANDIDATES = 4;
+	private static final int FUZZY_CANDIDATES = 64;
+	private static final int MAX_POSTINGS_SCANNED = 10_000;
+	private static final int MIN_REBUILD = 1024;
+
+	/**
+	 * TreeMap keys every case-folded description in the list, mapped to its Entry.
+	 * HashMap trigrams every trigram, mapped to the ids of the keys holding it.
+	 * ArrayList entries every Entry by its id, or null if its key was removed.
+	 * int removedIds number of ids whose key was removed.
+	 * int[] scores number of trigrams each key shares with the text being searched for, by id, reused by every search.
+	 */
+	private TreeMap<String, Entry> keys = new TreeMap<String, Entry>();
+	private HashMap<String, Postings> trigrams = new HashMap<String, Postings>();
+	private ArrayList<Entry> entries = new ArrayList<Entry>();
+	private int removedIds = 0;
+	private int[] scores = new int[16];
+
+	/**
+	 * Creates an index of every item in a list and starts listening to the list for changes.
+	 *
+	 * @param itemList RetailItemList to index.
+	 *
+	 * @return the RetailItemSearchIndex of the list.
+	 */
+	public static RetailItemSearchIndex of(RetailItemList itemList) {
+		//variables
+		RetailItemSearchIndex searchIndex = new RetailItemSearchIndex();
+
+		for(int i = 0; i < itemList.size(); ++i) {
+			searchIndex.addDescription(itemList.get(i).getDescription());
+		}
+
+		itemList.addListener(searchIndex);
+
+		return searchIndex;
+	}
+
+	/**
+	 * Returns descriptions that start with, or are spelled almost the same as, some text, ignoring case.
+	 *
+	 * @param text String representing what the user typed.
+	 * @param limit integer representing the most suggestions to return.
+	 *
+	 * @return a List of descriptions, best first. It is empty if nothing is close.
+	 */
+	public synchronized List<String> suggest(String text, int limit) {
+		//variables
+		String key = RetailItem.foldCase(text);
+		List<String> suggestions = new ArrayList<String>();
+		List<Entry> found = new ArrayList<Entry>();
+
+		if(key.isEmpty() || limit <= 0) {
+			return suggestions;
+		}
+
+		//keys starting with the text are one range of the sorted map
+		for(Entry entry : keys.subMap(key, true, key + Character.MAX_VALUE, false).values()) {
+			found.add(entry);
+
+			if(found.size() >= limit * PREFIX_CANDIDATES) {
+				break;
+			}
+		}
+
+		found.sort(new Comparator<Entry>() {
+			@Override
+			public int compare(Entry first, Entry second) {
+				if(first.key.length() != second.key.length()) {
+					return first.key.length() - second.key.length();
+				}
+
+				return first.key.compareTo(second.key);
+			}
+		});
+
+		for(int i = 0; i < found.size() && suggestions.size() < limit; ++i) {
+			suggestions.add(found.get(i).description);
+		}
+
+		if(suggestions.size() < limit) {
+			for(Entry entry : closeKeys(key, limit)) {
+				if(suggestions.size() < limit && !entry.key.startsWith(key)) {
+					suggestions.add(entry.description);
+				}
+			}
+		}
+
+		return suggestions;
+	}
+
+	/**
+	 * Returns how many different case-folded descriptions are in the index.
+	 *
+	 * @return an integer representing the number of keys.
+	 */
+	public synchronized int size() {
+		return keys.size();
+	}
+
+	//listener methods
+	@Override
+	public synchronized void itemAdded(RetailItem item) {
+		addDescription(item.getDescription());
+	}
+
+	@Override
+	public synchronized void itemRemoved(RetailItem item) {
+		removeDescription(item.getDescription());
+	}
+
+	@Override
+	public synchronized void descriptionChanged(RetailItem item, String oldDescription) {
+		removeDescription(oldDescription);
+		addDescription(item.getDescription());
+	}
+
+	/**
+	 * A case-folded description in the index.
+	 */
+	private static class Entry {
+		/**
+		 * String key case-folded description.
+		 * String description description as the first item with the key has it.
+		 * int id number of the entry in the trigram index.
+		 * int count number of items in the list with the key.
+		 */
+		private String key;
+		private String description;
+		private int id;
+		private int count;
+
+		Entry(String entryKey, String entryDescription, int entryId) {
+			key = entryKey;
+			description = entryDescription;
+			id = entryId;
+			count = 1;
+		}
+	}
+
+	/**
+	 * The ids of the keys holding one trigram.
+	 */
+	private static class Postings {
+		private int[] ids = new int[4];
+		private int size = 0;
+
+		void add(int id) {
+			if(size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+			}
+
+			ids[size++] = id;
+		}
+	}
+
+	//helper methods
+	/**
+	 * Adds a description to the index, or counts it again if its key is already there.
+	 *
+	 * @param description String representing the description.
+	 */
+	private void addDescription(String description) {
+		//variables
+		String key = RetailItem.foldCase(description);
+		Entry entry = keys.get(key);
+		int id;
+
+		if(entry != null) {
+			++entry.count;
+
+			return;
+		}
+
+		entry = new Entry(key, description, entries.size());
+		keys.put(key, entry);
+		addTrigrams(entry);
+	}
+
+	/**
+	 * Gives an entry the next id and adds the id to the list of each of its trigrams.
+	 *
+	 * @param entry Entry to add, with its id set to the number of ids used so far.
+	 */
+	private void addTrigrams(Entry entry) {
+		entries.add(entry);
+
+		for(String trigram : trigramsOf(entry.key)) {
+			trigrams.computeIfAbsent(trigram, newTrigram -> new Postings()).add(entry.id);
+		}
+	}
+
+	/**
+	 * Removes a description from the index once no item has its key.
+	 *
+	 * @param description String representing the description.
+	 */
+	private void removeDescription(String description) {
+		//variables
+		String key = RetailItem.foldCase(description);
+		Entry entry = keys.get(key);
+
+		if(entry == null || --entry.count > 0) {
+			return;
+		}
+
+		//the id stays in the trigram lists and is skipped by searches
+		keys.remove(key);
+		entries.set(entry.id, null);
+		++removedIds;
+
+		if(removedIds >= MIN_REBUILD && removedIds > entries.size() / 2) {
+			rebuildTrigrams();
+		}
+	}
+
+	/**
+	 * Builds the trigram index again from the keys that are left, giving them new ids.
+	 */
+	private void rebuildTrigrams() {
+		entries = new ArrayList<Entry>(keys.size());
+		trigrams = new HashMap<String, Postings>();
+		removedIds = 0;
+
+		for(Entry entry : keys.values()) {
+			entry.id = entries.size();
+			addTrigrams(entry);
+		}
+	}
+
+	/**
+	 * Finds the keys spelled almost the same as a key, closest first.
+	 * The keys sharing the most trigrams with it are found first, reading the shortest lists of the trigram index first,
+	 * 		then the edit distance of each one is worked out.
+	 *
+	 * @param key String representing the case-folded text being searched for.
+	 * @param limit integer representing the most keys to return.
+	 *
+	 * @return a List of the Entry of each close key.
+	 */
+	private List<Entry> closeKeys(String key, int limit) {
+		//variables
+		Set<String> keyTrigrams = trigramsOf(key);
+		List<Postings> postingsList = new ArrayList<Postings>();
+		int[] touched;
+		int touchedCount = 0;
+		int scanned = 0;
+		int idsToRead;
+		int[] keysWithScore = new int[keyTrigrams.size() + 1];
+		int lowestScore;
+		int maxDistance = 1 + key.length() / 3;
+		List<Entry> candidates = new ArrayList<Entry>();
+		final Map<Entry, Integer> distances = new HashMap<Entry, Integer>();
+		int distance;
+		Postings postings;
+
+		for(String trigram : keyTrigrams) {
+			postings = trigrams.get(trigram);
+
+			if(postings != null) {
+				postingsList.add(postings);
+			}
+		}
+
+		//the rarest trigrams say the most about which keys are close
+		postingsList.sort(new Comparator<Postings>() {
+			@Override
+			public int compare(Postings first, Postings second) {
+				return Integer.compare(first.size, second.size);
+			}
+		});
+
+		if(scores.length < entries.size()) {
+			scores = new int[Math.max(entries.size(), scores.length * 2)];
+		}
+
+		//no more ids can be touched than are read
+		touched = new int[Math.min(MAX_POSTINGS_SCANNED, entries.size())];
+
+		//stops once enough ids have been read, even part way through a list
+		for(int p = 0; p < postingsList.size() && scanned < MAX_POSTINGS_SCANNED; ++p) {
+			postings = postingsList.get(p);
+			idsToRead = Math.min(postings.size, MAX_POSTINGS_SCANNED - scanned);
+
+			for(int i = 0; i < idsToRead; ++i) {
+				if(scores[postings.ids[i]]++ == 0) {
+					touched[touchedCount++] = postings.ids[i];
+				}
+			}
+
+			scanned += idsToRead;
+		}
+
+		//counts the keys with each score to find the lowest score that still gets a candidate
+		for(int i = 0; i < touchedCount; ++i) {
+			++keysWithScore[scores[touched[i]]];
+		}
+
+		lowestScore = keyTrigrams.size();
+		for(int kept = keysWithScore[lowestScore]; lowestScore > 1 && kept < FUZZY_CANDIDATES; kept += keysWithScore[lowestScore]) {
+			--lowestScore;
+		}
+
+		//takes the keys above that score, then the keys with that score until there are enough
+		for(int i = 0; i < touchedCount; ++i) {
+			if(scores[touched[i]] > lowestScore) {
+				addCandidate(candidates, touched[i]);
+			}
+		}
+
+		for(int i = 0; i < touchedCount && candidates.size() < FUZZY_CANDIDATES; ++i) {
+			if(scores[touched[i]] == lowestScore) {
+				addCandidate(candidates, touched[i]);
+			}
+		}
+
+		//the scores are cleared for the next search
+		for(int i = 0; i < touchedCount; ++i) {
+			scores[touched[i]] = 0;
+		}
+
+		for(Entry candidate : candidates) {
+			distance = editDistance(key, candidate.key, maxDistance);
+
+			if(distance <= maxDistance) {
+				distances.put(candidate, distance);
+			}
+		}
+
+		candidates = new ArrayList<Entry>(distances.keySet());
+		candidates.sort(new Comparator<Entry>() {
+			@Override
+			public int compare(Entry first, Entry second) {
+				if(!distances.get(first).equals(distances.get(second))) {
+					return distances.get(first) - distances.get(second);
+				}
+
+				return first.key.compareTo(second.key);
+			}
+		});
+
+		return candidates.subList(0, Math.min(limit, candidates.size()));
+	}
+
+	/**
+	 * Adds the entry of an id to a list of candidates, unless its key was removed.
+	 *
+	 * @param candidates List of the candidates found so far.
+	 * @param id integer representing the id.
+	 */
+	private void addCandidate(List<Entry> candidates, int id) {
+		//ids of removed keys are still in the trigram lists
+		if(entries.get(id) != null) {
+			candidates.add(entries.get(id));
+		}
+	}
+
+	/**
+	 * Returns the trigrams of a key: every three characters in a row, with two spaces added before it and one after,
+	 * 		so the start and end of the key and keys shorter than three characters have trigrams too.
+	 *
+	 * @param key String representing a case-folded description.
+	 *
+	 * @return a Set of the different trigrams.
+	 */
+	private static Set<String> trigramsOf(String key) {
+		//variables
+		String padded = "  " + key + " ";
+		Set<String> keyTrigrams = new HashSet<String>();
+
+		for(int i = 0; i + 3 <= padded.length(); ++i) {
+			keyTrigrams.add(padded.substring(i, i + 3));
+		}
+
+		return keyTrigrams;
+	}
+
+	/**
+	 * Returns the number of characters that have to be added, removed, or changed to turn one key into another.
+	 * It stops early once the distance is sure to be more than a limit.
+	 *
+	 * @param first String representing the first key.
+	 * @param second String representing the second key.
+	 * @param limit integer representing the largest distance that matters.
+	 *
+	 * @return an integer representing the distance, or limit + 1 if it is more than limit.
+	 */
+	static int editDistance(String first, String second, int limit) {
+		//variables
+		int[] previous;
+		int[] current;
+		int[] swap;
+		int rowMin;
+
+		if(Math.abs(first.length() - second.length()) > limit) {
+			return limit + 1;
+		}
+
+		previous = new int[second.length() + 1];
+		current = new int[second.length() + 1];
+
+		for(int j = 0; j <= second.length(); ++j) {
+			previous[j] = j;
+		}
+
+		for(int i = 1; i <= first.length(); ++i) {
+			current[0] = i;
+			rowMin = i;
+
+			for(int j = 1; j <= second.length(); ++j) {
+				current[j] = Math.min(Math.min(current[j - 1], previous[j]) + 1,
+						previous[j - 1] + (first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1));
+				rowMin = Math.min(rowMin, current[j]);
+			}
+
+			if(rowMin > limit) {
+				return limit + 1;
+			}
+
+			swap = previous;
+			previous = current;
+			current = swap;
+		}
+
+		return Math.min(previous[second.length()], limit + 1);
+	}
+}
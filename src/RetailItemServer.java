@@ -0,0 +1,278 @@
+/**
+ * This class lets other programs use the inventory over TCP, one command per line.
+ * Each connection gets its own thread. On a Java version with virtual threads each connection gets a virtual thread,
+ * 		so thousands of point-of-sale clients can be connected at once. Otherwise a cached thread pool is used.
+ * All of the connections share one ConcurrentInventory, so they can change stock at the same time without losing changes.
+ *
+ * The server only listens on the loopback address. Every command gets a one line answer starting with "OK " or "ERROR ",
+ * 		except list and stats, whose first line tells how many lines follow it.
+ * Commands:
+ * 		get DESCRIPTION		OK DESCRIPTION UNITS PRICE
+ * 		list			OK COUNT, then COUNT lines of DESCRIPTION UNITS PRICE
+ * 		stats			OK COUNT, then COUNT lines of the operation statistics table
+ * 		quit			closes the connection
+ * and every command RetailItemBatch runs: add, remove, price, rename, create, and delete.
+ * PRICE is the exact price written with two decimals and a '.', whatever the locale of the server.
+ */
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.net.*;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.*;
+
+public class RetailItemServer implements Closeable {
+
+	/**
+	 * ConcurrentInventory inventory inventory the commands are applied to.
+	 * ServerSocket serverSocket socket new connections are accepted on.
+	 * ExecutorService connectionThreads runs one task for each connection.
+	 * Set openSockets sockets of the connections that are still open, closed when the server stops.
+	 * Thread acceptThread thread accepting new connections.
+	 */
+	private ConcurrentInventory inventory;
+	private ServerSocket serverSocket;
+	private ExecutorService connectionThreads;
+	private Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+	private Thread acceptThread;
+
+	/**
+	 * Creates a server for an inventory and starts listening on a port of the loopback address.
+	 * Connections are not accepted until start is called.
+	 *
+	 * @param items ConcurrentInventory the commands are applied to.
+	 * @param port integer representing the port to listen on, or 0 for any free port.
+	 *
+	 * @throws IOException May throw IOException if the port cannot be used.
+	 */
+	public RetailItemServer(ConcurrentInventory items, int port) throws IOException {
+		inventory = items;
+		serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+	}
+
+	/**
+	 * Returns the port the server is listening on.
+	 *
+	 * @return an integer representing the port.
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Starts accepting connections on a thread of its own.
+	 */
+	public void start() {
+		connectionThreads = newThreadPerTaskExecutor();
+
+		acceptThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				acceptConnections();
+			}
+		}, "RetailItemServer");
+		acceptThread.start();
+	}
+
+	/**
+	 * Stops accepting connections, closes the open ones, and waits for their threads to finish.
+	 *
+	 * @throws IOException May throw IOException if the server socket cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+
+		//closing a socket makes the thread reading from it stop
+		for(Socket socket : openSockets) {
+			socket.close();
+		}
+
+		if(connectionThreads != null) {
+			connectionThreads.shutdown();
+
+			try {
+				acceptThread.join();
+				connectionThreads.awaitTermination(10, TimeUnit.SECONDS);
+			}
+			catch(InterruptedException interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Returns an executor that starts a new thread for every task.
+	 * Virtual threads are used if this Java version has them, found by name so the program still runs on older versions.
+	 *
+	 * @return an ExecutorService that runs every task on its own thread.
+	 */
+	public static ExecutorService newThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch(ReflectiveOperationException | UnsupportedOperationException noVirtualThreads) {
+			//older versions, or versions where virtual threads are still a preview that is turned off
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	//helper methods
+	/**
+	 * Accepts connections until the server socket is closed, handing each one to its own thread.
+	 */
+	private void acceptConnections() {
+		//variables
+		Socket socket;
+
+		while(!serverSocket.isClosed()) {
+			try {
+				socket = serverSocket.accept();
+			}
+			catch(IOException acceptError) {
+				//the server socket was closed, or the connection went away before it was accepted
+				continue;
+			}
+
+			openSockets.add(socket);
+
+			try {
+				connectionThreads.execute(new Connection(socket));
+			}
+			catch(RejectedExecutionException stopping) {
+				closeQuietly(socket);
+			}
+		}
+	}
+
+	/**
+	 * Runs one command and returns the answer to send back.
+	 *
+	 * @param command String holding the command and its values.
+	 *
+	 * @return a String holding the answer, without the last line separator.
+	 */
+	String answer(String command) {
+		//variables
+		long start = System.nanoTime();
+		String trimmedCommand = command.trim();
+		String commandName;
+		String description;
+		String statistics;
+		RetailItem item;
+
+		//the command name is the first word
+		if(trimmedCommand.indexOf(' ') >= 0) {
+			commandName = trimmedCommand.substring(0, trimmedCommand.indexOf(' ')).toLowerCase();
+			description = trimmedCommand.substring(trimmedCommand.indexOf(' ') + 1).trim();
+		}
+		else {
+			commandName = trimmedCommand.toLowerCase();
+			description = "";
+		}
+
+		try {
+			if(commandName.equals("get")) {
+				item = inventory.getItem(description);
+				RetailItemManager.metrics.recordSince("get", start);
+
+				return String.format(Locale.ROOT, "OK %s %d %.2f", item.getDescription(), item.getUnitsOnHand(),
+						BigDecimal.valueOf(item.getPriceCents(), 2));
+			}
+			else if(commandName.equals("list")) {
+				return inventory.read(() -> listItems());
+			}
+			else if(commandName.equals("stats")) {
+				statistics = RetailItemManager.metrics.report().trim();
+
+				return "OK " + statistics.split("\n").length + "\n" + statistics;
+			}
+			else {
+				return "OK " + RetailItemBatch.runCommand(inventory, trimmedCommand);
+			}
+		}
+		catch(IllegalArgumentException badCommand) {
+			return "ERROR " + badCommand.getMessage();
+		}
+	}
+
+	/**
+	 * Puts the answer to list together. The caller must hold the inventory's read lock.
+	 *
+	 * @return a String holding the number of items followed by one line for each item.
+	 */
+	private String listItems() {
+		//variables
+		RetailItemList itemList = inventory.getItemList();
+		StringBuilder answer = new StringBuilder("OK ").append(itemList.size());
+		RetailItem item;
+
+		for(int i = 0; i < itemList.size(); ++i) {
+			item = itemList.get(i);
+			answer.append('\n').append(String.format(Locale.ROOT, "%s %d %.2f", item.getDescription(), item.getUnitsOnHand(),
+					BigDecimal.valueOf(item.getPriceCents(), 2)));
+		}
+
+		return answer.toString();
+	}
+
+	/**
+	 * Closes a socket, ignoring any error since it is being thrown away.
+	 *
+	 * @param socket Socket to close.
+	 */
+	private static void closeQuietly(Socket socket) {
+		try {
+			socket.close();
+		}
+		catch(IOException closeError) {
+			//nothing else can be done with the socket
+		}
+	}
+
+	/**
+	 * Reads commands from one connection and writes back the answers until the client quits or goes away.
+	 */
+	private class Connection implements Runnable {
+		private Socket socket;
+
+		Connection(Socket clientSocket) {
+			socket = clientSocket;
+		}
+
+		@Override
+		public void run() {
+			//variables
+			BufferedReader input;
+			PrintWriter output;
+			String command;
+
+			try {
+				socket.setTcpNoDelay(true);
+				input = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+				output = new PrintWriter(new BufferedWriter(new OutputStreamWriter(socket.getOutputStream())));
+
+				while((command = input.readLine()) != null && !command.trim().equalsIgnoreCase("quit")) {
+					//blank lines get no answer
+					if(!command.trim().isEmpty()) {
+						output.print(answer(command));
+						output.print('\n');
+						output.flush();
+					}
+				}
+			}
+			catch(IOException connectionError) {
+				//the client went away or the server is stopping
+			}
+			catch(UncheckedIOException journalError) {
+				//a change could not be written to the journal, so the connection is closed
+				System.out.println("There was an error when handling the file.");
+			}
+			finally {
+				openSockets.remove(socket);
+				closeQuietly(socket);
+			}
+		}
+	}
+}
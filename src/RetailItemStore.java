@@ -0,0 +1,193 @@
+/**
+ * This interface is used by classes that hold the data of the items in a RetailItemList.
+ * Each item is kept in a numbered slot. A slot keeps its number for as long as the item is stored,
+ * 		even when items before it in the list are removed, and may be reused once its item is removed.
+ * Prices are kept in whole cents. Every item costs at least one cent, so a slot with no item in it has a price of 0 cents.
+ * A store does not check the values it is given; RetailItemList checks them before they get here.
+ */
+
+public interface RetailItemStore {
+
+	/**
+	 * Stores a new item.
+	 *
+	 * @param description String representing the description of the item.
+	 * @param unitsOnHand integer representing the units on hand of the item.
+	 * @param priceCents long representing the price of the item in cents.
+	 *
+	 * @return an integer representing the slot the item was stored in.
+	 */
+	int add(String description, int unitsOnHand, long priceCents);
+
+	/**
+	 * Stores a new item whose description hash has already been worked out.
+	 * A store that keeps the hash of each description keeps this one instead of working it out again.
+	 *
+	 * @param description String representing the description of the item.
+	 * @param descriptionHash integer representing the RetailItemIndex hash of the description.
+	 * @param unitsOnHand integer representing the units on hand of the item.
+	 * @param priceCents long representing the price of the item in cents.
+	 *
+	 * @return an integer representing the slot the item was stored in.
+	 */
+	default int add(String description, int descriptionHash, int unitsOnHand, long priceCents) {
+		return add(description, unitsOnHand, priceCents);
+	}
+
+	/**
+	 * Stores a new item with the same description as the item in another slot.
+	 * A store can let both slots share one copy of the description.
+	 *
+	 * @param sourceSlot integer representing the slot of the item whose description is used.
+	 * @param unitsOnHand integer representing the units on hand of the item.
+	 * @param priceCents long representing the price of the item in cents.
+	 *
+	 * @return an integer representing the slot the item was stored in.
+	 */
+	default int addSharingDescription(int sourceSlot, int unitsOnHand, long priceCents) {
+		return add(getDescription(sourceSlot), descriptionHash(sourceSlot), unitsOnHand, priceCents);
+	}
+
+	/**
+	 * Removes the item in a slot so the slot can be used again, leaving its price at 0 cents.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 */
+	void remove(int slot);
+
+	/**
+	 * Removes every item.
+	 */
+	void clear();
+
+	/**
+	 * Makes sure a number of items can be stored without growing.
+	 *
+	 * @param minCapacity integer representing how many items need to be stored.
+	 */
+	void ensureCapacity(int minCapacity);
+
+	/**
+	 * Returns one more than the highest slot that has been used, so every slot is below it.
+	 *
+	 * @return an integer representing the number of slots.
+	 */
+	int slotCount();
+
+	/**
+	 * Returns the description of the item in a slot.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 *
+	 * @return a String representing the description of the item.
+	 */
+	String getDescription(int slot);
+
+	/**
+	 * Changes the description of the item in a slot.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 * @param description String representing the new description.
+	 */
+	void setDescription(int slot, String description);
+
+	/**
+	 * Returns the hash RetailItemIndex uses for the description of the item in a slot.
+	 * A store that keeps the hash of each description can return it without making a String.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 *
+	 * @return an integer representing the hash of the description.
+	 */
+	default int descriptionHash(int slot) {
+		return RetailItemIndex.hash(getDescription(slot));
+	}
+
+	/**
+	 * Returns true if the description of the item in a slot matches a description.
+	 * A store can compare the description where it keeps it instead of making a String.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 * @param description String representing the description to compare with.
+	 * @param ignoreCase true to ignore case the same way String.equalsIgnoreCase does.
+	 *
+	 * @return true if the descriptions match.
+	 */
+	default boolean descriptionMatches(int slot, String description, boolean ignoreCase) {
+		return ignoreCase ? getDescription(slot).equalsIgnoreCase(description) : getDescription(slot).equals(description);
+	}
+
+	/**
+	 * Returns the units on hand of the item in a slot.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 *
+	 * @return an integer representing the units on hand of the item.
+	 */
+	int getUnitsOnHand(int slot);
+
+	/**
+	 * Changes the units on hand of the item in a slot.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 * @param unitsOnHand integer representing the new units on hand.
+	 */
+	void setUnitsOnHand(int slot, int unitsOnHand);
+
+	/**
+	 * Returns the price in cents of the item in a slot.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 *
+	 * @return a long representing the price of the item in cents.
+	 */
+	long getPriceCents(int slot);
+
+	/**
+	 * Changes the price in cents of the item in a slot.
+	 *
+	 * @param slot integer representing the slot of the item.
+	 * @param priceCents long representing the new price in cents.
+	 */
+	void setPriceCents(int slot, long priceCents);
+
+	/**
+	 * Returns about how many bytes of memory the store is using, including room it has not filled yet.
+	 *
+	 * @return a long representing the number of bytes.
+	 */
+	long memoryUsed();
+
+	/**
+	 * Adds up the items in a range of slots: the number of items, their units on hand, their prices, and their stock values.
+	 * Slots with a price of 0 cents have no item in them and are skipped.
+	 *
+	 * @param fromSlot integer representing the first slot to add up.
+	 * @param toSlot integer representing the slot after the last one to add up, at most slotCount().
+	 *
+	 * @return a RetailItemAggregates.Totals holding the totals of the items in the slots.
+	 */
+	default RetailItemAggregates.Totals totals(int fromSlot, int toSlot) {
+		//variables
+		long itemCount = 0;
+		long totalUnits = 0;
+		long totalPriceCents = 0;
+		long totalValueCents = 0;
+		long priceCents;
+		int unitsOnHand;
+
+		for(int slot = fromSlot; slot < toSlot; ++slot) {
+			priceCents = getPriceCents(slot);
+
+			if(priceCents != 0) {
+				unitsOnHand = getUnitsOnHand(slot);
+				++itemCount;
+				totalUnits += unitsOnHand;
+				totalPriceCents += priceCents;
+				totalValueCents += unitsOnHand * priceCents;
+			}
+		}
+
+		return new RetailItemAggregates.Totals(itemCount, totalUnits, totalPriceCents, totalValueCents);
+	}
+}
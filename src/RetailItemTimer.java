@@ -0,0 +1,181 @@
+/**
+ * This class counts how many times an operation is done and keeps a histogram of how long it took.
+ * The histogram is log-linear, like HdrHistogram: every power of two is split into 32 buckets of the same width,
+ * 		so each time is kept to within about 3% no matter how short or long it is, in a fixed 1,888 counters.
+ *
+ * Recording a time only adds to counters that already exist, so it does not make any objects and can be done from many threads at once.
+ * Percentiles are worked out from the counters when they are asked for, and are the highest time of the bucket they fall in,
+ * 		never more than the longest time recorded.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class RetailItemTimer implements RetailItemTimerMXBean {
+
+	/**
+	 * int SUB_BUCKET_BITS number of bits that pick a bucket within a power of two.
+	 * int BUCKET_COUNT number of buckets needed for every positive long.
+	 */
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) << SUB_BUCKET_BITS;
+
+	/**
+	 * String name name of the operation.
+	 * long startNanos System.nanoTime() when the program's metrics were started, used for the operations per second.
+	 * AtomicLongArray buckets number of times that fell in each bucket.
+	 * AtomicLong count number of times recorded.
+	 * AtomicLong totalNanos sum of the times recorded.
+	 * AtomicLong maxNanos longest time recorded.
+	 */
+	private String name;
+	private long startNanos;
+	private AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+	private AtomicLong count = new AtomicLong();
+	private AtomicLong totalNanos = new AtomicLong();
+	private AtomicLong maxNanos = new AtomicLong();
+
+	/**
+	 * Creates a timer with nothing recorded.
+	 *
+	 * @param operationName String representing the name of the operation.
+	 * @param metricsStartNanos long representing System.nanoTime() when the metrics were started.
+	 */
+	public RetailItemTimer(String operationName, long metricsStartNanos) {
+		name = operationName;
+		startNanos = metricsStartNanos;
+	}
+
+	/**
+	 * Records how long one operation took, from a start time to now.
+	 *
+	 * @param operationStartNanos long representing System.nanoTime() when the operation started.
+	 */
+	public void recordSince(long operationStartNanos) {
+		record(System.nanoTime() - operationStartNanos);
+	}
+
+	/**
+	 * Records how long one operation took.
+	 *
+	 * @param nanos long representing the time in nanoseconds. Negative times are counted as 0.
+	 */
+	public void record(long nanos) {
+		//variables
+		long oldMax;
+
+		if(nanos < 0) {
+			nanos = 0;
+		}
+
+		buckets.incrementAndGet(bucketOf(nanos));
+		count.incrementAndGet();
+		totalNanos.addAndGet(nanos);
+
+		oldMax = maxNanos.get();
+		while(nanos > oldMax && !maxNanos.compareAndSet(oldMax, nanos)) {
+			oldMax = maxNanos.get();
+		}
+	}
+
+	/**
+	 * Returns the time a percentage of the operations took no longer than.
+	 *
+	 * @param percent double representing the percentage, from 0 to 100.
+	 *
+	 * @return a long representing the time in nanoseconds, or 0 if nothing was recorded.
+	 */
+	public long percentileNanos(double percent) {
+		//variables
+		long total = count.get();
+		long wanted = Math.max(1, (long) Math.ceil(percent / 100.0 * total));
+		long seen = 0;
+
+		if(total == 0) {
+			return 0;
+		}
+
+		for(int i = 0; i < BUCKET_COUNT; ++i) {
+			seen += buckets.get(i);
+
+			if(seen >= wanted) {
+				return Math.min(highestInBucket(i), maxNanos.get());
+			}
+		}
+
+		//only reached if times were recorded while the buckets were being read
+		return maxNanos.get();
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public long getCount() {
+		return count.get();
+	}
+
+	@Override
+	public double getOperationsPerSecond() {
+		//variables
+		long elapsedNanos = System.nanoTime() - startNanos;
+
+		return elapsedNanos > 0 ? count.get() * 1e9 / elapsedNanos : 0;
+	}
+
+	@Override
+	public double getMeanMicros() {
+		//variables
+		long total = count.get();
+
+		return total > 0 ? totalNanos.get() / 1000.0 / total : 0;
+	}
+
+	@Override
+	public double getMedianMicros() {
+		return percentileNanos(50) / 1000.0;
+	}
+
+	@Override
+	public double getPercentile99Micros() {
+		return percentileNanos(99) / 1000.0;
+	}
+
+	@Override
+	public double getMaxMicros() {
+		return maxNanos.get() / 1000.0;
+	}
+
+	//helper methods
+	/**
+	 * Returns the bucket a time falls in.
+	 * Times below 64 get a bucket each. Above that, each power of two gets 32 buckets.
+	 *
+	 * @param nanos long representing the time, 0 or more.
+	 *
+	 * @return an integer representing the bucket.
+	 */
+	private static int bucketOf(long nanos) {
+		//variables
+		int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(nanos) - (SUB_BUCKET_BITS + 1));
+
+		return (shift << SUB_BUCKET_BITS) + (int) (nanos >>> shift);
+	}
+
+	/**
+	 * Returns the highest time that falls in a bucket.
+	 *
+	 * @param bucket integer representing the bucket.
+	 *
+	 * @return a long representing the time.
+	 */
+	private static long highestInBucket(int bucket) {
+		//variables
+		int shift = Math.max(0, (bucket >>> SUB_BUCKET_BITS) - 1);
+		long lowest = (long) (bucket - (shift << SUB_BUCKET_BITS)) << shift;
+
+		return lowest + (1L << shift) - 1;
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ * This interface is what JMX tools such as JConsole see of a RetailItemTimer.
+ * Each timer is registered as RetailItemManager:type=Operation,name=NAME.
+ * The times are in microseconds.
+ */
+
+public interface RetailItemTimerMXBean {
+
+	/**
+	 * Returns the name of the operation being timed.
+	 *
+	 * @return a String representing the name.
+	 */
+	public String getName();
+
+	/**
+	 * Returns how many times the operation was done.
+	 *
+	 * @return a long representing the count.
+	 */
+	public long getCount();
+
+	/**
+	 * Returns how many times the operation was done per second since the program started.
+	 *
+	 * @return a double representing the operations per second.
+	 */
+	public double getOperationsPerSecond();
+
+	/**
+	 * Returns the average time the operation took.
+	 *
+	 * @return a double representing the average in microseconds.
+	 */
+	public double getMeanMicros();
+
+	/**
+	 * Returns the time half of the operations took no longer than.
+	 *
+	 * @return a double representing the median in microseconds.
+	 */
+	public double getMedianMicros();
+
+	/**
+	 * Returns the time 99 out of 100 operations took no longer than.
+	 *
+	 * @return a double representing the 99th percentile in microseconds.
+	 */
+	public double getPercentile99Micros();
+
+	/**
+	 * Returns the longest time the operation took.
+	 *
+	 * @return a double representing the longest time in microseconds.
+	 */
+	public double getMaxMicros();
+}
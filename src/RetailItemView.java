@@ -0,0 +1,90 @@
+/**
+ * This class is a RetailItem that does not hold its own data.
+ * It reads and changes the item in one slot of a RetailItemList's store, so every RetailItem method,
+ * 		such as printInfo and writeData, works on items kept in a store.
+ * Views are made by RetailItemList.get and are cheap to throw away.
+ * Two views are equal if they look at the same slot of the same list.
+ */
+
+public class RetailItemView extends RetailItem {
+
+	/**
+	 * RetailItemList itemList list the item is in.
+	 * int slot slot of the item in the list's store.
+	 */
+	private RetailItemList itemList;
+	private int slot;
+
+	/**
+	 * Creates a view of the item in one slot of a list.
+	 *
+	 * @param owner RetailItemList the item is in.
+	 * @param itemSlot integer representing the slot of the item.
+	 */
+	RetailItemView(RetailItemList owner, int itemSlot) {
+		itemList = owner;
+		slot = itemSlot;
+	}
+
+	/**
+	 * Returns the slot of the item in its list's store.
+	 *
+	 * @return an integer representing the slot.
+	 */
+	public int getSlot() {
+		return slot;
+	}
+
+	//mutators
+	//RetailItem checks each value the same way as for any other item before the list is changed
+	@Override
+	public void setDescription(String userDescription) throws IllegalArgumentException {
+		super.setDescription(userDescription);
+		itemList.updateDescription(slot, userDescription);
+	}
+
+	@Override
+	public void setUnitsOnHand(int userUnitsOnHand) throws IllegalArgumentException {
+		super.setUnitsOnHand(userUnitsOnHand);
+		itemList.updateUnitsOnHand(slot, userUnitsOnHand);
+	}
+
+	//setPrice rounds the price to cents and calls this
+	@Override
+	public void setPriceCents(long userPriceCents) throws IllegalArgumentException {
+		super.setPriceCents(userPriceCents);
+		itemList.updatePriceCents(slot, userPriceCents);
+	}
+
+	//accessors
+	@Override
+	public String getDescription() {
+		return itemList.descriptionAt(slot);
+	}
+
+	@Override
+	public String getDescriptionKey() {
+		return RetailItem.foldCase(getDescription());
+	}
+
+	@Override
+	public int getUnitsOnHand() {
+		return itemList.unitsOnHandAt(slot);
+	}
+
+	//getPrice works the price out from this
+	@Override
+	public long getPriceCents() {
+		return itemList.priceCentsAt(slot);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof RetailItemView && ((RetailItemView) other).itemList == itemList && ((RetailItemView) other).slot == slot;
+	}
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(itemList) * 31 + slot;
+	}
+}
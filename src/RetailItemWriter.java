@@ -0,0 +1,235 @@
+/**
+ * This class writes RetailItem objects in the text format of the database file without using printf.
+ * It puts each line together in a reusable buffer, writing the numbers digit by digit,
+ * 		and only sends the buffer on when it is full.
+ * The output is the same, character for character, as RetailItem.writeData(PrintWriter),
+ * 		including the decimal separator of the default locale. Prices are given in cents, so they are written exactly.
+ * Anything the fast path cannot write, such as a negative number or a locale with other digits, is written with String.format.
+ * It can also write the info RetailItem.printInfo prints, so a whole page of items can be sent to the screen in one write.
+ */
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+public class RetailItemWriter implements Closeable, Flushable {
+
+	/**
+	 * int BUFFER_SIZE size of the buffer.
+	 * int MAX_NUMBER_CHARS most characters the units and price of one line can take up.
+	 * String LINE_SEPARATOR line separator println writes.
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int MAX_NUMBER_CHARS = 48;
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+
+	/**
+	 * Writer writer where the finished lines are sent.
+	 * char[] buffer characters waiting to be sent.
+	 * int count number of characters in the buffer.
+	 * Locale locale locale printf would format the numbers with.
+	 * char decimalSeparator character printf would put between dollars and cents.
+	 * boolean plainDigits true if the locale writes numbers with the digits 0 to 9.
+	 */
+	private Writer writer;
+	private char[] buffer = new char[BUFFER_SIZE];
+	private int count = 0;
+	private Locale locale;
+	private char decimalSeparator;
+	private boolean plainDigits;
+
+	/**
+	 * Creates a RetailItemWriter that sends its lines to a Writer.
+	 *
+	 * @param outputWriter Writer the lines are sent to.
+	 */
+	public RetailItemWriter(Writer outputWriter) {
+		DecimalFormatSymbols symbols;
+
+		writer = outputWriter;
+		locale = Locale.getDefault(Locale.Category.FORMAT);
+		symbols = DecimalFormatSymbols.getInstance(locale);
+		decimalSeparator = symbols.getDecimalSeparator();
+		plainDigits = symbols.getZeroDigit() == '0';
+	}
+
+	/**
+	 * Creates a RetailItemWriter that writes to a file with the default character set, the same as FileWriter.
+	 *
+	 * @param fileName String representing the name of the file to write.
+	 *
+	 * @throws IOException May throw IOException if the file cannot be opened.
+	 */
+	public RetailItemWriter(String fileName) throws IOException {
+		this(new FileWriter(fileName));
+	}
+
+	/**
+	 * Writes one line holding a description, units on hand, and price,
+	 * 		the same as RetailItem.writeData(PrintWriter) writes it.
+	 *
+	 * @param description String representing the description of an item.
+	 * @param unitsOnHand integer representing the units on hand of an item.
+	 * @param priceCents long representing the price of an item in cents.
+	 *
+	 * @throws IOException May throw IOException if the line cannot be written.
+	 */
+	public void write(String description, int unitsOnHand, long priceCents) throws IOException {
+		write(description);
+
+		if(!plainDigits || unitsOnHand < 0 || priceCents < 0) {
+			//locales with other digits, and values that are never saved, are left to String.format
+			write(String.format(locale, " %d %.2f \n", unitsOnHand, BigDecimal.valueOf(priceCents, 2)));
+
+			return;
+		}
+
+		if(BUFFER_SIZE - count < MAX_NUMBER_CHARS) {
+			flushBuffer();
+		}
+
+		buffer[count++] = ' ';
+		count = putDigits(unitsOnHand, count);
+		buffer[count++] = ' ';
+		count = putDigits(priceCents / 100, count);
+		buffer[count++] = decimalSeparator;
+		buffer[count++] = (char) ('0' + priceCents % 100 / 10);
+		buffer[count++] = (char) ('0' + priceCents % 10);
+		buffer[count++] = ' ';
+		buffer[count++] = '\n';
+	}
+
+	/**
+	 * Writes the info of an item the same as RetailItem.printInfo prints it:
+	 * 		the description and the units on hand on lines of their own, then the price with two decimals and a blank line.
+	 *
+	 * @param description String representing the description of an item.
+	 * @param unitsOnHand integer representing the units on hand of an item.
+	 * @param priceCents long representing the price of an item in cents.
+	 *
+	 * @throws IOException May throw IOException if the info cannot be written.
+	 */
+	public void writeInfo(String description, int unitsOnHand, long priceCents) throws IOException {
+		write("Description: ");
+		write(description);
+		write(LINE_SEPARATOR);
+		write("Units On Hand: ");
+		write(Integer.toString(unitsOnHand));
+		write(LINE_SEPARATOR);
+		write("Price: $");
+
+		if(!plainDigits || priceCents < 0) {
+			//the same as printf, for anything the fast path cannot write
+			write(String.format(locale, "%.2f\n\n", BigDecimal.valueOf(priceCents, 2)));
+
+			return;
+		}
+
+		if(BUFFER_SIZE - count < MAX_NUMBER_CHARS) {
+			flushBuffer();
+		}
+
+		count = putDigits(priceCents / 100, count);
+		buffer[count++] = decimalSeparator;
+		buffer[count++] = (char) ('0' + priceCents % 100 / 10);
+		buffer[count++] = (char) ('0' + priceCents % 10);
+		buffer[count++] = '\n';
+		buffer[count++] = '\n';
+	}
+
+	/**
+	 * Writes text as it is.
+	 *
+	 * @param text String to write.
+	 *
+	 * @throws IOException May throw IOException if the text cannot be written.
+	 */
+	public void write(String text) throws IOException {
+		//variables
+		int length = text.length();
+
+		if(length > BUFFER_SIZE - count) {
+			flushBuffer();
+
+			//text bigger than the whole buffer goes straight to the writer
+			if(length > BUFFER_SIZE) {
+				writer.write(text);
+
+				return;
+			}
+		}
+
+		text.getChars(0, length, buffer, count);
+		count += length;
+	}
+
+	/**
+	 * Sends everything in the buffer to the writer and flushes it.
+	 *
+	 * @throws IOException May throw IOException if the buffer cannot be written.
+	 */
+	@Override
+	public void flush() throws IOException {
+		flushBuffer();
+		writer.flush();
+	}
+
+	/**
+	 * Sends everything in the buffer to the writer and closes it.
+	 *
+	 * @throws IOException May throw IOException if the buffer cannot be written.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flushBuffer();
+		}
+		finally {
+			writer.close();
+		}
+	}
+
+	//helper methods
+	/**
+	 * Sends everything in the buffer to the writer.
+	 *
+	 * @throws IOException May throw IOException if the buffer cannot be written.
+	 */
+	private void flushBuffer() throws IOException {
+		if(count > 0) {
+			writer.write(buffer, 0, count);
+			count = 0;
+		}
+	}
+
+	/**
+	 * Puts the digits of a number that is not negative into the buffer.
+	 *
+	 * @param number long to write.
+	 * @param position integer representing where in the buffer the first digit goes.
+	 *
+	 * @return an integer representing the position after the last digit.
+	 */
+	private int putDigits(long number, int position) {
+		//variables
+		int digits = 1;
+		long remaining = number;
+		int end;
+
+		while(remaining >= 10) {
+			remaining /= 10;
+			++digits;
+		}
+
+		end = position + digits;
+
+		//fills in the digits from the last one back to the first
+		for(int i = end - 1; i >= position; --i) {
+			buffer[i] = (char) ('0' + number % 10);
+			number /= 10;
+		}
+
+		return end;
+	}
+}
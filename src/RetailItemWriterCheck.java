@@ -0,0 +1,149 @@
+/**
+ * This class checks that RetailItemWriter writes the same text as printf, so a database saved with it reads back the same.
+ * Each item is written three ways:
+ * 		with printf("%s %d %.2f \n") and the price as a double, the way writeData wrote it before prices were kept in cents,
+ * 		with RetailItem.writeData(PrintWriter), and with RetailItem.writeData(RetailItemWriter).
+ * Every price is given to the item as a double, so it is rounded to cents the same way a price typed in or read from a file is.
+ *
+ * The prices include random prices, prices that end in half a cent (x.xx5), and prices up to the largest that can be stored.
+ * The items are written once with each of several default locales, including ones with a comma between dollars and cents
+ * 		and ones that write numbers with other digits.
+ * The check stops at the first line that is not the same and exits with status 1.
+ *
+ * Usage: java RetailItemWriterCheck [prices per locale]
+ * The number of prices defaults to 300000.
+ */
+
+import java.io.*;
+import java.util.*;
+
+public class RetailItemWriterCheck {
+
+	/**
+	 * String[] LOCALES language tags of the default locales the items are written with.
+	 * String[] DESCRIPTIONS descriptions given to the items, in turn.
+	 * double[] EDGE_PRICES prices that are checked with every locale besides the random ones.
+	 */
+	private static final String[] LOCALES = {"en-US", "de-DE", "fr-FR", "de-CH", "pt-BR", "ar-EG", "fa-IR", "hi-IN-u-nu-deva", "th-TH-u-nu-thai"};
+	private static final String[] DESCRIPTIONS = {"Widget", "Caf\u00e9", "\u00c4pfel", "\u65e5\u672c\u8336", "x"};
+	private static final double[] EDGE_PRICES = {0.01, 0.005, 0.015, 0.045, 1.005, 2.675, 1.115, 10.0, 99.995, 0.995,
+			1e7, 123456789.125, 1e12 + 0.005, 99999999999999.99, 99999999999999.995, 1e14, 9e15, 1e16, 9.2e16};
+
+	public static void main(String[] args) throws IOException {
+		//variables
+		int priceCount = args.length > 0 ? Integer.parseInt(args[0]) : 300000;
+		Locale defaultLocale = Locale.getDefault();
+		Random random = new Random(7);
+		double[] prices = new double[EDGE_PRICES.length + priceCount];
+		int lines = 0;
+
+		System.arraycopy(EDGE_PRICES, 0, prices, 0, EDGE_PRICES.length);
+
+		//a third random prices, a third half cents, and a third large prices with up to three decimals
+		for(int i = EDGE_PRICES.length; i < prices.length; ++i) {
+			if(i % 3 == 0) {
+				prices[i] = (1 + random.nextInt(10_000_000)) / 100.0;
+			}
+			else if(i % 3 == 1) {
+				prices[i] = (10L * random.nextInt(1_000_000_000) + 5) / 1000.0;
+			}
+			else {
+				prices[i] = (long) (random.nextDouble() * 1e15) / Math.pow(10, random.nextInt(4));
+			}
+		}
+
+		try {
+			for(String tag : LOCALES) {
+				Locale.setDefault(Locale.forLanguageTag(tag));
+				lines += check(tag, prices);
+			}
+		}
+		finally {
+			Locale.setDefault(defaultLocale);
+		}
+
+		System.out.println("All " + lines + " lines matched.");
+	}
+
+	//helper methods
+	/**
+	 * Writes an item for each price the three ways with the default locale and compares the text, exiting on the first difference.
+	 *
+	 * @param tag String representing the language tag of the default locale, for the messages.
+	 * @param prices double array holding the prices of the items.
+	 *
+	 * @return an integer representing the number of lines compared.
+	 *
+	 * @throws IOException May throw IOException if RetailItemWriter cannot write, which a StringWriter never does.
+	 */
+	private static int check(String tag, double[] prices) throws IOException {
+		//variables
+		StringWriter oldText = new StringWriter();
+		StringWriter printText = new StringWriter();
+		StringWriter writerText = new StringWriter();
+		PrintWriter oldWriter = new PrintWriter(oldText);
+		PrintWriter printWriter = new PrintWriter(printText);
+		RetailItemWriter itemWriter = new RetailItemWriter(writerText);
+		RetailItem item;
+		int lines = 0;
+
+		for(int i = 0; i < prices.length; ++i) {
+			try {
+				item = new RetailItem(DESCRIPTIONS[i % DESCRIPTIONS.length], 1 + i % 5000, prices[i]);
+			}
+			catch(IllegalArgumentException notStorable) {
+				//prices below a cent or too large are never saved
+				continue;
+			}
+
+			oldWriter.printf("%s %d %.2f \n", item.getDescription(), item.getUnitsOnHand(), prices[i]);
+			item.writeData(printWriter);
+			item.writeData(itemWriter);
+			++lines;
+		}
+
+		oldWriter.flush();
+		printWriter.flush();
+		itemWriter.flush();
+
+		compare(tag, "printf of the double", oldText.toString(), "RetailItemWriter", writerText.toString());
+		compare(tag, "writeData(PrintWriter)", printText.toString(), "RetailItemWriter", writerText.toString());
+
+		System.out.println(tag + ": " + lines + " lines matched.");
+
+		return lines;
+	}
+
+	/**
+	 * Compares two texts and exits with status 1, printing the first line that is not the same, if they differ.
+	 *
+	 * @param tag String representing the language tag of the default locale.
+	 * @param expectedName String representing how the expected text was written.
+	 * @param expected String holding the expected text.
+	 * @param actualName String representing how the actual text was written.
+	 * @param actual String holding the actual text.
+	 */
+	private static void compare(String tag, String expectedName, String expected, String actualName, String actual) {
+		//variables
+		String[] expectedLines;
+		String[] actualLines;
+
+		if(expected.equals(actual)) {
+			return;
+		}
+
+		expectedLines = expected.split("\n", -1);
+		actualLines = actual.split("\n", -1);
+
+		for(int i = 0; i < Math.max(expectedLines.length, actualLines.length); ++i) {
+			if(i >= expectedLines.length || i >= actualLines.length || !expectedLines[i].equals(actualLines[i])) {
+				System.out.println(tag + ": line " + (i + 1) + " is not the same.");
+				System.out.println(expectedName + ": \"" + (i < expectedLines.length ? expectedLines[i] : "") + "\"");
+				System.out.println(actualName + ": \"" + (i < actualLines.length ? actualLines[i] : "") + "\"");
+				break;
+			}
+		}
+
+		System.exit(1);
+	}
+}